@@ -0,0 +1,660 @@
+package org.example.ast;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+import org.example.token.SymbolTable;
+import org.example.token.Token;
+import org.example.token.TokenType;
+
+/**
+ * A whole program's AST in one flat {@code int[]}, four ints per node:
+ *
+ * <pre>
+ *   header  kind ordinal | type ordinal &lt;&lt; 8 of the operator, ERROR token or
+ *           EXPRESSION statement's first token
+ *   token   index of the node's token in the parser's TokenBuffer, -1 if unknown
+ *   a       LET name, INFIX left, IDENTIFIER symbol, INTEGER high half, ERROR number
+ *   b       LET/RETURN/EXPRESSION value, PREFIX/INFIX right, INTEGER low half
+ * </pre>
+ *
+ * <p>Nodes are addressed by their index and children are always added before
+ * their parent. A missing child is {@code -1}. Identifier names live once in
+ * the {@link SymbolTable}, operators are implied by their token type, and
+ * integers are stored by value, so a node costs 16 bytes and no objects.
+ * Only {@link ErrorNode}s keep their token literal and message as strings.
+ *
+ * <p>Read it with the accessors or a {@link Visitor}, and convert with
+ * {@link #of(Program)} and {@link #toProgram()}. Both conversions work from
+ * an explicit stack, so nesting as deep as the parser accepts does not
+ * recurse.
+ *
+ * <p>{@link #write} stores an arena as little-endian bytes: a header of six
+ * ints (magic, {@link #FORMAT_VERSION}, node, statement, symbol and error
+ * counts), the node and statement ints as they are, then the symbol names and
+ * error strings, each an int byte length and UTF-8 bytes. {@link #read} wraps
+ * such bytes without copying the nodes, for example straight from a mapped
+ * file; only names and error strings are decoded. An arena read that way is
+ * read-only.
+ */
+public final class AstArena {
+    private static final NodeKind[] KINDS = NodeKind.values();
+    private static final TokenType[] TYPES = TokenType.values();
+    private static final int STRIDE = 4;
+    private static final int MAGIC = 0x414B4E4D; // "MNKA" in little-endian order
+    private static final int HEADER = 6 * Integer.BYTES;
+
+    /**
+     * Changes whenever the byte layout or the meaning of node fields changes.
+     */
+    public static final int FORMAT_VERSION = 2;
+
+    private final SymbolTable symbols;
+    private IntBuffer nodes;
+    private int size;
+    private IntBuffer statements;
+    private int statementCount;
+    private final List<String> errors; // token literal and message of each ERROR node
+    private final boolean frozen;
+
+    public AstArena(SymbolTable symbols) {
+        this(symbols, 16);
+    }
+
+    public AstArena(SymbolTable symbols, int capacity) {
+        this.symbols = symbols;
+        this.nodes = IntBuffer.allocate(Math.max(1, capacity) * STRIDE);
+        this.statements = IntBuffer.allocate(Math.max(1, capacity / 4));
+        this.errors = new ArrayList<>();
+        this.frozen = false;
+    }
+
+    private AstArena(SymbolTable symbols, IntBuffer nodes, IntBuffer statements, List<String> errors) {
+        this.symbols = symbols;
+        this.nodes = nodes;
+        this.size = nodes.capacity() / STRIDE;
+        this.statements = statements;
+        this.statementCount = statements.capacity();
+        this.errors = errors;
+        this.frozen = true;
+    }
+
+    /**
+     * Copies an object AST into a new arena, interning identifier names into
+     * a fresh table.
+     */
+    public static AstArena of(Program program) {
+        return of(program, new SymbolTable());
+    }
+
+    public static AstArena of(Program program, SymbolTable symbols) {
+        var arena = new AstArena(symbols);
+        var flattener = arena.new Flattener();
+        for (var statement : program.getStatements()) {
+            arena.addStatement(flattener.add(statement));
+        }
+        return arena;
+    }
+
+    /**
+     * Adds object nodes in post-order, left before right, as the recursive
+     * definition would.
+     */
+    private final class Flattener {
+        // expressions waiting to be added, and whether their operands are done
+        private Expression[] pending = new Expression[16];
+        private boolean[] expanded = new boolean[16];
+        private int pendingCount;
+        // nodes of added operands
+        private int[] results = new int[16];
+        private int resultCount;
+
+        int add(Statement statement) {
+            if (statement instanceof ErrorNode error) {
+                return error(error);
+            } else if (statement instanceof LetStatement let) {
+                var name = add(let.getName());
+                return let(-1, name, add(let.getValue()));
+            } else if (statement instanceof ReturnStatement ret) {
+                return returns(-1, add(ret.getReturnValue()));
+            } else if (statement instanceof ExpressionStatement stmt) {
+                return expression(-1, stmt.getToken().getType(), add(stmt.getExpression()));
+            }
+            throw new IllegalArgumentException("unknown statement " + statement.getClass().getSimpleName());
+        }
+
+        private int add(Expression root) {
+            schedule(root, false);
+            while (pendingCount > 0) {
+                pendingCount--;
+                var expression = pending[pendingCount];
+                var operandsDone = expanded[pendingCount];
+                pending[pendingCount] = null;
+
+                if (expression == null) {
+                    push(-1);
+                } else if (expression instanceof ErrorNode error) {
+                    push(error(error));
+                } else if (expression instanceof Identifier ident) {
+                    push(identifier(-1, symbols.intern(ident.getValue())));
+                } else if (expression instanceof IntegerLiteral lit) {
+                    push(integer(-1, lit.getValue()));
+                } else if (expression instanceof PrefixExpression prefix) {
+                    if (operandsDone) {
+                        push(prefix(-1, prefix.getToken().getType(), results[--resultCount]));
+                    } else {
+                        schedule(prefix, true);
+                        schedule(prefix.getRight(), false);
+                    }
+                } else if (expression instanceof InfixExpression infix) {
+                    if (operandsDone) {
+                        var right = results[--resultCount];
+                        var left = results[--resultCount];
+                        push(infix(-1, infix.getToken().getType(), left, right));
+                    } else {
+                        schedule(infix, true);
+                        schedule(infix.getRight(), false);
+                        schedule(infix.getLeft(), false);
+                    }
+                } else {
+                    throw new IllegalArgumentException("unknown expression " + expression.getClass().getSimpleName());
+                }
+            }
+            return results[--resultCount];
+        }
+
+        private void schedule(Expression expression, boolean operandsDone) {
+            if (pendingCount == pending.length) {
+                pending = Arrays.copyOf(pending, pendingCount * 2);
+                expanded = Arrays.copyOf(expanded, pendingCount * 2);
+            }
+            pending[pendingCount] = expression;
+            expanded[pendingCount] = operandsDone;
+            pendingCount++;
+        }
+
+        private void push(int node) {
+            if (resultCount == results.length) {
+                results = Arrays.copyOf(results, resultCount * 2);
+            }
+            results[resultCount++] = node;
+        }
+    }
+
+    public int let(int token, int name, int value) {
+        return node(NodeKind.LET, null, token, name, value);
+    }
+
+    public int returns(int token, int value) {
+        return node(NodeKind.RETURN, null, token, -1, value);
+    }
+
+    public int expression(int token, int value) {
+        return expression(token, null, value);
+    }
+
+    /**
+     * @param first type of the statement's first token, {@code null} if
+     *              unknown
+     */
+    public int expression(int token, TokenType first, int value) {
+        return node(NodeKind.EXPRESSION, first, token, -1, value);
+    }
+
+    public int identifier(int token, int symbol) {
+        return node(NodeKind.IDENTIFIER, null, token, symbol, -1);
+    }
+
+    public int integer(int token, long value) {
+        return node(NodeKind.INTEGER, null, token, (int) (value >>> 32), (int) value);
+    }
+
+    public int prefix(int token, TokenType operator, int right) {
+        return node(NodeKind.PREFIX, operator, token, -1, right);
+    }
+
+    public int infix(int token, TokenType operator, int left, int right) {
+        return node(NodeKind.INFIX, operator, token, left, right);
+    }
+
+    public int error(int token, TokenType type, String literal, String message) {
+        checkOpen();
+        var number = errors.size() / 2;
+        errors.add(literal);
+        errors.add(message);
+        return node(NodeKind.ERROR, type, token, number, -1);
+    }
+
+    private int error(ErrorNode error) {
+        return error(-1, error.getToken().getType(), error.getToken().getLiteral(), error.getMessage());
+    }
+
+    public void addStatement(int node) {
+        checkOpen();
+        if (statementCount == statements.capacity()) {
+            statements = IntBuffer.wrap(Arrays.copyOf(statements.array(), statementCount * 2));
+        }
+        statements.put(statementCount++, node);
+    }
+
+    private int node(NodeKind kind, TokenType operator, int token, int a, int b) {
+        checkOpen();
+        var offset = size * STRIDE;
+        if (offset == nodes.capacity()) {
+            nodes = IntBuffer.wrap(Arrays.copyOf(nodes.array(), offset * 2));
+        }
+        nodes.put(offset, kind.ordinal() | (operator == null ? 0 : operator.ordinal() << 8));
+        nodes.put(offset + 1, token);
+        nodes.put(offset + 2, a);
+        nodes.put(offset + 3, b);
+        return size++;
+    }
+
+    private void checkOpen() {
+        if (frozen) {
+            throw new UnsupportedOperationException("the arena is frozen");
+        }
+    }
+
+    public SymbolTable symbols() {
+        return symbols;
+    }
+
+    /**
+     * The number of nodes.
+     */
+    public int size() {
+        return size;
+    }
+
+    public int statementCount() {
+        return statementCount;
+    }
+
+    public int statement(int i) {
+        return statements.get(i);
+    }
+
+    public NodeKind kind(int node) {
+        return KINDS[nodes.get(node * STRIDE) & 0xFF];
+    }
+
+    /**
+     * The operator of a PREFIX or INFIX node.
+     */
+    public TokenType operator(int node) {
+        return TYPES[nodes.get(node * STRIDE) >>> 8];
+    }
+
+    public int token(int node) {
+        return nodes.get(node * STRIDE + 1);
+    }
+
+    /**
+     * The name of a LET node.
+     */
+    public int name(int node) {
+        return nodes.get(node * STRIDE + 2);
+    }
+
+    /**
+     * The left operand of an INFIX node.
+     */
+    public int left(int node) {
+        return nodes.get(node * STRIDE + 2);
+    }
+
+    /**
+     * The right operand of a PREFIX or INFIX node.
+     */
+    public int right(int node) {
+        return nodes.get(node * STRIDE + 3);
+    }
+
+    /**
+     * The value of a LET, RETURN or EXPRESSION node, -1 if it has none.
+     */
+    public int value(int node) {
+        return nodes.get(node * STRIDE + 3);
+    }
+
+    public int symbol(int node) {
+        return nodes.get(node * STRIDE + 2);
+    }
+
+    public long integer(int node) {
+        var offset = node * STRIDE;
+        return (long) nodes.get(offset + 2) << 32 | nodes.get(offset + 3) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * The type of the token an ERROR node was found at.
+     */
+    public TokenType errorType(int node) {
+        return TYPES[nodes.get(node * STRIDE) >>> 8];
+    }
+
+    public String errorLiteral(int node) {
+        return errors.get(nodes.get(node * STRIDE + 2) * 2);
+    }
+
+    public String errorMessage(int node) {
+        return errors.get(nodes.get(node * STRIDE + 2) * 2 + 1);
+    }
+
+    /**
+     * The number of bytes {@link #write} produces.
+     */
+    public int serializedSize() {
+        var bytes = HEADER + (size * STRIDE + statementCount) * Integer.BYTES;
+        var symbolCount = symbols.size();
+        for (int i = 0; i < symbolCount; i++) {
+            bytes += Integer.BYTES + utf8Length(symbols.name(i));
+        }
+        for (var text : errors) {
+            bytes += Integer.BYTES + utf8Length(text);
+        }
+        return bytes;
+    }
+
+    public ByteBuffer serialize() {
+        var out = ByteBuffer.allocate(serializedSize());
+        write(out);
+        return out.flip();
+    }
+
+    /**
+     * Writes the arena at the buffer's position and advances it.
+     *
+     * @throws java.nio.BufferOverflowException if fewer than {@link #serializedSize()} bytes remain
+     */
+    public void write(ByteBuffer out) {
+        var buffer = out.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        var symbolCount = symbols.size();
+        buffer.putInt(MAGIC)
+                .putInt(FORMAT_VERSION)
+                .putInt(size)
+                .putInt(statementCount)
+                .putInt(symbolCount)
+                .putInt(errors.size() / 2);
+        putInts(buffer, nodes, size * STRIDE);
+        putInts(buffer, statements, statementCount);
+        for (int i = 0; i < symbolCount; i++) {
+            putString(buffer, symbols.name(i));
+        }
+        for (var text : errors) {
+            putString(buffer, text);
+        }
+        out.position(buffer.position());
+    }
+
+    /**
+     * Wraps an arena written by {@link #write} at the buffer's position and
+     * advances past it. The nodes are read from the buffer in place.
+     *
+     * @throws IllegalArgumentException if the bytes are not an arena of this format version
+     */
+    public static AstArena read(ByteBuffer in) {
+        var buffer = in.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < HEADER || buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("not a serialized AST");
+        }
+        var version = buffer.getInt();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("AST format version " + version + ", expected " + FORMAT_VERSION);
+        }
+        var nodeCount = buffer.getInt();
+        var statementCount = buffer.getInt();
+        var symbolCount = buffer.getInt();
+        var errorCount = buffer.getInt();
+
+        var nodes = ints(buffer, nodeCount * STRIDE);
+        var statements = ints(buffer, statementCount);
+        var symbols = new SymbolTable();
+        for (int i = 0; i < symbolCount; i++) {
+            symbols.intern(getString(buffer));
+        }
+        var errors = new String[errorCount * 2];
+        for (int i = 0; i < errors.length; i++) {
+            errors[i] = getString(buffer);
+        }
+        in.position(buffer.position());
+        return new AstArena(symbols, nodes, statements, List.of(errors));
+    }
+
+    /**
+     * A copy trimmed to size that cannot be changed, so it can be shared
+     * between threads: its builder methods throw
+     * {@link UnsupportedOperationException}.
+     */
+    public AstArena frozen() {
+        return read(serialize().asReadOnlyBuffer());
+    }
+
+    /**
+     * Whether the arena cannot change, as one {@link #read} or {@link #frozen}.
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    private static void putInts(ByteBuffer buffer, IntBuffer ints, int count) {
+        buffer.asIntBuffer().put(ints.duplicate().position(0).limit(count));
+        buffer.position(buffer.position() + count * Integer.BYTES);
+    }
+
+    private static IntBuffer ints(ByteBuffer buffer, int count) {
+        var position = buffer.position();
+        var ints = buffer.slice(position, count * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        buffer.position(position + count * Integer.BYTES);
+        return ints;
+    }
+
+    private static void putString(ByteBuffer buffer, String text) {
+        var bytes = text.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length).put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        var bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int utf8Length(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                return text.getBytes(StandardCharsets.UTF_8).length;
+            }
+        }
+        return text.length();
+    }
+
+    public interface Visitor<R> {
+        R visitLet(AstArena arena, int node);
+
+        R visitReturn(AstArena arena, int node);
+
+        R visitExpression(AstArena arena, int node);
+
+        R visitIdentifier(AstArena arena, int node);
+
+        R visitInteger(AstArena arena, int node);
+
+        R visitPrefix(AstArena arena, int node);
+
+        R visitInfix(AstArena arena, int node);
+
+        R visitError(AstArena arena, int node);
+    }
+
+    public <R> R accept(int node, Visitor<R> visitor) {
+        return switch (kind(node)) {
+            case LET -> visitor.visitLet(this, node);
+            case RETURN -> visitor.visitReturn(this, node);
+            case EXPRESSION -> visitor.visitExpression(this, node);
+            case IDENTIFIER -> visitor.visitIdentifier(this, node);
+            case INTEGER -> visitor.visitInteger(this, node);
+            case PREFIX -> visitor.visitPrefix(this, node);
+            case INFIX -> visitor.visitInfix(this, node);
+            case ERROR -> visitor.visitError(this, node);
+        };
+    }
+
+    /**
+     * Builds the object AST for this arena. Integer literals get the decimal
+     * form of their value as token literal, and so does an expression
+     * statement starting with one. Other statement tokens are as parsed. A
+     * {@link #isFrozen frozen} arena becomes the program's {@link Program#arena()}.
+     */
+    public Program toProgram() {
+        return toProgram(null);
+    }
+
+    /**
+     * Same as {@link #toProgram()}, with the token literal of an integer
+     * whose token index is known taken from {@code literals}, which maps a
+     * token index to the token's text as written, such as {@code 007}.
+     */
+    public Program toProgram(IntFunction<String> literals) {
+        var list = new ArrayList<Statement>(statementCount);
+        var builder = new Builder(literals);
+        for (int i = 0; i < statementCount; i++) {
+            list.add(toStatement(statements.get(i), builder));
+        }
+        return new Program(Collections.unmodifiableList(list), frozen ? this : null);
+    }
+
+    private Statement toStatement(int node, Builder builder) {
+        return switch (kind(node)) {
+            case ERROR -> toError(node);
+            case LET -> new LetStatement(Token.of(TokenType.LET), (Identifier) builder.build(name(node)),
+                    builder.build(value(node)));
+            case RETURN -> new ReturnStatement(Token.of(TokenType.RETURN), builder.build(value(node)));
+            case EXPRESSION -> new ExpressionStatement(firstToken(node, builder.literals),
+                    builder.build(value(node)));
+            default -> throw new IllegalArgumentException(kind(node) + " is not a statement");
+        };
+    }
+
+    /**
+     * The first token of an EXPRESSION statement. A name or integer there
+     * is the leftmost operand of the chain of infix nodes below, as a group
+     * or a prefix operator would come first otherwise.
+     */
+    private Token firstToken(int node, IntFunction<String> literals) {
+        var type = operator(node);
+        if (type.literal() != null) {
+            return Token.of(type);
+        }
+        // IDENT, INT, or ILLEGAL when unknown
+        var first = value(node);
+        while (first >= 0 && kind(first) == NodeKind.INFIX) {
+            first = left(first);
+        }
+        return first < 0 ? Token.of(TokenType.EOF) : toToken(first, literals);
+    }
+
+    /**
+     * Builds object expressions in post-order from an explicit stack.
+     */
+    private final class Builder {
+        private final IntFunction<String> literals; // null to print integers in decimal
+        // nodes waiting to be built, and whether their operands are done
+        private int[] pending = new int[16];
+        private boolean[] expanded = new boolean[16];
+        private int pendingCount;
+        // built operands
+        private Expression[] results = new Expression[16];
+        private int resultCount;
+
+        Builder(IntFunction<String> literals) {
+            this.literals = literals;
+        }
+
+        Expression build(int root) {
+            schedule(root, false);
+            while (pendingCount > 0) {
+                pendingCount--;
+                var node = pending[pendingCount];
+                var operandsDone = expanded[pendingCount];
+                if (node < 0) {
+                    push(null);
+                    continue;
+                }
+                switch (kind(node)) {
+                    case ERROR -> push(toError(node));
+                    case IDENTIFIER -> push(new Identifier(toToken(node, literals), symbols.name(symbol(node)), symbol(node)));
+                    case INTEGER -> push(new IntegerLiteral(toToken(node, literals), integer(node)));
+                    case PREFIX -> {
+                        if (operandsDone) {
+                            push(new PrefixExpression(toToken(node, literals), operator(node).literal(), pop()));
+                        } else {
+                            schedule(node, true);
+                            schedule(right(node), false);
+                        }
+                    }
+                    case INFIX -> {
+                        if (operandsDone) {
+                            var right = pop();
+                            var left = pop();
+                            push(new InfixExpression(toToken(node, literals), left, operator(node).literal(), right));
+                        } else {
+                            schedule(node, true);
+                            schedule(right(node), false);
+                            schedule(left(node), false);
+                        }
+                    }
+                    default -> throw new IllegalArgumentException(kind(node) + " is not an expression");
+                }
+            }
+            return pop();
+        }
+
+        private void schedule(int node, boolean operandsDone) {
+            if (pendingCount == pending.length) {
+                pending = Arrays.copyOf(pending, pendingCount * 2);
+                expanded = Arrays.copyOf(expanded, pendingCount * 2);
+            }
+            pending[pendingCount] = node;
+            expanded[pendingCount] = operandsDone;
+            pendingCount++;
+        }
+
+        private void push(Expression expression) {
+            if (resultCount == results.length) {
+                results = Arrays.copyOf(results, resultCount * 2);
+            }
+            results[resultCount++] = expression;
+        }
+
+        private Expression pop() {
+            var expression = results[--resultCount];
+            results[resultCount] = null;
+            return expression;
+        }
+    }
+
+    private ErrorNode toError(int node) {
+        return new ErrorNode(toToken(node, null), errorMessage(node));
+    }
+
+    private Token toToken(int node, IntFunction<String> literals) {
+        return switch (kind(node)) {
+            case IDENTIFIER -> new Token(TokenType.IDENT, symbols.name(symbol(node)));
+            case INTEGER -> new Token(TokenType.INT, literals == null || token(node) < 0
+                    ? Long.toString(integer(node)) : literals.apply(token(node)));
+            case PREFIX, INFIX -> Token.of(operator(node));
+            case LET -> Token.of(TokenType.LET);
+            case RETURN -> Token.of(TokenType.RETURN);
+            case ERROR -> new Token(errorType(node), errorLiteral(node));
+            case EXPRESSION -> throw new IllegalArgumentException("EXPRESSION has no token of its own");
+        };
+    }
+}
@@ -0,0 +1,172 @@
+package org.example.ast;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Writes the source form of an AST, the same text as {@code toString()}, into
+ * one caller-supplied {@link Appendable} or {@link ByteBuffer} in a single
+ * pass. Each node is written piece by piece from an explicit stack of the
+ * nodes with output still to come, and leaves are written in place, so
+ * printing creates no builder per node and deep nesting does not recurse.
+ */
+public final class AstPrinter {
+    private interface Sink {
+        void append(String text) throws IOException;
+    }
+
+    // nodes with output left to write, and the step each resumes at
+    private Node[] nodes = new Node[32];
+    private int[] steps = new int[32];
+    private int size;
+
+    private AstPrinter() {
+    }
+
+    public static String toString(Node node) {
+        var out = new StringBuilder();
+        print(node, out);
+        return out.toString();
+    }
+
+    public static void print(Node node, StringBuilder out) {
+        try {
+            new AstPrinter().run(node, out::append);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder does not throw
+        }
+    }
+
+    public static void print(Node node, Appendable out) throws IOException {
+        new AstPrinter().run(node, out::append);
+    }
+
+    /**
+     * Writes the text as ISO-8859-1 bytes at the buffer's position.
+     *
+     * @throws java.nio.BufferOverflowException if the buffer fills up
+     */
+    public static void print(Node node, ByteBuffer out) {
+        try {
+            new AstPrinter().run(node, text -> {
+                for (int i = 0; i < text.length(); i++) {
+                    var c = text.charAt(i);
+                    out.put(c < 256 ? (byte) c : (byte) '?');
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // ByteBuffer does not throw
+        }
+    }
+
+    private void run(Node root, Sink out) throws IOException {
+        if (root instanceof Program program) {
+            // one statement at a time keeps the stack as shallow as the deepest statement
+            for (var statement : program.getStatements()) {
+                run(statement, out);
+            }
+            return;
+        }
+        write(root, 0, out);
+        while (size > 0) {
+            size--;
+            var node = nodes[size];
+            nodes[size] = null;
+            write(node, steps[size], out);
+        }
+    }
+
+    /**
+     * Writes a node from {@code step} on up to its next non-leaf child, and
+     * pushes the child and where the node resumes after it.
+     */
+    private void write(Node node, int step, Sink out) throws IOException {
+        if (node instanceof InfixExpression infix) {
+            switch (step) {
+                case 0 -> {
+                    out.append("(");
+                    child(infix, 1, infix.getLeft(), out);
+                }
+                case 1 -> {
+                    out.append(" ");
+                    out.append(infix.getOperator());
+                    out.append(" ");
+                    child(infix, 2, infix.getRight(), out);
+                }
+                default -> out.append(")");
+            }
+        } else if (node instanceof PrefixExpression prefix) {
+            if (step == 0) {
+                out.append("(");
+                out.append(prefix.getOperator());
+                child(prefix, 1, prefix.getRight(), out);
+            } else {
+                out.append(")");
+            }
+        } else if (node instanceof LetStatement let) {
+            if (step == 0) {
+                out.append(let.tokenLiteral());
+                out.append(" ");
+                out.append(let.getName().getValue());
+                out.append(" = ");
+                child(let, 1, let.getValue(), out);
+            } else {
+                out.append(";");
+            }
+        } else if (node instanceof ReturnStatement ret) {
+            if (step == 0) {
+                out.append(ret.tokenLiteral());
+                out.append(" ");
+                child(ret, 1, ret.getReturnValue(), out);
+            } else {
+                out.append(";");
+            }
+        } else if (node instanceof ExpressionStatement stmt) {
+            child(null, 0, stmt.getExpression(), out);
+        } else if (!leaf(node, out)) {
+            throw new IllegalArgumentException("unknown node " + node.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Writes a leaf child right away; otherwise pushes the parent's next step
+     * and then the child, so the child is written first.
+     */
+    private void child(Node parent, int step, Node child, Sink out) throws IOException {
+        if (child == null || leaf(child, out)) {
+            if (parent != null) {
+                write(parent, step, out);
+            }
+            return;
+        }
+        if (parent != null) {
+            push(parent, step);
+        }
+        push(child, 0);
+    }
+
+    private boolean leaf(Node node, Sink out) throws IOException {
+        if (node instanceof Identifier ident) {
+            out.append(ident.getValue());
+        } else if (node instanceof IntegerLiteral lit) {
+            out.append(lit.tokenLiteral());
+        } else if (node instanceof ErrorNode) {
+            out.append("<error>");
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private void push(Node node, int step) {
+        if (size == nodes.length) {
+            nodes = Arrays.copyOf(nodes, size * 2);
+            steps = Arrays.copyOf(steps, size * 2);
+        }
+        nodes[size] = node;
+        steps[size] = step;
+        size++;
+    }
+}
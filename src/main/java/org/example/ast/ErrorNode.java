@@ -0,0 +1,26 @@
+package org.example.ast;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.example.token.Token;
+
+/**
+ * Stands in for a statement or expression that failed to parse, so that the
+ * rest of the program keeps its shape for later passes.
+ */
+@Getter
+@AllArgsConstructor
+public class ErrorNode implements Statement, Expression {
+    private final Token token; // where the error was found
+    private final String message;
+
+    @Override
+    public String tokenLiteral() {
+        return token.getLiteral();
+    }
+
+    @Override
+    public String toString() {
+        return "<error>";
+    }
+}
@@ -1,14 +1,14 @@
 package org.example.ast;
 
+import lombok.AllArgsConstructor;
 import lombok.Getter;
-import lombok.Setter;
 import org.example.token.Token;
 
 @Getter
-@Setter
+@AllArgsConstructor
 public class ExpressionStatement implements Statement {
-    private Token token; // the first token of the expression
-    private Expression expression;
+    private final Token token; // the first token of the expression
+    private final Expression expression;
 
     @Override
     public String tokenLiteral() {
@@ -17,9 +17,6 @@ public class ExpressionStatement implements Statement {
 
     @Override
     public String toString() {
-        if (expression != null) {
-            return expression.toString();
-        }
-        return "";
+        return AstPrinter.toString(this);
     }
 }
@@ -2,17 +2,36 @@ package org.example.ast;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
-import lombok.NoArgsConstructor;
-import lombok.Setter;
 import org.example.token.Token;
 
 @Getter
-@Setter
-@NoArgsConstructor
 @AllArgsConstructor
 public class Identifier implements Expression {
-    private Token token;
-    private String value;
+    private final Token token;
+    private final String value;
+    private final int symbol; // id in the parser's SymbolTable, -1 when not interned
+    // frames out from the current one and index in that frame, -1 until resolved
+    private final int depth;
+    private final int slot;
+
+    public Identifier(Token token, String value) {
+        this(token, value, -1);
+    }
+
+    public Identifier(Token token, String value, int symbol) {
+        this(token, value, symbol, -1, -1);
+    }
+
+    public boolean isResolved() {
+        return slot >= 0;
+    }
+
+    /**
+     * The same name at a {@code (depth, slot)} coordinate.
+     */
+    public Identifier resolve(int depth, int slot) {
+        return new Identifier(token, value, symbol, depth, slot);
+    }
 
     @Override
     public String tokenLiteral() {
@@ -1,16 +1,16 @@
 package org.example.ast;
 
+import lombok.AllArgsConstructor;
 import lombok.Getter;
-import lombok.Setter;
 import org.example.token.Token;
 
 @Getter
-@Setter
+@AllArgsConstructor
 public class InfixExpression implements Expression {
-    private Token token;
-    private Expression left;
-    private String operator;
-    private Expression right;
+    private final Token token;
+    private final Expression left;
+    private final String operator;
+    private final Expression right;
 
     @Override
     public String tokenLiteral() {
@@ -19,6 +19,6 @@ public class InfixExpression implements Expression {
 
     @Override
     public String toString() {
-        return "(" + this.left.toString() + " " + this.operator + " " + this.right.toString() + ")";
+        return AstPrinter.toString(this);
     }
 }
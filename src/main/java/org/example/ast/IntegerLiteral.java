@@ -1,14 +1,14 @@
 package org.example.ast;
 
+import lombok.AllArgsConstructor;
 import lombok.Getter;
-import lombok.Setter;
 import org.example.token.Token;
 
 @Getter
-@Setter
-public class IntegerLiteral implements  Expression{
-    private Token token;
-    private long value;
+@AllArgsConstructor
+public class IntegerLiteral implements Expression {
+    private final Token token;
+    private final long value;
 
     @Override
     public String tokenLiteral() {
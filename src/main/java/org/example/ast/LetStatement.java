@@ -2,18 +2,14 @@ package org.example.ast;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
-import lombok.NoArgsConstructor;
-import lombok.Setter;
 import org.example.token.Token;
 
 @Getter
-@Setter
-@NoArgsConstructor
 @AllArgsConstructor
 public class LetStatement implements Statement {
-    private Token token;
-    private Identifier name;
-    private Expression value;
+    private final Token token;
+    private final Identifier name;
+    private final Expression value;
 
     @Override
     public String tokenLiteral() {
@@ -22,16 +18,6 @@ public class LetStatement implements Statement {
 
     @Override
     public String toString() {
-        var out = new StringBuilder();
-        out.append(tokenLiteral())
-                .append(" ")
-                .append(this.name.toString())
-                .append(" = ");
-        if (this.value != null) {
-            out.append(this.value);
-        }
-        out.append(";");
-
-        return out.toString();
+        return AstPrinter.toString(this);
     }
 }
@@ -0,0 +1,15 @@
+package org.example.ast;
+
+/**
+ * The kinds of node in an {@link AstArena}, one per class of the object AST.
+ */
+public enum NodeKind {
+    LET,
+    RETURN,
+    EXPRESSION,
+    IDENTIFIER,
+    INTEGER,
+    PREFIX,
+    INFIX,
+    ERROR,
+}
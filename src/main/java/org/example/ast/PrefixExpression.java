@@ -1,15 +1,15 @@
 package org.example.ast;
 
+import lombok.AllArgsConstructor;
 import lombok.Getter;
-import lombok.Setter;
 import org.example.token.Token;
 
 @Getter
-@Setter
+@AllArgsConstructor
 public class PrefixExpression implements Expression {
-    private Token token;
-    private String operator;
-    private Expression right;
+    private final Token token;
+    private final String operator;
+    private final Expression right;
 
     @Override
     public String tokenLiteral() {
@@ -18,9 +18,6 @@ public class PrefixExpression implements Expression {
 
     @Override
     public String toString() {
-        return "(" +
-                this.operator +
-                this.right.toString() +
-                ")";
+        return AstPrinter.toString(this);
     }
 }
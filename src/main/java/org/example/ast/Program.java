@@ -1,13 +1,60 @@
 package org.example.ast;
 
+import java.util.Collections;
 import java.util.List;
 import lombok.Getter;
-import lombok.Setter;
 
-@Getter
-@Setter
+/**
+ * The root of an AST. Like all nodes it cannot change once built, and its
+ * statement list is an unmodifiable copy, so one program can be handed to
+ * any number of threads as is. The exception is a {@link #view}, which
+ * shows a list its owner may still change.
+ */
 public class Program implements Node {
-    private List<Statement> statements;
+    @Getter
+    private final List<Statement> statements;
+    // frozen compact copy of statements, built on first use; racing threads build equal copies
+    private volatile AstArena arena;
+
+    public Program(List<Statement> statements) {
+        this(List.copyOf(statements), null);
+    }
+
+    /**
+     * Adopts {@code statements} as they are, which the caller must not
+     * change, and {@code arena} as their compact copy.
+     *
+     * @throws IllegalArgumentException if {@code arena} is not {@link AstArena#isFrozen frozen}
+     */
+    Program(List<Statement> statements, AstArena arena) {
+        if (arena != null && !arena.isFrozen()) {
+            throw new IllegalArgumentException("a program's arena must be frozen");
+        }
+        this.statements = statements;
+        this.arena = arena;
+    }
+
+    /**
+     * A program over {@code statements} without copying them. The list stays
+     * its owner's: the program shows later changes, and is only as safe to
+     * share as the list is, for example one that fails fast once changed.
+     */
+    public static Program view(List<Statement> statements) {
+        return new Program(Collections.unmodifiableList(statements), null);
+    }
+
+    /**
+     * The statements as a {@link AstArena#frozen frozen} {@link AstArena},
+     * converted on first use.
+     */
+    public AstArena arena() {
+        var result = arena;
+        if (result == null) {
+            result = AstArena.of(this).frozen();
+            arena = result;
+        }
+        return result;
+    }
 
     @Override
     public String tokenLiteral() {
@@ -20,10 +67,6 @@ public class Program implements Node {
 
     @Override
     public String toString() {
-        var out = new StringBuilder();
-        for (var s : this.statements) {
-            out.append(s.toString());
-        }
-        return out.toString();
+        return AstPrinter.toString(this);
     }
 }
@@ -1,14 +1,14 @@
 package org.example.ast;
 
+import lombok.AllArgsConstructor;
 import lombok.Getter;
-import lombok.Setter;
 import org.example.token.Token;
 
 @Getter
-@Setter
+@AllArgsConstructor
 public class ReturnStatement implements Statement {
-    private Token token; // 'return' token
-    private Expression returnValue;
+    private final Token token; // 'return' token
+    private final Expression returnValue;
 
     @Override
     public String tokenLiteral() {
@@ -17,16 +17,6 @@ public class ReturnStatement implements Statement {
 
     @Override
     public String toString() {
-        var out = new StringBuilder();
-
-        out.append(tokenLiteral()).append(" ");
-
-        if (returnValue != null) {
-            out.append(returnValue);
-        }
-
-        out.append(";");
-
-        return out.toString();
+        return AstPrinter.toString(this);
     }
 }
@@ -0,0 +1,39 @@
+package org.example.compiler;
+
+import lombok.Value;
+
+/**
+ * A compiled program: the instructions and the pools their operands index.
+ */
+@Value
+public class Bytecode {
+    byte[] instructions;
+    long[] constants;
+    String[] globals; // name of each global slot, for errors
+    String[] errors; // messages of ERROR instructions
+    int maxStack; // the deepest the operand stack gets
+
+    /**
+     * One instruction per line: its offset, name and operand.
+     */
+    public String disassemble() {
+        var out = new StringBuilder();
+        for (int ip = 0; ip < instructions.length; ) {
+            var opcode = instructions[ip];
+            out.append(String.format("%04d %s", ip, Opcode.name(opcode)));
+            if (Opcode.width(opcode) == 2) {
+                out.append(' ').append(operand(instructions, ip + 1));
+            }
+            out.append('\n');
+            ip += 1 + Opcode.width(opcode);
+        }
+        return out.toString();
+    }
+
+    /**
+     * The unsigned 16-bit operand at {@code offset}.
+     */
+    public static int operand(byte[] code, int offset) {
+        return (code[offset] & 0xFF) << 8 | code[offset + 1] & 0xFF;
+    }
+}
@@ -0,0 +1,251 @@
+package org.example.compiler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.example.ast.ErrorNode;
+import org.example.ast.Expression;
+import org.example.ast.ExpressionStatement;
+import org.example.ast.Identifier;
+import org.example.ast.InfixExpression;
+import org.example.ast.IntegerLiteral;
+import org.example.ast.LetStatement;
+import org.example.ast.PrefixExpression;
+import org.example.ast.Program;
+import org.example.ast.ReturnStatement;
+import org.example.ast.Statement;
+
+/**
+ * Compiles a {@link Program} to {@link Bytecode} for the stack VM.
+ *
+ * <p>Every expression leaves one value on the stack. Expression statements
+ * pop theirs, except the last statement of the program, whose value is the
+ * program's; a program ending in a {@code let} ends with {@code NULL}.
+ * Integer literals go to a constant pool, each distinct value once, and
+ * every name bound or read gets a global slot. Reading a slot before a
+ * {@code let} has set it is a runtime error, as in the evaluator.
+ *
+ * <p>Instructions address constants, global slots and parse error messages
+ * by a two-byte operand, so a program can have at most {@link #MAX_POOL_SIZE}
+ * of each. Larger programs do not compile.
+ *
+ * <p>Expressions are emitted in post-order from an explicit stack, so deep
+ * nesting does not recurse. An arithmetic operator right after the
+ * {@code CONSTANT} of its right operand is fused with it into one
+ * {@code *_CONSTANT} instruction.
+ */
+public final class Compiler {
+    private static final int MAX_OPERAND = 0xFFFF;
+
+    /** The most distinct constants, global names or parse errors a program may have. */
+    public static final int MAX_POOL_SIZE = MAX_OPERAND + 1;
+
+    private byte[] code = new byte[64];
+    private int size;
+    private int last = -1; // offset of the last instruction emitted
+    private final List<Long> constants = new ArrayList<>();
+    private final Map<Long, Integer> constantIndices = new HashMap<>();
+    private final List<String> globals = new ArrayList<>();
+    private final Map<String, Integer> globalSlots = new HashMap<>();
+    private final List<String> errors = new ArrayList<>();
+    private int depth;
+    private int maxDepth;
+
+    // expressions waiting to be emitted, and whether their operands are done
+    private Expression[] pending = new Expression[16];
+    private boolean[] expanded = new boolean[16];
+    private int pendingCount;
+
+    private Compiler() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the program has more than
+     *                                  {@link #MAX_POOL_SIZE} distinct constants,
+     *                                  global names or parse errors
+     */
+    public static Bytecode compile(Program program) {
+        var compiler = new Compiler();
+        var statements = program.getStatements();
+        var leavesValue = false;
+        for (int i = 0; i < statements.size(); i++) {
+            leavesValue = compiler.statement(statements.get(i), i == statements.size() - 1);
+        }
+        if (!leavesValue) {
+            compiler.emit(Opcode.NULL);
+        }
+        return compiler.bytecode();
+    }
+
+    /**
+     * Emits one statement; returns whether it left its value on the stack.
+     */
+    private boolean statement(Statement statement, boolean last) {
+        if (statement instanceof ExpressionStatement stmt) {
+            expression(stmt.getExpression());
+            if (last) {
+                return true;
+            }
+            emit(Opcode.POP);
+        } else if (statement instanceof LetStatement let) {
+            expression(let.getValue());
+            emit(Opcode.SET_GLOBAL, slot(let.getName().getValue()));
+        } else if (statement instanceof ReturnStatement ret) {
+            expression(ret.getReturnValue());
+            emit(Opcode.RETURN);
+        } else if (statement instanceof ErrorNode error) {
+            emit(Opcode.ERROR, error(error.getMessage()));
+        } else {
+            throw new IllegalArgumentException("unknown statement " + statement.getClass().getSimpleName());
+        }
+        return false;
+    }
+
+    private void expression(Expression root) {
+        push(root, false);
+        while (pendingCount > 0) {
+            pendingCount--;
+            var expression = pending[pendingCount];
+            var operandsDone = expanded[pendingCount];
+            pending[pendingCount] = null;
+
+            if (expression instanceof InfixExpression infix) {
+                if (operandsDone) {
+                    operator(infix(infix));
+                } else {
+                    push(infix, true);
+                    push(infix.getRight(), false);
+                    push(infix.getLeft(), false);
+                }
+            } else if (expression instanceof PrefixExpression prefix) {
+                if (operandsDone) {
+                    emit(prefix(prefix));
+                } else {
+                    push(prefix, true);
+                    push(prefix.getRight(), false);
+                }
+            } else if (expression instanceof IntegerLiteral lit) {
+                emit(Opcode.CONSTANT, constant(lit.getValue()));
+            } else if (expression instanceof Identifier ident) {
+                emit(Opcode.GET_GLOBAL, slot(ident.getValue()));
+            } else if (expression instanceof ErrorNode error) {
+                emit(Opcode.ERROR, error(error.getMessage()));
+            } else if (expression == null) {
+                emit(Opcode.NULL);
+            } else {
+                throw new IllegalArgumentException("unknown expression " + expression.getClass().getSimpleName());
+            }
+        }
+    }
+
+    private static byte infix(InfixExpression infix) {
+        return switch (infix.getToken().getType()) {
+            case PLUS -> Opcode.ADD;
+            case MINUS -> Opcode.SUB;
+            case ASTERISK -> Opcode.MUL;
+            case SLASH -> Opcode.DIV;
+            case EQ -> Opcode.EQUAL;
+            case NOT_EQ -> Opcode.NOT_EQUAL;
+            case LT -> Opcode.LESS_THAN;
+            case GT -> Opcode.GREATER_THAN;
+            default -> throw new IllegalArgumentException("unknown operator " + infix.getOperator());
+        };
+    }
+
+    private void operator(byte opcode) {
+        if (last >= 0 && code[last] == Opcode.CONSTANT && opcode >= Opcode.ADD && opcode <= Opcode.DIV) {
+            // the operator consumes the push of the constant
+            code[last] = (byte) (Opcode.ADD_CONSTANT + opcode - Opcode.ADD);
+            depth--;
+            return;
+        }
+        emit(opcode);
+    }
+
+    private static byte prefix(PrefixExpression prefix) {
+        return switch (prefix.getToken().getType()) {
+            case MINUS -> Opcode.MINUS;
+            case BANG -> Opcode.BANG;
+            default -> throw new IllegalArgumentException("unknown operator " + prefix.getOperator());
+        };
+    }
+
+    private void push(Expression expression, boolean operandsDone) {
+        if (pendingCount == pending.length) {
+            pending = Arrays.copyOf(pending, pendingCount * 2);
+            expanded = Arrays.copyOf(expanded, pendingCount * 2);
+        }
+        pending[pendingCount] = expression;
+        expanded[pendingCount] = operandsDone;
+        pendingCount++;
+    }
+
+    private int constant(long value) {
+        return constantIndices.computeIfAbsent(value, v -> {
+            constants.add(v);
+            return index(constants.size() - 1, "constants");
+        });
+    }
+
+    private int slot(String name) {
+        return globalSlots.computeIfAbsent(name, n -> {
+            globals.add(n);
+            return index(globals.size() - 1, "globals");
+        });
+    }
+
+    private int error(String message) {
+        errors.add(message);
+        return index(errors.size() - 1, "errors");
+    }
+
+    private static int index(int index, String pool) {
+        if (index > MAX_OPERAND) {
+            throw new IllegalArgumentException("more than " + MAX_POOL_SIZE + " " + pool);
+        }
+        return index;
+    }
+
+    private void emit(byte opcode) {
+        reserve(1);
+        last = size;
+        code[size++] = opcode;
+        track(opcode);
+    }
+
+    private void emit(byte opcode, int operand) {
+        reserve(3);
+        last = size;
+        code[size++] = opcode;
+        code[size++] = (byte) (operand >>> 8);
+        code[size++] = (byte) operand;
+        track(opcode);
+    }
+
+    private void track(byte opcode) {
+        switch (opcode) {
+            case Opcode.CONSTANT, Opcode.NULL, Opcode.GET_GLOBAL, Opcode.ERROR -> depth++;
+            case Opcode.MINUS, Opcode.BANG, Opcode.RETURN -> {
+            }
+            default -> depth--; // POP, SET_GLOBAL and binary operators
+        }
+        maxDepth = Math.max(maxDepth, depth);
+    }
+
+    private void reserve(int bytes) {
+        if (size + bytes > code.length) {
+            code = Arrays.copyOf(code, Math.max(code.length * 2, size + bytes));
+        }
+    }
+
+    private Bytecode bytecode() {
+        var pool = new long[constants.size()];
+        for (int i = 0; i < pool.length; i++) {
+            pool[i] = constants.get(i);
+        }
+        return new Bytecode(Arrays.copyOf(code, size), pool, globals.toArray(String[]::new),
+                errors.toArray(String[]::new), maxDepth);
+    }
+}
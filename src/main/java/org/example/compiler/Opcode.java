@@ -0,0 +1,66 @@
+package org.example.compiler;
+
+/**
+ * The instructions of {@link Bytecode}: one opcode byte followed by its
+ * operands, each an unsigned big-endian 16-bit int. The opcodes are plain
+ * {@code byte} constants so that the VM can switch on the code directly.
+ */
+public final class Opcode {
+    /** Pushes the integer constant at the operand's index in the pool. */
+    public static final byte CONSTANT = 0;
+    /** Pushes null. */
+    public static final byte NULL = 1;
+    /** Drops the top of the stack. */
+    public static final byte POP = 2;
+
+    // pop the right then the left operand, push the result
+    public static final byte ADD = 3;
+    public static final byte SUB = 4;
+    public static final byte MUL = 5;
+    public static final byte DIV = 6;
+    public static final byte EQUAL = 7;
+    public static final byte NOT_EQUAL = 8;
+    public static final byte LESS_THAN = 9;
+    public static final byte GREATER_THAN = 10;
+
+    public static final byte MINUS = 11;
+    public static final byte BANG = 12;
+
+    /** Pushes the value of the global at the operand's slot. */
+    public static final byte GET_GLOBAL = 13;
+    /** Pops a value into the global at the operand's slot. */
+    public static final byte SET_GLOBAL = 14;
+
+    /** Ends the program with the top of the stack as its value. */
+    public static final byte RETURN = 15;
+    /** Ends the program with the error message at the operand's index. */
+    public static final byte ERROR = 16;
+
+    // ADD to DIV with the constant at the operand's index as right operand,
+    // fused from CONSTANT and the operator to halve dispatches on literals
+    public static final byte ADD_CONSTANT = 17;
+    public static final byte SUB_CONSTANT = 18;
+    public static final byte MUL_CONSTANT = 19;
+    public static final byte DIV_CONSTANT = 20;
+
+    private static final String[] NAMES = {"CONSTANT", "NULL", "POP", "ADD", "SUB", "MUL", "DIV", "EQUAL",
+            "NOT_EQUAL", "LESS_THAN", "GREATER_THAN", "MINUS", "BANG", "GET_GLOBAL", "SET_GLOBAL", "RETURN", "ERROR",
+            "ADD_CONSTANT", "SUB_CONSTANT", "MUL_CONSTANT", "DIV_CONSTANT"};
+
+    private Opcode() {
+    }
+
+    public static String name(byte opcode) {
+        return NAMES[opcode];
+    }
+
+    /**
+     * The number of operand bytes following the opcode.
+     */
+    public static int width(byte opcode) {
+        return switch (opcode) {
+            case CONSTANT, GET_GLOBAL, SET_GLOBAL, ERROR, ADD_CONSTANT, SUB_CONSTANT, MUL_CONSTANT, DIV_CONSTANT -> 2;
+            default -> 0;
+        };
+    }
+}
@@ -0,0 +1,370 @@
+package org.example.evaluator;
+
+import java.util.Arrays;
+import org.example.ast.ErrorNode;
+import org.example.ast.Expression;
+import org.example.ast.ExpressionStatement;
+import org.example.ast.Identifier;
+import org.example.ast.InfixExpression;
+import org.example.ast.IntegerLiteral;
+import org.example.ast.LetStatement;
+import org.example.ast.Node;
+import org.example.ast.PrefixExpression;
+import org.example.ast.Program;
+import org.example.ast.ReturnStatement;
+import org.example.ast.Statement;
+import org.example.object.BooleanObject;
+import org.example.object.Environment;
+import org.example.object.ErrorObject;
+import org.example.object.Frame;
+import org.example.object.IntegerObject;
+import org.example.object.MonkeyObject;
+import org.example.object.NullObject;
+import org.example.object.ReturnValue;
+import org.example.resolver.Resolver;
+import org.example.token.TokenType;
+
+/**
+ * Evaluates a {@link Program} by walking its AST.
+ *
+ * <p>Arithmetic does not box. An operand of {@code + - * /} or of unary
+ * {@code -} is evaluated by {@link #evalLong}, which returns a primitive
+ * {@code long} and only falls back to objects when the operand turns out not
+ * to be an integer. A whole arithmetic subtree thus runs on longs, and only
+ * its result becomes an {@link IntegerObject}, a shared instance when small.
+ * Comparisons of integers return one of the two {@link BooleanObject}s.
+ * Evaluating an {@link InfixExpression} therefore allocates nothing unless
+ * its result is a large integer or an error.
+ *
+ * <p>An evaluator keeps the bindings of its {@link Environment} from one
+ * {@link #eval} to the next. A program from the {@link Resolver} runs in a
+ * fresh {@link Frame} instead, its names read and bound by slot rather than
+ * by name. An evaluator is not thread-safe.
+ *
+ * <p>A chain of infix operators down the left operands, which is what a
+ * long sum or any left-associative run parses to, is evaluated in a loop.
+ * The walk only recurses for real nesting: a right operand that is itself an
+ * operation, such as a parenthesized group, and prefix operators. An
+ * expression nested more than {@link #MAX_DEPTH} levels deep that way
+ * evaluates to an {@link ErrorObject} instead, whatever the size of the
+ * thread's stack; the {@code Compiler} and VM have no such limit.
+ */
+public final class Evaluator {
+    /**
+     * The deepest nesting of operators evaluated, well within a 1 MB thread
+     * stack. A chain of infix operators down the left operands is one level.
+     */
+    public static final int MAX_DEPTH = 1000;
+
+    private final Environment env;
+    private Frame frame; // while running a resolved program
+    // the value of the last evalLong operand that was not an integer, else null
+    private MonkeyObject boxed;
+    private int depth; // operators and left chains being evaluated
+    // infix operators of the left chains being evaluated, innermost on top
+    private InfixExpression[] chain = new InfixExpression[16];
+    private int chainSize;
+
+    public Evaluator() {
+        this(new Environment());
+    }
+
+    public Evaluator(Environment env) {
+        this.env = env;
+    }
+
+    /**
+     * The value of a program, statement or expression. A program's value is
+     * that of its last statement or first {@code return}; evaluation stops at
+     * the first {@link ErrorObject}.
+     */
+    public MonkeyObject eval(Node node) {
+        if (node instanceof Program program) {
+            return evalProgram(program);
+        }
+        var result = node instanceof Statement statement ? evalStatement(statement) : eval((Expression) node);
+        return result instanceof ReturnValue ret ? ret.getValue() : result;
+    }
+
+    /**
+     * The value of a resolved program, run in a frame of its own. A program
+     * with resolve errors does not run; its value is the first error.
+     */
+    public MonkeyObject eval(Resolver.Resolved resolved) {
+        if (!resolved.getErrors().isEmpty()) {
+            return new ErrorObject(resolved.getErrors().get(0));
+        }
+        var outer = frame;
+        frame = new Frame(resolved.getFrameSize(), null);
+        try {
+            return eval(resolved.getProgram());
+        } finally {
+            frame = outer;
+        }
+    }
+
+    private MonkeyObject evalProgram(Program program) {
+        MonkeyObject result = NullObject.NULL;
+        for (var statement : program.getStatements()) {
+            result = evalStatement(statement);
+            if (result instanceof ReturnValue ret) {
+                return ret.getValue();
+            }
+            if (result instanceof ErrorObject) {
+                return result;
+            }
+        }
+        return result;
+    }
+
+    private MonkeyObject evalStatement(Statement statement) {
+        if (statement instanceof ExpressionStatement stmt) {
+            return stmt.getExpression() == null ? NullObject.NULL : eval(stmt.getExpression());
+        } else if (statement instanceof LetStatement let) {
+            var value = eval(let.getValue());
+            if (value instanceof ErrorObject) {
+                return value;
+            }
+            var name = let.getName();
+            if (name.isResolved() && frame != null) {
+                frame.set(name.getDepth(), name.getSlot(), value);
+            } else {
+                env.set(name.getValue(), value);
+            }
+            return NullObject.NULL;
+        } else if (statement instanceof ReturnStatement ret) {
+            var value = eval(ret.getReturnValue());
+            return value instanceof ErrorObject ? value : new ReturnValue(value);
+        } else if (statement instanceof ErrorNode error) {
+            return new ErrorObject(error.getMessage());
+        }
+        throw new IllegalArgumentException("unknown statement " + statement.getClass().getSimpleName());
+    }
+
+    private MonkeyObject eval(Expression expression) {
+        if (expression instanceof IntegerLiteral lit) {
+            return IntegerObject.of(lit.getValue());
+        } else if (expression instanceof Identifier ident) {
+            var value = ident.isResolved() && frame != null
+                    ? frame.get(ident.getDepth(), ident.getSlot())
+                    : env.get(ident.getValue());
+            return value != null ? value : new ErrorObject("identifier not found: " + ident.getValue());
+        } else if (expression instanceof InfixExpression || expression instanceof PrefixExpression) {
+            if (depth == MAX_DEPTH) {
+                return tooDeep();
+            }
+            depth++;
+            MonkeyObject result;
+            if (expression instanceof InfixExpression infix) {
+                var value = evalInfix(infix);
+                result = boxed != null ? take() : IntegerObject.of(value);
+            } else {
+                result = evalPrefix((PrefixExpression) expression);
+            }
+            depth--;
+            return result;
+        } else if (expression instanceof ErrorNode error) {
+            return new ErrorObject(error.getMessage());
+        } else if (expression == null) {
+            return NullObject.NULL;
+        }
+        throw new IllegalArgumentException("unknown expression " + expression.getClass().getSimpleName());
+    }
+
+    /**
+     * {@link #evalLong} of an infix expression and the infix operators down
+     * its left operands, applied in a loop from the innermost out. Once the
+     * value so far is not an integer, it stays in {@link #boxed} and the
+     * operators above apply to it as objects.
+     */
+    private long evalInfix(InfixExpression infix) {
+        if (!(infix.getLeft() instanceof InfixExpression)) {
+            return apply(infix, evalLong(infix.getLeft()));
+        }
+        var base = chainSize;
+        Expression left = infix;
+        while (left instanceof InfixExpression node) {
+            if (chainSize == chain.length) {
+                chain = Arrays.copyOf(chain, chainSize * 2);
+            }
+            chain[chainSize++] = node;
+            left = node.getLeft();
+        }
+        var value = evalLong(left);
+        while (chainSize > base) {
+            var node = chain[--chainSize];
+            chain[chainSize] = null;
+            value = apply(node, value);
+        }
+        return value;
+    }
+
+    /**
+     * Applies an infix operator to the value of its left operand, which is
+     * in {@link #boxed} if not an integer, and evaluates the right one.
+     */
+    private long apply(InfixExpression infix, long left) {
+        var operator = infix.getToken().getType();
+        if (boxed != null) {
+            boxed = infix(operator, take(), infix.getRight());
+            return 0;
+        }
+        var right = evalLong(infix.getRight());
+        if (boxed != null) {
+            boxed = infix(operator, IntegerObject.of(left), take());
+            return 0;
+        }
+        switch (operator) {
+            case PLUS:
+                return left + right;
+            case MINUS:
+                return left - right;
+            case ASTERISK:
+                return left * right;
+            case SLASH:
+                if (right == 0) {
+                    boxed = divisionByZero();
+                    return 0;
+                }
+                return left / right;
+            default:
+                boxed = compare(operator, left, right);
+                return 0;
+        }
+    }
+
+    private static MonkeyObject compare(TokenType operator, long left, long right) {
+        return switch (operator) {
+            case LT -> BooleanObject.of(left < right);
+            case GT -> BooleanObject.of(left > right);
+            case EQ -> BooleanObject.of(left == right);
+            case NOT_EQ -> BooleanObject.of(left != right);
+            default -> unknownOperator(IntegerObject.of(left), operator, IntegerObject.of(right));
+        };
+    }
+
+    /**
+     * The value of an integer operand. Any other value, including an error,
+     * is left in {@link #boxed} and 0 is returned. An arithmetic operation on
+     * a non-integer never yields an integer, so the fallbacks below leave
+     * their result in {@link #boxed} as well.
+     */
+    private long evalLong(Expression expression) {
+        if (expression instanceof IntegerLiteral lit) {
+            return lit.getValue();
+        }
+        if (expression instanceof InfixExpression
+                || expression instanceof PrefixExpression prefix && prefix.getToken().getType() == TokenType.MINUS) {
+            if (depth == MAX_DEPTH) {
+                boxed = tooDeep();
+                return 0;
+            }
+            depth++;
+            var value = expression instanceof InfixExpression infix
+                    ? evalInfix(infix)
+                    : evalNegation((PrefixExpression) expression);
+            depth--;
+            return value;
+        }
+        var value = eval(expression);
+        if (value instanceof IntegerObject integer) {
+            return integer.getValue();
+        }
+        boxed = value;
+        return 0;
+    }
+
+    /** {@link #evalLong} of a unary minus. */
+    private long evalNegation(PrefixExpression prefix) {
+        var right = evalLong(prefix.getRight());
+        if (boxed != null) {
+            boxed = prefix(TokenType.MINUS, take());
+            return 0;
+        }
+        return -right;
+    }
+
+    private MonkeyObject take() {
+        var value = boxed;
+        boxed = null;
+        return value;
+    }
+
+    private MonkeyObject evalPrefix(PrefixExpression prefix) {
+        var operator = prefix.getToken().getType();
+        if (operator == TokenType.MINUS) {
+            var right = evalLong(prefix.getRight());
+            return boxed != null ? prefix(operator, take()) : IntegerObject.of(-right);
+        }
+        return prefix(operator, eval(prefix.getRight()));
+    }
+
+    private static MonkeyObject prefix(TokenType operator, MonkeyObject right) {
+        if (right instanceof ErrorObject) {
+            return right;
+        }
+        return switch (operator) {
+            case BANG -> BooleanObject.of(right == BooleanObject.FALSE || right == NullObject.NULL);
+            case MINUS -> right instanceof IntegerObject integer
+                    ? IntegerObject.of(-integer.getValue())
+                    : new ErrorObject("unknown operator: -" + right.type());
+            default -> new ErrorObject("unknown operator: " + operator.literal() + right.type());
+        };
+    }
+
+    /**
+     * An infix operation on a left value already known not to be a pair of
+     * integers, evaluating the right operand unless the left is an error.
+     */
+    private MonkeyObject infix(TokenType operator, MonkeyObject left, Expression right) {
+        if (left instanceof ErrorObject) {
+            return left;
+        }
+        return infix(operator, left, eval(right));
+    }
+
+    private static MonkeyObject infix(TokenType operator, MonkeyObject left, MonkeyObject right) {
+        if (left instanceof ErrorObject) {
+            return left;
+        }
+        if (right instanceof ErrorObject) {
+            return right;
+        }
+        if (left instanceof IntegerObject l && right instanceof IntegerObject r) {
+            var a = l.getValue();
+            var b = r.getValue();
+            return switch (operator) {
+                case PLUS -> IntegerObject.of(a + b);
+                case MINUS -> IntegerObject.of(a - b);
+                case ASTERISK -> IntegerObject.of(a * b);
+                case SLASH -> b == 0 ? divisionByZero() : IntegerObject.of(a / b);
+                case LT -> BooleanObject.of(a < b);
+                case GT -> BooleanObject.of(a > b);
+                case EQ -> BooleanObject.of(a == b);
+                case NOT_EQ -> BooleanObject.of(a != b);
+                default -> unknownOperator(left, operator, right);
+            };
+        }
+        if (left.type() != right.type()) {
+            return new ErrorObject("type mismatch: " + left.type() + " " + operator.literal() + " " + right.type());
+        }
+        return switch (operator) {
+            // booleans and null are singletons
+            case EQ -> BooleanObject.of(left == right);
+            case NOT_EQ -> BooleanObject.of(left != right);
+            default -> unknownOperator(left, operator, right);
+        };
+    }
+
+    private static ErrorObject unknownOperator(MonkeyObject left, TokenType operator, MonkeyObject right) {
+        return new ErrorObject("unknown operator: " + left.type() + " " + operator.literal() + " " + right.type());
+    }
+
+    private static ErrorObject tooDeep() {
+        return new ErrorObject("expression nested too deeply");
+    }
+
+    private static ErrorObject divisionByZero() {
+        return new ErrorObject("division by zero");
+    }
+}
@@ -0,0 +1,265 @@
+package org.example.jit;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes a class file of static methods and nothing else, enough for
+ * {@link JitCompiler}. Each method body is emitted into a {@link Code} and
+ * then added with {@link #addMethod}. Bodies may not branch: without
+ * branches the verifier needs no {@code StackMapTable}, so none is written.
+ */
+final class ClassFileWriter {
+    static final int LCONST_0 = 0x09;
+    static final int LCONST_1 = 0x0a;
+    static final int ICONST_1 = 0x04;
+    static final int BIPUSH = 0x10;
+    static final int SIPUSH = 0x11;
+    static final int LDC2_W = 0x14;
+    static final int LLOAD = 0x16;
+    static final int LSTORE = 0x37;
+    static final int POP2 = 0x58;
+    static final int DUP = 0x59;
+    static final int LADD = 0x61;
+    static final int LSUB = 0x65;
+    static final int IMUL = 0x68;
+    static final int LMUL = 0x69;
+    static final int LDIV = 0x6d;
+    static final int INEG = 0x74;
+    static final int LNEG = 0x75;
+    static final int IUSHR = 0x7c;
+    static final int IXOR = 0x82;
+    static final int LXOR = 0x83;
+    static final int I2L = 0x85;
+    static final int LCMP = 0x94;
+    static final int LRETURN = 0xad;
+    static final int INVOKESTATIC = 0xb8;
+    static final int WIDE = 0xc4;
+
+    // the largest method body the JVM accepts
+    static final int MAX_CODE = 0xFFFF;
+
+    private static final int VERSION = 52; // Java 8, the last version not needing frames for every method
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_PRIVATE = 0x0002;
+    private static final int ACC_STATIC = 0x0008;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+    private final DataOutputStream poolOut = new DataOutputStream(pool);
+    private int poolCount = 1; // entries are numbered from 1
+    private final Map<Object, Integer> poolIndices = new HashMap<>();
+
+    private final ByteArrayOutputStream methods = new ByteArrayOutputStream();
+    private final DataOutputStream methodsOut = new DataOutputStream(methods);
+    private int methodCount;
+
+    private final int thisClass;
+
+    ClassFileWriter(String className) {
+        this.thisClass = classRef(className);
+    }
+
+    private int utf8(String text) {
+        return constant(text, out -> {
+            out.writeByte(CONSTANT_UTF8);
+            out.writeUTF(text);
+        });
+    }
+
+    private int classRef(String internalName) {
+        var name = utf8(internalName);
+        return constant(new Ref(CONSTANT_CLASS, internalName), out -> {
+            out.writeByte(CONSTANT_CLASS);
+            out.writeShort(name);
+        });
+    }
+
+    private int methodRef(String name, String descriptor) {
+        var nameIndex = utf8(name);
+        var typeIndex = utf8(descriptor);
+        var nameAndType = constant(new Ref(CONSTANT_NAME_AND_TYPE, name + descriptor), out -> {
+            out.writeByte(CONSTANT_NAME_AND_TYPE);
+            out.writeShort(nameIndex);
+            out.writeShort(typeIndex);
+        });
+        return constant(new Ref(CONSTANT_METHODREF, name + descriptor), out -> {
+            out.writeByte(CONSTANT_METHODREF);
+            out.writeShort(thisClass);
+            out.writeShort(nameAndType);
+        });
+    }
+
+    private int constant(Object key, Entry entry) {
+        var index = poolIndices.get(key);
+        if (index == null) {
+            try {
+                entry.write(poolOut);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); // a byte array does not throw
+            }
+            index = poolCount;
+            poolCount += key instanceof Long ? 2 : 1; // a long takes two entries
+            poolIndices.put(key, index);
+        }
+        return index;
+    }
+
+    private interface Entry {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    // keeps entries of different kinds for the same name apart
+    private record Ref(int tag, String name) {
+    }
+
+    /**
+     * Adds a static method; {@code publicMethod} makes it public rather than
+     * private.
+     *
+     * @throws IllegalArgumentException if the method is too large for the JVM
+     */
+    void addMethod(String name, String descriptor, boolean publicMethod, Code code, int maxStack, int maxLocals) {
+        if (code.size > MAX_CODE) {
+            throw new IllegalArgumentException("method of " + code.size + " bytes exceeds the JVM limit of " + MAX_CODE);
+        }
+        try {
+            methodsOut.writeShort((publicMethod ? ACC_PUBLIC : ACC_PRIVATE) | ACC_STATIC);
+            methodsOut.writeShort(utf8(name));
+            methodsOut.writeShort(utf8(descriptor));
+            methodsOut.writeShort(1); // attributes: Code
+            methodsOut.writeShort(utf8("Code"));
+            methodsOut.writeInt(12 + code.size);
+            methodsOut.writeShort(maxStack);
+            methodsOut.writeShort(maxLocals);
+            methodsOut.writeInt(code.size);
+            methodsOut.write(code.code, 0, code.size);
+            methodsOut.writeShort(0); // exception table
+            methodsOut.writeShort(0); // attributes of Code
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        methodCount++;
+    }
+
+    int methodCount() {
+        return methodCount;
+    }
+
+    /**
+     * The class file of a final class with the methods added so far.
+     *
+     * @throws IllegalArgumentException if the class is too large for the JVM
+     */
+    byte[] toByteArray() {
+        var superClass = classRef("java/lang/Object");
+        if (poolCount > 0xFFFF) {
+            throw new IllegalArgumentException("more than 65535 constants");
+        }
+        var bytes = new ByteArrayOutputStream(pool.size() + methods.size() + 32);
+        try (var out = new DataOutputStream(bytes)) {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(VERSION);
+            out.writeShort(poolCount);
+            pool.writeTo(out);
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0); // interfaces
+            out.writeShort(0); // fields
+            out.writeShort(methodCount);
+            methods.writeTo(out);
+            out.writeShort(0); // attributes of the class
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * The body of one method.
+     */
+    final class Code {
+        private byte[] code = new byte[256];
+        private int size;
+
+        /**
+         * Pushes a long constant with the shortest instruction for it.
+         */
+        void emitLong(long value) {
+            if (value == 0 || value == 1) {
+                emit(value == 0 ? LCONST_0 : LCONST_1);
+            } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+                emit(BIPUSH, (int) value);
+                emit(I2L);
+            } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+                emit(SIPUSH);
+                emitShort((int) value);
+                emit(I2L);
+            } else {
+                var index = constant(value, out -> {
+                    out.writeByte(CONSTANT_LONG);
+                    out.writeLong(value);
+                });
+                emit(LDC2_W);
+                emitShort(index);
+            }
+        }
+
+        /**
+         * {@code LLOAD} or {@code LSTORE} of a local variable.
+         */
+        void emitLocal(int opcode, int local) {
+            if (local > 0xFF) {
+                emit(WIDE);
+                emit(opcode);
+                emitShort(local);
+            } else {
+                emit(opcode, local);
+            }
+        }
+
+        /**
+         * Calls a static method of this class.
+         */
+        void emitInvoke(String name, String descriptor) {
+            emit(INVOKESTATIC);
+            emitShort(methodRef(name, descriptor));
+        }
+
+        void emit(int opcode) {
+            reserve(1);
+            code[size++] = (byte) opcode;
+        }
+
+        void emit(int opcode, int operand) {
+            reserve(2);
+            code[size++] = (byte) opcode;
+            code[size++] = (byte) operand;
+        }
+
+        private void emitShort(int value) {
+            reserve(2);
+            code[size++] = (byte) (value >>> 8);
+            code[size++] = (byte) value;
+        }
+
+        private void reserve(int bytes) {
+            if (size + bytes > code.length) {
+                code = Arrays.copyOf(code, Math.max(code.length * 2, size + bytes));
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.jit;
+
+import java.lang.invoke.MethodHandle;
+import org.example.object.BooleanObject;
+import org.example.object.ErrorObject;
+import org.example.object.IntegerObject;
+import org.example.object.MonkeyObject;
+import org.example.object.NullObject;
+import org.example.object.ObjectType;
+
+/**
+ * A program compiled by {@link JitCompiler}. The class holding its code is
+ * unloaded once the script is unreachable. Scripts keep no state between
+ * runs and are safe to run from any number of threads.
+ */
+public final class CompiledScript {
+    private final MethodHandle method;
+    private final ObjectType type;
+    private final String error;
+    private final int classSize;
+
+    CompiledScript(MethodHandle method, ObjectType type, String error, int classSize) {
+        this.method = method;
+        this.type = type;
+        this.error = error;
+        this.classSize = classSize;
+    }
+
+    /**
+     * The value of the program, as {@link org.example.evaluator.Evaluator}
+     * would give it.
+     */
+    public MonkeyObject run() {
+        long value;
+        try {
+            value = (long) method.invokeExact();
+        } catch (ArithmeticException e) {
+            return new ErrorObject("division by zero");
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            // the generated code throws no checked exceptions
+            throw new IllegalStateException(e);
+        }
+        return switch (type) {
+            case INTEGER -> IntegerObject.of(value);
+            case BOOLEAN -> BooleanObject.of(value != 0);
+            case NULL -> NullObject.NULL;
+            default -> new ErrorObject(error);
+        };
+    }
+
+    /**
+     * Size in bytes of the generated class file.
+     */
+    public int classSize() {
+        return classSize;
+    }
+}
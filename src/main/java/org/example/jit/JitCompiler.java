@@ -0,0 +1,596 @@
+package org.example.jit;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.example.ast.ErrorNode;
+import org.example.ast.Expression;
+import org.example.ast.ExpressionStatement;
+import org.example.ast.Identifier;
+import org.example.ast.InfixExpression;
+import org.example.ast.IntegerLiteral;
+import org.example.ast.LetStatement;
+import org.example.ast.PrefixExpression;
+import org.example.ast.Program;
+import org.example.ast.ReturnStatement;
+import org.example.ast.Statement;
+import org.example.object.ObjectType;
+import org.example.token.TokenType;
+
+/**
+ * Compiles a {@link Program} to a JVM hidden class with one method,
+ * {@code static long run()}, which the JVM's own JIT then compiles to machine
+ * code like any other method.
+ *
+ * <p>Programs have no branches, so the type of every value is known while
+ * compiling: each global is a {@code long} local variable holding the value
+ * of its latest {@code let}, an integer as itself and a boolean as 0 or 1,
+ * and the method returns the program's value the same way, its type kept by
+ * the {@link CompiledScript}. A type error, or a name read before its
+ * {@code let}, happens at a known point too: the method is cut off there,
+ * after the code that runs before it, and the script reports the error.
+ * Division by zero is the one error that depends on values; it is left to
+ * {@code ldiv}, whose {@link ArithmeticException} the script turns into the
+ * evaluator's error.
+ *
+ * <p>Comparisons are computed from {@code lcmp} with shifts and
+ * multiplications, not jumps, so the method never branches and its class
+ * needs no stack map frames. Expressions are emitted in post-order from an
+ * explicit stack, as in {@link org.example.compiler.Compiler}.
+ *
+ * <p>HotSpot leaves methods of more than 8000 bytes of bytecode to its
+ * interpreter, so an expression of more than {@value #MAX_INLINE_WEIGHT}
+ * nodes is split: each largest subexpression below that size goes to a
+ * method of its own, called with the globals it reads as arguments. Above
+ * those, a large node whose left operand (or, for a prefix operator, whose
+ * only operand) is large too is the top of a chain, such as a long sum. The
+ * chain is cut into segments of at most {@value #MAX_INLINE_WEIGHT} nodes
+ * including their small operands, and each segment is a method that takes
+ * the value of the chain below it as its first argument. Operands are still
+ * evaluated in source order. What stays inline is the calls and small
+ * operands of nodes with two large operands, and a chain through right
+ * operands, whose operands would have to be passed in one by one; a program
+ * nested deeply that way may still exceed the JVM's limits.
+ */
+public final class JitCompiler {
+    private static final String CLASS_NAME = "org/example/jit/Script";
+    private static final String METHOD_NAME = "run";
+    private static final MethodType METHOD_TYPE = MethodType.methodType(long.class);
+    private static final int MAX_LOCALS = 0xFFFF;
+    private static final int MAX_INLINE_WEIGHT = 1000; // nodes; no node takes more than 6 bytes
+    private static final int MIN_OUTLINE_WEIGHT = 100; // smaller ones are not worth a call
+    private static final int MAX_PARAMETERS = 100; // of 255 slots, two per long
+
+    private static final byte EXPAND = 0;
+    private static final byte OPERANDS_DONE = 1;
+    private static final byte OUTLINE = 2;
+    private static final byte SEGMENT = 3;
+    private static final String ACCUMULATOR = "0"; // local of a segment's first argument; no name starts with a digit
+
+    private final ClassFileWriter writer;
+    private final ClassFileWriter.Code out;
+    private final Map<String, Integer> locals = new HashMap<>();
+    private final Map<String, ObjectType> bound; // the type of each name's latest let
+    private String error;
+
+    // node counts of the subexpressions of an expression too large for one method
+    private Map<Expression, Integer> weights;
+
+    // types of the values on the operand stack
+    private ObjectType[] types = new ObjectType[16];
+    private int depth;
+    private int maxDepth;
+
+    // expressions waiting to be emitted, and what to do with them
+    private Expression[] pending = new Expression[16];
+    private byte[] states = new byte[16];
+    private int pendingCount;
+
+    private JitCompiler(ClassFileWriter writer, Map<String, ObjectType> bound) {
+        this.writer = writer;
+        this.out = writer.new Code();
+        this.bound = bound;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the program is too large for one
+     *                                  JVM method
+     */
+    public static CompiledScript compile(Program program) {
+        var writer = new ClassFileWriter(CLASS_NAME);
+        var jit = new JitCompiler(writer, new HashMap<>());
+        var type = jit.program(program.getStatements());
+        jit.addMethod(METHOD_NAME, METHOD_TYPE.toMethodDescriptorString(), true);
+        var bytes = writer.toByteArray();
+        MethodHandle method;
+        try {
+            var lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+            method = lookup.findStatic(lookup.lookupClass(), METHOD_NAME, METHOD_TYPE);
+        } catch (IllegalAccessException | NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+        return new CompiledScript(method, type, jit.error, bytes.length);
+    }
+
+    /**
+     * Emits the whole method; returns the type of its result, or
+     * {@link ObjectType#ERROR} if it is cut off by {@link #error}.
+     */
+    private ObjectType program(List<Statement> statements) {
+        for (int i = 0; i < statements.size(); i++) {
+            var statement = statements.get(i);
+            if (statement instanceof ExpressionStatement stmt) {
+                var type = expression(stmt.getExpression());
+                if (type == null) {
+                    return cutOff();
+                }
+                if (i == statements.size() - 1) {
+                    out.emit(ClassFileWriter.LRETURN);
+                    return type;
+                }
+                pop();
+                out.emit(ClassFileWriter.POP2);
+            } else if (statement instanceof LetStatement let) {
+                var type = expression(let.getValue());
+                if (type == null) {
+                    return cutOff();
+                }
+                var name = let.getName().getValue();
+                pop();
+                out.emitLocal(ClassFileWriter.LSTORE, local(name));
+                bound.put(name, type);
+            } else if (statement instanceof ReturnStatement ret) {
+                var type = expression(ret.getReturnValue());
+                if (type == null) {
+                    return cutOff();
+                }
+                out.emit(ClassFileWriter.LRETURN);
+                return type;
+            } else if (statement instanceof ErrorNode node) {
+                error = node.getMessage();
+                return cutOff();
+            } else {
+                throw new IllegalArgumentException("unknown statement " + statement.getClass().getSimpleName());
+            }
+        }
+        push(ObjectType.NULL);
+        out.emit(ClassFileWriter.LCONST_0);
+        out.emit(ClassFileWriter.LRETURN);
+        return ObjectType.NULL;
+    }
+
+    private void addMethod(String name, String descriptor, boolean publicMethod) {
+        // one spare long for the constant of ! and of a cut-off method
+        writer.addMethod(name, descriptor, publicMethod, out, 2 * maxDepth + 2, 2 * locals.size());
+    }
+
+    private ObjectType cutOff() {
+        push(ObjectType.NULL);
+        out.emit(ClassFileWriter.LCONST_0);
+        out.emit(ClassFileWriter.LRETURN);
+        return ObjectType.ERROR;
+    }
+
+    /**
+     * Emits an expression; returns the type of its value, or {@code null}
+     * once it reaches an {@link #error}.
+     */
+    private ObjectType expression(Expression root) {
+        weights = count(root, MAX_INLINE_WEIGHT) > MAX_INLINE_WEIGHT ? weigh(root) : null;
+        pendingCount = 0;
+        schedule(root, EXPAND);
+        while (pendingCount > 0) {
+            pendingCount--;
+            var expression = pending[pendingCount];
+            var state = states[pendingCount];
+            pending[pendingCount] = null;
+
+            if (state == EXPAND && scheduleSegment(expression)) {
+                continue;
+            }
+            if (state == OUTLINE) {
+                if (!outline(expression)) {
+                    return null;
+                }
+            } else if (state == SEGMENT) {
+                if (!callSegment(segmentAt(expression))) {
+                    return null;
+                }
+            } else if (expression instanceof InfixExpression infix) {
+                if (state == OPERANDS_DONE) {
+                    if (!infix(infix)) {
+                        return null;
+                    }
+                } else {
+                    schedule(infix, OPERANDS_DONE);
+                    scheduleOperand(infix, infix.getRight());
+                    scheduleOperand(infix, infix.getLeft());
+                }
+            } else if (expression instanceof PrefixExpression prefix) {
+                if (state == OPERANDS_DONE) {
+                    if (!prefix(prefix)) {
+                        return null;
+                    }
+                } else {
+                    schedule(prefix, OPERANDS_DONE);
+                    scheduleOperand(prefix, prefix.getRight());
+                }
+            } else if (expression instanceof IntegerLiteral lit) {
+                out.emitLong(lit.getValue());
+                push(ObjectType.INTEGER);
+            } else if (expression instanceof Identifier ident) {
+                var type = bound.get(ident.getValue());
+                if (type == null) {
+                    error = "identifier not found: " + ident.getValue();
+                    return null;
+                }
+                out.emitLocal(ClassFileWriter.LLOAD, locals.get(ident.getValue()));
+                push(type);
+            } else if (expression instanceof ErrorNode node) {
+                error = node.getMessage();
+                return null;
+            } else if (expression == null) {
+                out.emit(ClassFileWriter.LCONST_0);
+                push(ObjectType.NULL);
+            } else {
+                throw new IllegalArgumentException("unknown expression " + expression.getClass().getSimpleName());
+            }
+        }
+        weights = null;
+        return types[depth - 1];
+    }
+
+    /**
+     * Schedules an operand of a node too large for one method to go to a
+     * method of its own if it fits in one.
+     */
+    private void scheduleOperand(Expression parent, Expression operand) {
+        var outline = weights != null && weights.get(parent) > MAX_INLINE_WEIGHT
+                && (operand instanceof InfixExpression || operand instanceof PrefixExpression)
+                && weights.get(operand) <= MAX_INLINE_WEIGHT && weights.get(operand) >= MIN_OUTLINE_WEIGHT
+                && parameters(operand) != null;
+        schedule(operand, outline ? OUTLINE : EXPAND);
+    }
+
+    /**
+     * Emits an expression as a call to a new method; returns {@code false}
+     * once it reaches an {@link #error}.
+     */
+    private boolean outline(Expression expression) {
+        var parameters = parameters(expression);
+        var callee = new JitCompiler(writer, bound);
+        for (var name : parameters) {
+            callee.local(name);
+            out.emitLocal(ClassFileWriter.LLOAD, locals.get(name));
+            push(bound.get(name));
+        }
+        var type = callee.expression(expression);
+        if (type == null) {
+            callee.cutOff();
+        } else {
+            callee.out.emit(ClassFileWriter.LRETURN);
+        }
+        var name = "e" + writer.methodCount();
+        var descriptor = "(" + "J".repeat(parameters.size()) + ")J";
+        callee.addMethod(name, descriptor, false);
+
+        out.emitInvoke(name, descriptor);
+        depth -= parameters.size();
+        push(type);
+        if (type == null) {
+            error = callee.error;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Schedules {@code top} to be emitted as a call to its chain segment,
+     * after the rest of the chain, whose value is the call's first argument.
+     * Returns {@code false} if it is not the top of a segment.
+     */
+    private boolean scheduleSegment(Expression top) {
+        var nodes = segmentAt(top);
+        if (nodes == null) {
+            return false;
+        }
+        var last = nodes.get(nodes.size() - 1);
+        schedule(top, SEGMENT);
+        scheduleOperand(last, chained(last));
+        return true;
+    }
+
+    /**
+     * The nodes of the chain segment at the top of {@code top}, from the top
+     * down, or {@code null} if it is not the top of one. A segment is
+     * worth a call when the nodes below it are too large for one method, and
+     * it has {@link #MIN_OUTLINE_WEIGHT} to {@link #MAX_INLINE_WEIGHT} nodes
+     * with its small operands. Like {@link #parameters}, it is {@code null}
+     * when those operands cannot go to another method.
+     */
+    private List<Expression> segmentAt(Expression top) {
+        if (weights == null || !(top instanceof InfixExpression || top instanceof PrefixExpression)
+                || weights.get(top) <= MAX_INLINE_WEIGHT || weight(weights, chained(top)) <= MAX_INLINE_WEIGHT) {
+            return null;
+        }
+        var nodes = new ArrayList<Expression>();
+        var operands = new ArrayList<Expression>();
+        var size = 0;
+        for (var node = top; node instanceof InfixExpression || node instanceof PrefixExpression; node = chained(node)) {
+            var own = weights.get(node) - weight(weights, chained(node));
+            if (weights.get(node) <= MAX_INLINE_WEIGHT || size + own > MAX_INLINE_WEIGHT) {
+                break;
+            }
+            nodes.add(node);
+            if (node instanceof InfixExpression infix) {
+                operands.add(infix.getRight());
+            }
+            size += own;
+        }
+        if (size < MIN_OUTLINE_WEIGHT || parameters(operands, MAX_PARAMETERS - 1) == null) {
+            return null;
+        }
+        return nodes;
+    }
+
+    /**
+     * The operand a chain continues through: the left one of an infix
+     * expression, the only one of a prefix expression.
+     */
+    private static Expression chained(Expression node) {
+        return node instanceof InfixExpression infix ? infix.getLeft() : ((PrefixExpression) node).getRight();
+    }
+
+    /**
+     * Emits a call to a new method that applies a chain segment to the
+     * value on top of the stack, the rest of the chain; returns
+     * {@code false} once it reaches an {@link #error}.
+     */
+    private boolean callSegment(List<Expression> nodes) {
+        var operands = new ArrayList<Expression>();
+        for (var node : nodes) {
+            if (node instanceof InfixExpression infix) {
+                operands.add(infix.getRight());
+            }
+        }
+        var parameters = parameters(operands, MAX_PARAMETERS - 1);
+        var callee = new JitCompiler(writer, bound);
+        callee.out.emitLocal(ClassFileWriter.LLOAD, callee.local(ACCUMULATOR));
+        callee.push(types[depth - 1]);
+        for (var name : parameters) {
+            callee.local(name);
+            out.emitLocal(ClassFileWriter.LLOAD, locals.get(name));
+            push(bound.get(name));
+        }
+        var done = true;
+        for (int i = nodes.size() - 1; i >= 0 && done; i--) {
+            if (nodes.get(i) instanceof InfixExpression infix) {
+                done = callee.expression(infix.getRight()) != null && callee.infix(infix);
+            } else {
+                done = callee.prefix((PrefixExpression) nodes.get(i));
+            }
+        }
+        var type = done ? callee.types[callee.depth - 1] : null;
+        if (type == null) {
+            callee.cutOff();
+        } else {
+            callee.out.emit(ClassFileWriter.LRETURN);
+        }
+        var name = "e" + writer.methodCount();
+        var descriptor = "(J" + "J".repeat(parameters.size()) + ")J";
+        callee.addMethod(name, descriptor, false);
+
+        out.emitInvoke(name, descriptor);
+        depth -= parameters.size() + 1;
+        push(type);
+        if (type == null) {
+            error = callee.error;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * The names an expression reads, or {@code null} if it cannot be
+     * outlined: it reads too many, or ones not bound yet, or holds an
+     * error, all of which are simpler to leave inline.
+     */
+    private Set<String> parameters(Expression root) {
+        return parameters(List.of(root), MAX_PARAMETERS);
+    }
+
+    private Set<String> parameters(List<Expression> roots, int limit) {
+        var names = new LinkedHashSet<String>();
+        var stack = new ArrayList<Expression>(roots);
+        while (!stack.isEmpty()) {
+            var expression = stack.remove(stack.size() - 1);
+            if (expression instanceof Identifier ident) {
+                if (!bound.containsKey(ident.getValue())) {
+                    return null;
+                }
+                names.add(ident.getValue());
+            } else if (!(expression instanceof InfixExpression || expression instanceof PrefixExpression
+                    || expression instanceof IntegerLiteral)) {
+                return null;
+            }
+            addOperands(stack, expression);
+        }
+        return names.size() <= limit ? names : null;
+    }
+
+    /**
+     * The number of nodes of an expression, up to {@code limit + 1}.
+     */
+    private static int count(Expression root, int limit) {
+        var count = 0;
+        var stack = new ArrayList<Expression>();
+        stack.add(root);
+        while (!stack.isEmpty() && count <= limit) {
+            count++;
+            addOperands(stack, stack.remove(stack.size() - 1));
+        }
+        return count;
+    }
+
+    /**
+     * The node count of every operator node of an expression.
+     */
+    private static Map<Expression, Integer> weigh(Expression root) {
+        // operands come after their operator in pre-order, so before it in reverse
+        var preOrder = new ArrayList<Expression>();
+        var stack = new ArrayList<Expression>();
+        stack.add(root);
+        while (!stack.isEmpty()) {
+            var expression = stack.remove(stack.size() - 1);
+            preOrder.add(expression);
+            addOperands(stack, expression);
+        }
+        var weights = new IdentityHashMap<Expression, Integer>();
+        for (int i = preOrder.size() - 1; i >= 0; i--) {
+            var expression = preOrder.get(i);
+            if (expression instanceof InfixExpression infix) {
+                weights.put(infix, 1 + weight(weights, infix.getLeft()) + weight(weights, infix.getRight()));
+            } else if (expression instanceof PrefixExpression prefix) {
+                weights.put(prefix, 1 + weight(weights, prefix.getRight()));
+            }
+        }
+        return weights;
+    }
+
+    private static int weight(Map<Expression, Integer> weights, Expression expression) {
+        return weights.getOrDefault(expression, 1);
+    }
+
+    // the left operand goes last, to come off first
+    private static void addOperands(List<Expression> stack, Expression expression) {
+        if (expression instanceof InfixExpression infix) {
+            stack.add(infix.getRight());
+            stack.add(infix.getLeft());
+        } else if (expression instanceof PrefixExpression prefix) {
+            stack.add(prefix.getRight());
+        }
+    }
+
+    private boolean infix(InfixExpression infix) {
+        var right = pop();
+        var left = pop();
+        switch (infix.getToken().getType()) {
+            case PLUS, MINUS, ASTERISK, SLASH -> {
+                if (left != ObjectType.INTEGER || right != ObjectType.INTEGER) {
+                    return operandError(left, infix.getOperator(), right);
+                }
+                out.emit(switch (infix.getToken().getType()) {
+                    case PLUS -> ClassFileWriter.LADD;
+                    case MINUS -> ClassFileWriter.LSUB;
+                    case ASTERISK -> ClassFileWriter.LMUL;
+                    default -> ClassFileWriter.LDIV;
+                });
+                push(ObjectType.INTEGER);
+            }
+            case LT, GT -> {
+                if (left != ObjectType.INTEGER || right != ObjectType.INTEGER) {
+                    return operandError(left, infix.getOperator(), right);
+                }
+                // lcmp is -1 for less, 1 for greater: the sign bit of it or of its negation
+                out.emit(ClassFileWriter.LCMP);
+                if (infix.getToken().getType() == TokenType.GT) {
+                    out.emit(ClassFileWriter.INEG);
+                }
+                out.emit(ClassFileWriter.BIPUSH, 31);
+                out.emit(ClassFileWriter.IUSHR);
+                out.emit(ClassFileWriter.I2L);
+                push(ObjectType.BOOLEAN);
+            }
+            case EQ, NOT_EQ -> {
+                if (left != right) {
+                    return operandError(left, infix.getOperator(), right);
+                }
+                // the square of lcmp is 0 if equal, 1 if not; null is always 0, so null == null
+                out.emit(ClassFileWriter.LCMP);
+                out.emit(ClassFileWriter.DUP);
+                out.emit(ClassFileWriter.IMUL);
+                if (infix.getToken().getType() == TokenType.EQ) {
+                    out.emit(ClassFileWriter.ICONST_1);
+                    out.emit(ClassFileWriter.IXOR);
+                }
+                out.emit(ClassFileWriter.I2L);
+                push(ObjectType.BOOLEAN);
+            }
+            default -> throw new IllegalArgumentException("unknown operator " + infix.getOperator());
+        }
+        return true;
+    }
+
+    private boolean operandError(ObjectType left, String operator, ObjectType right) {
+        error = (left != right ? "type mismatch: " : "unknown operator: ") + left + " " + operator + " " + right;
+        return false;
+    }
+
+    private boolean prefix(PrefixExpression prefix) {
+        var type = pop();
+        switch (prefix.getToken().getType()) {
+            case MINUS -> {
+                if (type != ObjectType.INTEGER) {
+                    error = "unknown operator: -" + type;
+                    return false;
+                }
+                out.emit(ClassFileWriter.LNEG);
+                push(ObjectType.INTEGER);
+            }
+            case BANG -> {
+                // only false and null are falsy
+                if (type == ObjectType.BOOLEAN) {
+                    out.emit(ClassFileWriter.LCONST_1);
+                    out.emit(ClassFileWriter.LXOR);
+                    push(ObjectType.BOOLEAN);
+                } else {
+                    out.emit(ClassFileWriter.POP2);
+                    out.emit(type == ObjectType.NULL ? ClassFileWriter.LCONST_1 : ClassFileWriter.LCONST_0);
+                    push(ObjectType.BOOLEAN);
+                }
+            }
+            default -> throw new IllegalArgumentException("unknown operator " + prefix.getOperator());
+        }
+        return true;
+    }
+
+    private int local(String name) {
+        return locals.computeIfAbsent(name, n -> {
+            var local = 2 * locals.size(); // a long takes two
+            if (local + 2 > MAX_LOCALS) {
+                throw new IllegalArgumentException("more than " + MAX_LOCALS / 2 + " globals");
+            }
+            return local;
+        });
+    }
+
+    private void push(ObjectType type) {
+        if (depth == types.length) {
+            types = Arrays.copyOf(types, depth * 2);
+        }
+        types[depth++] = type;
+        maxDepth = Math.max(maxDepth, depth);
+    }
+
+    private ObjectType pop() {
+        return types[--depth];
+    }
+
+    private void schedule(Expression expression, byte state) {
+        if (pendingCount == pending.length) {
+            pending = Arrays.copyOf(pending, pendingCount * 2);
+            states = Arrays.copyOf(states, pendingCount * 2);
+        }
+        pending[pendingCount] = expression;
+        states[pendingCount] = state;
+        pendingCount++;
+    }
+}
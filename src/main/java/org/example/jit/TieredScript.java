@@ -0,0 +1,80 @@
+package org.example.jit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.example.ast.Program;
+import org.example.compiler.Bytecode;
+import org.example.compiler.Compiler;
+import org.example.evaluator.Evaluator;
+import org.example.object.MonkeyObject;
+import org.example.vm.VM;
+
+/**
+ * A program that is run by the {@link VM} at first and by the
+ * {@link JitCompiler} once it has proved hot. Compiling to a class costs
+ * far more than a run on the VM, and each class takes metaspace, so only
+ * scripts run more than {@code threshold} times are worth it.
+ *
+ * <p>The run after the threshold compiles the script on its own thread,
+ * while runs on other threads carry on with the VM. A program too large for
+ * one JVM method stays on the VM. One with more constants or names than
+ * {@link Compiler#MAX_POOL_SIZE} does not fit the VM's bytecode either and
+ * runs on the {@link Evaluator} until it is compiled, whose
+ * {@link Evaluator#MAX_DEPTH} then applies. Scripts are safe to run from any
+ * number of threads; each thread has its own VM.
+ */
+public final class TieredScript {
+    public static final int DEFAULT_THRESHOLD = 1000;
+    private static final ThreadLocal<VM> VMS = ThreadLocal.withInitial(VM::new);
+
+    private final Program program;
+    private final Bytecode bytecode; // null if the program does not fit the VM
+    private final int threshold;
+    private final AtomicInteger runs = new AtomicInteger();
+    private volatile CompiledScript compiled;
+
+    public TieredScript(Program program) {
+        this(program, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param threshold interpreted runs before compiling; 0 compiles on the
+     *                  first run
+     */
+    public TieredScript(Program program, int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("threshold must not be negative: " + threshold);
+        }
+        this.program = program;
+        this.bytecode = bytecode(program);
+        this.threshold = threshold;
+    }
+
+    private static Bytecode bytecode(Program program) {
+        try {
+            return Compiler.compile(program);
+        } catch (IllegalArgumentException e) {
+            return null; // more than MAX_POOL_SIZE constants or names
+        }
+    }
+
+    public MonkeyObject run() {
+        var script = compiled;
+        if (script != null) {
+            return script.run();
+        }
+        if (runs.getAndIncrement() == threshold) {
+            try {
+                script = JitCompiler.compile(program);
+                compiled = script;
+                return script.run();
+            } catch (IllegalArgumentException e) {
+                // too large to compile; stays interpreted
+            }
+        }
+        return bytecode != null ? VMS.get().run(bytecode) : new Evaluator().eval(program);
+    }
+
+    public boolean isCompiled() {
+        return compiled != null;
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.lexer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A read-only char view over a byte buffer, one char per byte. Monkey
+ * source is ASCII, so for a mapped UTF-8 file this is the file text without
+ * decoding it onto the heap; any non-ASCII byte simply lexes as ILLEGAL.
+ */
+final class ByteSource implements CharSequence {
+    private final ByteBuffer buffer;
+
+    ByteSource(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    ByteBuffer buffer() {
+        return buffer;
+    }
+
+    @Override
+    public int length() {
+        return buffer.limit();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) (buffer.get(index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new ByteSource(buffer.slice(start, end - start));
+    }
+
+    @Override
+    public String toString() {
+        var bytes = new byte[buffer.limit()];
+        buffer.get(0, bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -1,20 +1,91 @@
 package org.example.lexer;
 
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.example.token.SymbolTable;
 import org.example.token.Token;
+import org.example.token.TokenType;
 
+/**
+ * Scans Monkey source into tokens.
+ *
+ * <p>The lexer is a cursor: {@link #next()} advances to the following token and
+ * exposes its kind and source range through {@link #kind()}, {@link #start()}
+ * and {@link #length()} without allocating. {@link #literal()} materializes the
+ * text of the current token on demand, and {@link #nextToken()} wraps both into
+ * a {@link Token} for callers that want objects.
+ *
+ * <p>Identifier names are interned in the lexer's {@link SymbolTable}, so every
+ * occurrence of a name shares one String.
+ */
 public class Lexer {
-    private final String input;
+    private static final Scanner SCANNER = Scanner.best();
+
+    private final CharSequence input;
+    private final Scanner scanner;
+    private final SymbolTable symbols;
+    private final LineIndex lines; // null when lexing starts mid-text
+    private final int length;
     private int position; // current char
     private int readPosition; // next char
     private char ch;
 
-    public Lexer(String input) {
+    // the current token
+    private TokenType kind;
+    private int start;
+    private int end;
+
+    public Lexer(CharSequence input) {
+        this(input, new SymbolTable());
+    }
+
+    public Lexer(CharSequence input, SymbolTable symbols) {
+        this(input, symbols, 0, input.length());
+    }
+
+    /**
+     * Lexes {@code [from, to)} of the input as if nothing followed it. Offsets
+     * stay relative to the whole input. {@code from} must not be inside a token.
+     */
+    Lexer(CharSequence input, SymbolTable symbols, int from, int to) {
+        this(input, symbols, from, to, SCANNER);
+    }
+
+    Lexer(CharSequence input, SymbolTable symbols, int from, int to, Scanner scanner) {
         this.input = input;
+        this.scanner = scanner;
+        this.symbols = symbols;
+        this.lines = from == 0 ? new LineIndex() : null;
+        this.length = to;
+        this.readPosition = from;
         readChar();
     }
 
+    public Lexer(char[] input) {
+        this(CharBuffer.wrap(input));
+    }
+
+    /**
+     * Lexes a file through a read-only memory mapping instead of loading it
+     * onto the heap. The file is read as ASCII: offsets are byte offsets and
+     * each non-ASCII byte becomes an {@link TokenType#ILLEGAL} token.
+     */
+    public static Lexer map(Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            var size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("cannot map " + path + ": " + size + " bytes exceeds 2 GB");
+            }
+            // the mapping stays valid after the channel is closed
+            return new Lexer(new ByteSource(channel.map(FileChannel.MapMode.READ_ONLY, 0, size)));
+        }
+    }
+
     private void readChar() {
-        if (this.readPosition >= this.input.length()) {
+        if (this.readPosition >= this.length) {
             this.ch = 0;
         } else {
             this.ch = this.input.charAt(this.readPosition);
@@ -24,7 +95,7 @@ public class Lexer {
     }
 
     private char peekChar() {
-        if (this.readPosition >= this.input.length()) {
+        if (this.readPosition >= this.length) {
             return 0;
         } else {
             return this.input.charAt(this.readPosition);
@@ -32,87 +103,164 @@ public class Lexer {
     }
 
     public Token nextToken() {
-        Token tok = null;
+        var type = next();
+        if (type.literal() != null) {
+            return Token.of(type);
+        }
+        if (type == TokenType.IDENT) {
+            return new Token(type, this.symbols.name(symbol()));
+        }
+        return new Token(type, literal());
+    }
 
+    /**
+     * Advances to the next token and returns its kind. Once the input is
+     * exhausted every call returns {@link TokenType#EOF}.
+     */
+    public TokenType next() {
         skipWhitespace();
 
+        this.start = this.position;
+
         switch (this.ch) {
             case '=' -> {
                 if (peekChar() == '=') {
-                    var ch = this.ch;
                     readChar();
-                    var literal = String.valueOf(ch) + this.ch;
-                    tok = new Token(Token.EQ, literal);
+                    this.kind = TokenType.EQ;
                 } else {
-                    tok = new Token(Token.ASSIGN, this.ch);
+                    this.kind = TokenType.ASSIGN;
                 }
             }
-            case '+' -> tok = new Token(Token.PLUS, this.ch);
-            case '-' -> tok = new Token(Token.MINUS, this.ch);
+            case '+' -> this.kind = TokenType.PLUS;
+            case '-' -> this.kind = TokenType.MINUS;
             case '!' -> {
                 if (peekChar() == '=') {
-                    var ch = this.ch;
                     readChar();
-                    var literal = String.valueOf(ch) + this.ch;
-                    tok = new Token(Token.NOT_EQ, literal);
+                    this.kind = TokenType.NOT_EQ;
                 } else {
-                    tok = new Token(Token.BANG, this.ch);
+                    this.kind = TokenType.BANG;
                 }
             }
-            case '/' -> tok = new Token(Token.SLASH, this.ch);
-            case '*' -> tok = new Token(Token.ASTERISK, this.ch);
-            case '<' -> tok = new Token(Token.LT, this.ch);
-            case '>' -> tok = new Token(Token.GT, this.ch);
-            case ';' -> tok = new Token(Token.SEMICOLON, this.ch);
-            case '(' -> tok = new Token(Token.LPAREN, this.ch);
-            case ')' -> tok = new Token(Token.RPAREN, this.ch);
-            case ',' -> tok = new Token(Token.COMMA, this.ch);
-            case '{' -> tok = new Token(Token.LBRACE, this.ch);
-            case '}' -> tok = new Token(Token.RBRACE, this.ch);
-            case 0 -> tok = new Token(Token.EOF, "");
+            case '/' -> this.kind = TokenType.SLASH;
+            case '*' -> this.kind = TokenType.ASTERISK;
+            case '<' -> this.kind = TokenType.LT;
+            case '>' -> this.kind = TokenType.GT;
+            case ';' -> this.kind = TokenType.SEMICOLON;
+            case '(' -> this.kind = TokenType.LPAREN;
+            case ')' -> this.kind = TokenType.RPAREN;
+            case ',' -> this.kind = TokenType.COMMA;
+            case '{' -> this.kind = TokenType.LBRACE;
+            case '}' -> this.kind = TokenType.RBRACE;
+            case 0 -> {
+                // stay put so that repeated calls keep answering EOF
+                this.kind = TokenType.EOF;
+                this.end = this.start;
+                return this.kind;
+            }
             default -> {
                 if (isLetter(this.ch)) {
-                    String ident = readIdentifier();
-                    return new Token((Token.lookupIdent(ident)), ident);
+                    readIdentifier();
+                    this.end = this.position;
+                    this.kind = Token.lookupIdent(this.input, this.start, this.end);
+                    return this.kind;
                 } else if (isDigit(this.ch)) {
-                    return new Token(Token.INT, readNumber());
+                    readNumber();
+                    this.end = this.position;
+                    this.kind = TokenType.INT;
+                    return this.kind;
                 } else {
-                    tok = new Token(Token.ILLEGAL, this.ch);
+                    this.kind = TokenType.ILLEGAL;
                 }
             }
         }
 
         readChar();
-        return tok;
+        this.end = this.position;
+        return this.kind;
     }
 
-    private String readNumber() {
-        var pos = this.position;
-        while (isDigit(this.ch)) {
-            readChar();
+    /**
+     * The kind of the current token, or {@code null} before the first {@link #next()}.
+     */
+    public TokenType kind() {
+        return kind;
+    }
+
+    /**
+     * Offset of the first char of the current token.
+     */
+    public int start() {
+        return start;
+    }
+
+    /**
+     * Number of chars in the current token.
+     */
+    public int length() {
+        return end - start;
+    }
+
+    /**
+     * The text of the current token. Only identifiers, integers and illegal
+     * chars allocate; every other kind returns its shared spelling.
+     */
+    public String literal() {
+        if (this.kind.literal() != null) {
+            return this.kind.literal();
         }
-        return this.input.substring(pos, this.position);
+        return this.input.subSequence(this.start, this.end).toString();
+    }
+
+    /**
+     * Interns the current {@link TokenType#IDENT} token and returns its symbol id.
+     */
+    public int symbol() {
+        return this.symbols.intern(this.input, this.start, this.end);
+    }
+
+    CharSequence input() {
+        return input;
+    }
+
+    public SymbolTable symbols() {
+        return symbols;
+    }
+
+    /**
+     * Line starts of the text scanned so far, enough to locate every token
+     * returned up to now.
+     */
+    public LineIndex lines() {
+        return lines;
+    }
+
+    /**
+     * Moves to {@code offset}, making it the current char.
+     */
+    private void seek(int offset) {
+        this.readPosition = offset;
+        readChar();
+    }
+
+    private void readNumber() {
+        seek(this.scanner.skipDigits(this.input, this.position, this.length));
     }
 
     private boolean isDigit(char ch) {
-        return '0' <= ch && ch <= '9';
+        return ScalarScanner.isDigit(ch);
     }
 
     private void skipWhitespace() {
-        while (this.ch == ' ' || this.ch == '\t' || this.ch == '\n' || this.ch == '\r') {
-            readChar();
+        if (this.ch == ' ' || this.ch == '\t' || this.ch == '\n' || this.ch == '\r') {
+            seek(this.scanner.skipWhitespace(this.input, this.position, this.length, this.lines));
         }
     }
 
-    private String readIdentifier() {
-        var pos = this.position;
-        while (isLetter(this.ch)) {
-            readChar();
-        }
-        return this.input.substring(pos, this.position);
+    private void readIdentifier() {
+        seek(this.scanner.skipLetters(this.input, this.position, this.length));
     }
 
     private boolean isLetter(char ch) {
-        return 'a' <= ch && ch <= 'z' || 'A' <= ch && ch <= 'Z' || ch == '_';
+        return ScalarScanner.isLetter(ch);
     }
 }
@@ -0,0 +1,148 @@
+package org.example.lexer;
+
+import java.util.Arrays;
+
+/**
+ * Start offsets of the lines of a text, for turning offsets into line and
+ * column numbers. The lexer fills one in as it skips newlines, so positions
+ * of scanned tokens never need a second pass over the text.
+ *
+ * <p>Positions are packed into a {@code long}, line in the high half and
+ * column in the low half, both 1-based; see {@link #line(long)} and
+ * {@link #column(long)}.
+ *
+ * <p>Like {@link TokenBuffer}, the starts are a gap buffer: lines before the
+ * gap store their start offset, lines after it their distance from the end of
+ * the text. An {@link #edit} thus costs the inserted chars plus the lines the
+ * gap moves across, not the document size.
+ */
+public final class LineIndex {
+    private int[] starts; // start offset before the gap, distance from the text end after it
+    private int gapStart;
+    private int gapEnd;
+    private int textLength; // of the text the starts after the gap are measured from
+
+    LineIndex() {
+        this.starts = new int[64];
+        this.starts[0] = 0;
+        this.gapStart = 1;
+        this.gapEnd = starts.length;
+    }
+
+    /**
+     * Indexes all of {@code text} in one scan.
+     */
+    public static LineIndex of(CharSequence text) {
+        var index = new LineIndex();
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                index.add(i + 1);
+            }
+        }
+        index.textLength = text.length();
+        return index;
+    }
+
+    void add(int lineStart) {
+        if (gapStart == gapEnd) {
+            grow();
+        }
+        starts[gapStart++] = lineStart;
+    }
+
+    /**
+     * Updates the index after {@code removedLength} chars at {@code offset}
+     * were replaced by {@code insertedLength} chars. {@code newText} is the
+     * text after the edit.
+     */
+    void edit(CharSequence newText, int offset, int removedLength, int insertedLength) {
+        var oldLength = newText.length() - insertedLength + removedLength;
+        textLength = oldLength;
+        // the gap goes in front of the first line starting after the edit
+        int lo = 0;
+        int hi = size();
+        while (lo < hi) {
+            var mid = (lo + hi) >>> 1;
+            if (start(mid) <= offset) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        moveGap(lo);
+        // lines begun by a removed newline
+        while (gapEnd < starts.length && oldLength - starts[gapEnd] <= offset + removedLength) {
+            gapEnd++;
+        }
+        textLength = newText.length();
+        for (int i = offset; i < offset + insertedLength; i++) {
+            if (newText.charAt(i) == '\n') {
+                add(i + 1);
+            }
+        }
+    }
+
+    public long position(int offset) {
+        int lo = 0;
+        int hi = size() - 1;
+        while (lo < hi) {
+            var mid = (lo + hi + 1) >>> 1;
+            if (start(mid) <= offset) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return pack(lo + 1, offset - start(lo) + 1);
+    }
+
+    public static long pack(int line, int column) {
+        return (long) line << 32 | column & 0xFFFFFFFFL;
+    }
+
+    public static int line(long position) {
+        return (int) (position >>> 32);
+    }
+
+    public static int column(long position) {
+        return (int) position;
+    }
+
+    /**
+     * {@code line:column} of an offset.
+     */
+    public String format(int offset) {
+        var position = position(offset);
+        return line(position) + ":" + column(position);
+    }
+
+    private int size() {
+        return starts.length - (gapEnd - gapStart);
+    }
+
+    private int start(int line) {
+        return line < gapStart ? starts[line] : textLength - starts[line + (gapEnd - gapStart)];
+    }
+
+    private void moveGap(int line) {
+        while (gapStart > line) {
+            gapStart--;
+            gapEnd--;
+            starts[gapEnd] = textLength - starts[gapStart];
+        }
+        while (gapStart < line) {
+            starts[gapStart] = textLength - starts[gapEnd];
+            gapStart++;
+            gapEnd++;
+        }
+    }
+
+    private void grow() {
+        var capacity = starts.length;
+        var tail = capacity - gapEnd;
+        var newStarts = Arrays.copyOf(starts, capacity * 2);
+        System.arraycopy(starts, gapEnd, newStarts, newStarts.length - tail, tail);
+        starts = newStarts;
+        gapEnd = newStarts.length - tail;
+    }
+}
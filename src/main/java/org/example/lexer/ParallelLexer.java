@@ -0,0 +1,108 @@
+package org.example.lexer;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import org.example.token.SymbolTable;
+
+/**
+ * Lexes large inputs in chunks on a {@link ForkJoinPool} and stitches the
+ * chunks into one {@link TokenBuffer}, identical to {@link TokenBuffer#lex}.
+ *
+ * <p>The lexer carries no state from one token to the next, so a chunk may
+ * end at any whitespace char or right after a {@code ;}: no token spans
+ * either, and no token's scan looks past them. Brace depth does not matter to
+ * the lexer, so chunks are cut inside braces too. Tokens keep offsets into the
+ * whole input, so stitching is a plain array copy.
+ */
+public final class ParallelLexer {
+    private static final int DEFAULT_CHUNK_SIZE = 256 * 1024;
+
+    private ParallelLexer() {
+    }
+
+    public static TokenBuffer lex(CharSequence text) {
+        return lex(text, new SymbolTable(), ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public static TokenBuffer lex(CharSequence text, SymbolTable symbols, ForkJoinPool pool, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunk size must be positive: " + chunkSize);
+        }
+        var bounds = boundaries(text, chunkSize);
+        var parts = new TokenBuffer[bounds.length - 1];
+        if (parts.length == 1) {
+            return TokenBuffer.lex(text, symbols);
+        }
+        pool.invoke(new LexChunks(text, symbols, bounds, parts, 0, parts.length));
+        return TokenBuffer.concat(text, symbols, parts);
+    }
+
+    /**
+     * Chunk start offsets followed by the text length.
+     */
+    static int[] boundaries(CharSequence text, int chunkSize) {
+        var length = text.length();
+        var bounds = new ArrayList<Integer>();
+        bounds.add(0);
+        var pos = chunkSize;
+        while (pos < length) {
+            var cut = safeCut(text, pos);
+            if (cut >= length) {
+                break;
+            }
+            bounds.add(cut);
+            pos = cut + chunkSize;
+        }
+        bounds.add(length);
+        return bounds.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int safeCut(CharSequence text, int from) {
+        var length = text.length();
+        for (int i = from; i < length; i++) {
+            switch (text.charAt(i)) {
+                case ' ', '\t', '\n', '\r' -> {
+                    return i;
+                }
+                case ';' -> {
+                    return i + 1;
+                }
+                default -> {
+                }
+            }
+        }
+        return length;
+    }
+
+    private static final class LexChunks extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final CharSequence text;
+        private final SymbolTable symbols;
+        private final int[] bounds;
+        private final TokenBuffer[] parts;
+        private final int from;
+        private final int to;
+
+        LexChunks(CharSequence text, SymbolTable symbols, int[] bounds, TokenBuffer[] parts, int from, int to) {
+            this.text = text;
+            this.symbols = symbols;
+            this.bounds = bounds;
+            this.parts = parts;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                parts[from] = TokenBuffer.lex(text, symbols, bounds[from], bounds[from + 1]);
+                return;
+            }
+            var mid = (from + to) >>> 1;
+            invokeAll(new LexChunks(text, symbols, bounds, parts, from, mid),
+                    new LexChunks(text, symbols, bounds, parts, mid, to));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.lexer;
+
+/**
+ * One char at a time, for any {@link CharSequence}.
+ */
+final class ScalarScanner implements Scanner {
+    static final ScalarScanner INSTANCE = new ScalarScanner();
+
+    @Override
+    public int skipWhitespace(CharSequence input, int from, int to, LineIndex lines) {
+        int i = from;
+        for (; i < to; i++) {
+            var ch = input.charAt(i);
+            if (ch == '\n') {
+                if (lines != null) {
+                    lines.add(i + 1);
+                }
+            } else if (ch != ' ' && ch != '\t' && ch != '\r') {
+                break;
+            }
+        }
+        return i;
+    }
+
+    @Override
+    public int skipLetters(CharSequence input, int from, int to) {
+        int i = from;
+        while (i < to && isLetter(input.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    @Override
+    public int skipDigits(CharSequence input, int from, int to) {
+        int i = from;
+        while (i < to && isDigit(input.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    static boolean isLetter(char ch) {
+        return 'a' <= ch && ch <= 'z' || 'A' <= ch && ch <= 'Z' || ch == '_';
+    }
+
+    static boolean isDigit(char ch) {
+        return '0' <= ch && ch <= '9';
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.lexer;
+
+/**
+ * The lexer's inner loops: each method returns the first index in
+ * {@code [from, to)} that is not whitespace, a letter or a digit respectively,
+ * or {@code to}.
+ */
+interface Scanner {
+    /**
+     * Also records the start of every line begun in the skipped run in
+     * {@code lines}, unless that is null.
+     */
+    int skipWhitespace(CharSequence input, int from, int to, LineIndex lines);
+
+    int skipLetters(CharSequence input, int from, int to);
+
+    int skipDigits(CharSequence input, int from, int to);
+
+    /**
+     * The scalar backend, unless the vector one is asked for with
+     * {@code -Dmonkey.lexer.vector=true} and {@code jdk.incubator.vector} is in
+     * the boot layer (run with {@code --add-modules jdk.incubator.vector}).
+     * Vectors only pay off on long runs of one class in mapped files or
+     * {@code char[]}-backed buffers, so they are opt-in.
+     */
+    static Scanner best() {
+        if (!Boolean.getBoolean("monkey.lexer.vector")
+                || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return ScalarScanner.INSTANCE;
+        }
+        try {
+            return (Scanner) Class.forName("org.example.lexer.VectorScanner").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return ScalarScanner.INSTANCE;
+        }
+    }
+}
@@ -0,0 +1,445 @@
+package org.example.lexer;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import lombok.Value;
+import org.example.token.SymbolTable;
+import org.example.token.Token;
+import org.example.token.TokenType;
+
+/**
+ * The tokens of a whole text in parallel primitive arrays (kind, start,
+ * length), ending with an {@link TokenType#EOF} token.
+ *
+ * <p>A buffer is a pre-pass for the parser, which reads it by index with any
+ * lookahead it needs. Parsing does not change the buffer, so one buffer can be
+ * kept and parsed any number of times.
+ *
+ * <p>The arrays are a gap buffer so that {@link #edit} can splice re-lexed
+ * tokens in without shifting the rest. Tokens before the gap store their start
+ * offset; tokens after it store their distance from the end of the text, which
+ * an edit in front of them does not change. An edit therefore costs the
+ * re-scanned window plus the distance the gap moves, not the document size.
+ *
+ * <p>{@link #write} stores the tokens as little-endian bytes: a header of four
+ * ints (magic, {@link #FORMAT_VERSION}, text length, token count), then the
+ * kind bytes, start ints and length ints in token order. {@link #read} loads
+ * them back against the same text without lexing it.
+ */
+public final class TokenBuffer {
+    private static final TokenType[] TYPES = TokenType.values();
+    private static final int MAGIC = 0x4B544E4D; // "MNTK" in little-endian order
+    private static final int HEADER = 4 * Integer.BYTES;
+
+    /**
+     * Changes whenever the byte layout or the set of token kinds changes.
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    private CharSequence text;
+    private int textLength;
+    private final SymbolTable symbols;
+    private LineIndex lines; // built on demand when the lexer could not provide it
+
+    private byte[] kinds;
+    private int[] starts; // start offset before the gap, distance from the text end after it
+    private int[] lengths;
+    private int gapStart;
+    private int gapEnd;
+
+    private TokenBuffer(CharSequence text, SymbolTable symbols, int capacity) {
+        this.text = text;
+        this.textLength = text.length();
+        this.symbols = symbols;
+        this.kinds = new byte[capacity];
+        this.starts = new int[capacity];
+        this.lengths = new int[capacity];
+        this.gapStart = 0;
+        this.gapEnd = capacity;
+    }
+
+    public static TokenBuffer lex(CharSequence text) {
+        return lex(text, new SymbolTable());
+    }
+
+    public static TokenBuffer lex(CharSequence text, SymbolTable symbols) {
+        return of(new Lexer(text, symbols));
+    }
+
+    /**
+     * Drains the remaining tokens of {@code l}, up to and including EOF.
+     */
+    public static TokenBuffer of(Lexer l) {
+        var text = l.input();
+        var buffer = new TokenBuffer(text, l.symbols(), Math.max(16, text.length() / 4));
+        TokenType kind;
+        do {
+            kind = l.next();
+            buffer.append(kind, l.start(), l.length());
+        } while (kind != TokenType.EOF);
+        // a NUL char stops the lexer, and with it the line index, before the text ends
+        buffer.lines = l.start() == text.length() ? l.lines() : null;
+        return buffer;
+    }
+
+    /**
+     * An empty buffer over the text of {@code l}, for tokens to be
+     * {@link #pull pulled} as they are needed rather than all at once. Its
+     * line index is the lexer's, which grows as tokens are pulled.
+     */
+    public static TokenBuffer open(Lexer l) {
+        var buffer = new TokenBuffer(l.input(), l.symbols(), 16);
+        buffer.lines = l.lines();
+        return buffer;
+    }
+
+    /**
+     * Appends up to {@code count} more tokens of {@code l}, the lexer the
+     * buffer was {@link #open opened} on, and returns whether EOF was among them.
+     */
+    public boolean pull(Lexer l, int count) {
+        moveGap(size());
+        for (int i = 0; i < count; i++) {
+            var kind = l.next();
+            append(kind, l.start(), l.length());
+            if (kind == TokenType.EOF) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Drops the first {@code count} tokens, so that the token at index
+     * {@code count + i} moves to {@code i}. A reader that is done with the
+     * front of a {@link #pull pulled} buffer keeps it at the size of what it
+     * still needs.
+     */
+    public void discard(int count) {
+        moveGap(size());
+        var rest = gapStart - count;
+        System.arraycopy(kinds, count, kinds, 0, rest);
+        System.arraycopy(starts, count, starts, 0, rest);
+        System.arraycopy(lengths, count, lengths, 0, rest);
+        gapStart = rest;
+    }
+
+    /**
+     * Lexes {@code [from, to)} of {@code text}, see {@link Lexer#Lexer(CharSequence, SymbolTable, int, int)}.
+     */
+    static TokenBuffer lex(CharSequence text, SymbolTable symbols, int from, int to) {
+        // roughly one token per four chars in typical scripts
+        var buffer = new TokenBuffer(text, symbols, Math.max(16, (to - from) / 4));
+        var l = new Lexer(text, symbols, from, to);
+        TokenType kind;
+        do {
+            kind = l.next();
+            buffer.append(kind, l.start(), l.length());
+        } while (kind != TokenType.EOF);
+        return buffer;
+    }
+
+    /**
+     * Joins buffers lexed from consecutive ranges of {@code text}. The EOF
+     * ending each part is dropped except for the last, and a part that hit an
+     * early EOF (a NUL char) ends the result, as it would a single lexer.
+     */
+    static TokenBuffer concat(CharSequence text, SymbolTable symbols, TokenBuffer[] parts) {
+        int size = 1;
+        for (var part : parts) {
+            size += part.size() - 1;
+        }
+        var buffer = new TokenBuffer(text, symbols, size);
+        for (int i = 0; i < parts.length; i++) {
+            var part = parts[i];
+            var last = part.size() - 1;
+            var eof = part.start(last);
+            var early = eof < text.length() && text.charAt(eof) == 0;
+            var count = early || i == parts.length - 1 ? last + 1 : last;
+            // parts are freshly lexed, so all their tokens sit before the gap
+            System.arraycopy(part.kinds, 0, buffer.kinds, buffer.gapStart, count);
+            System.arraycopy(part.starts, 0, buffer.starts, buffer.gapStart, count);
+            System.arraycopy(part.lengths, 0, buffer.lengths, buffer.gapStart, count);
+            buffer.gapStart += count;
+            if (early) {
+                break;
+            }
+        }
+        return buffer;
+    }
+
+    /**
+     * Describes the tokens replaced by an {@link #edit}: starting at index
+     * {@code first}, {@code removed} old tokens became {@code inserted} new ones.
+     */
+    @Value
+    public static class Change {
+        int first;
+        int removed;
+        int inserted;
+    }
+
+    public CharSequence text() {
+        return text;
+    }
+
+    /**
+     * Line starts of the current text.
+     */
+    public LineIndex lines() {
+        if (lines == null) {
+            lines = LineIndex.of(text);
+        }
+        return lines;
+    }
+
+    /**
+     * The table that {@link #token} interns identifier names in.
+     */
+    public SymbolTable symbols() {
+        return symbols;
+    }
+
+    /**
+     * Number of tokens, including the trailing EOF.
+     */
+    public int size() {
+        return kinds.length - (gapEnd - gapStart);
+    }
+
+    public TokenType kind(int index) {
+        return TYPES[kinds[physical(index)]];
+    }
+
+    public int start(int index) {
+        var i = physical(index);
+        return i < gapStart ? starts[i] : textLength - starts[i];
+    }
+
+    public int length(int index) {
+        return lengths[physical(index)];
+    }
+
+    public int end(int index) {
+        return start(index) + length(index);
+    }
+
+    public String literal(int index) {
+        var kind = kind(index);
+        if (kind.literal() != null) {
+            return kind.literal();
+        }
+        var start = start(index);
+        return text.subSequence(start, start + length(index)).toString();
+    }
+
+    public Token token(int index) {
+        var kind = kind(index);
+        if (kind.literal() != null) {
+            return Token.of(kind);
+        }
+        if (kind == TokenType.IDENT) {
+            return new Token(kind, symbols.name(symbol(index)));
+        }
+        return new Token(kind, literal(index));
+    }
+
+    /**
+     * Interns the {@link TokenType#IDENT} token at {@code index} and returns its symbol id.
+     */
+    public int symbol(int index) {
+        var start = start(index);
+        return symbols.intern(text, start, start + length(index));
+    }
+
+    /**
+     * Index of the first token ending at or after {@code offset}, i.e. the
+     * first token whose scan looked at the char at {@code offset}.
+     */
+    public int indexAt(int offset) {
+        int lo = 0;
+        int hi = size() - 1; // EOF ends at the text length, so it always qualifies
+        while (lo < hi) {
+            var mid = (lo + hi) >>> 1;
+            if (end(mid) >= offset) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Updates the tokens after {@code removedLength} chars at {@code offset}
+     * were replaced by {@code insertedLength} chars. {@code newText} is the
+     * text after the edit. Only the window from the first affected token up to
+     * the point where scanning lines up with an old token again is re-lexed.
+     */
+    public Change edit(CharSequence newText, int offset, int removedLength, int insertedLength) {
+        if (offset < 0 || removedLength < 0 || insertedLength < 0 || offset + removedLength > textLength) {
+            throw new IndexOutOfBoundsException("edit [" + offset + ", " + (offset + removedLength)
+                    + ") outside text of length " + textLength);
+        }
+        if (newText.length() != textLength - removedLength + insertedLength) {
+            throw new IllegalArgumentException("new text length " + newText.length()
+                    + " does not match the edit");
+        }
+
+        var first = indexAt(offset);
+        moveGap(first);
+
+        var from = first > 0 ? end(first - 1) : 0;
+        var editEnd = offset + insertedLength;
+        var capacity = kinds.length;
+
+        // from here on, tokens after the gap are read against the new text length
+        this.text = newText;
+        this.textLength = newText.length();
+        if (lines != null) {
+            lines.edit(newText, offset, removedLength, insertedLength);
+        }
+
+        int removed = 0;
+        int inserted = 0;
+        var l = new Lexer(newText, symbols, from, textLength);
+        for (; ; ) {
+            var kind = l.next();
+            var start = l.start();
+
+            // drop old tokens the scan has moved past
+            while (gapEnd < capacity && textLength - starts[gapEnd] < start) {
+                gapEnd++;
+                removed++;
+            }
+            // past the edit, a token starting where an old one starts means
+            // the rest of the old tokens are still valid. An old EOF only lines
+            // up with a new one, since a removed NUL char may have hidden text.
+            if (start >= editEnd && gapEnd < capacity && textLength - starts[gapEnd] == start
+                    && (kinds[gapEnd] != TokenType.EOF.ordinal() || kind == TokenType.EOF)) {
+                break;
+            }
+            append(kind, start, l.length());
+            capacity = kinds.length;
+            inserted++;
+            if (kind == TokenType.EOF) {
+                // a NUL char ends the input early; nothing after it is a token
+                removed += capacity - gapEnd;
+                gapEnd = capacity;
+                break;
+            }
+        }
+
+        return new Change(first, removed, inserted);
+    }
+
+    /**
+     * The number of bytes {@link #write} produces.
+     */
+    public int serializedSize() {
+        return HEADER + size() * (1 + 2 * Integer.BYTES);
+    }
+
+    /**
+     * Writes the tokens at the buffer's position and advances it.
+     *
+     * @throws java.nio.BufferOverflowException if fewer than {@link #serializedSize()} bytes remain
+     */
+    public void write(ByteBuffer out) {
+        var buffer = out.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        var tail = kinds.length - gapEnd;
+        buffer.putInt(MAGIC)
+                .putInt(FORMAT_VERSION)
+                .putInt(textLength)
+                .putInt(size());
+        buffer.put(kinds, 0, gapStart).put(kinds, gapEnd, tail);
+        var ints = buffer.asIntBuffer();
+        ints.put(starts, 0, gapStart);
+        for (int i = gapEnd; i < kinds.length; i++) {
+            ints.put(textLength - starts[i]);
+        }
+        ints.put(lengths, 0, gapStart).put(lengths, gapEnd, tail);
+        out.position(buffer.position() + ints.position() * Integer.BYTES);
+    }
+
+    /**
+     * Loads tokens written by {@link #write} at the buffer's position and
+     * advances past them. {@code text} must be the text they were lexed from.
+     *
+     * @throws IllegalArgumentException if the bytes are not tokens of this
+     *                                  format version for a text of this length
+     */
+    public static TokenBuffer read(CharSequence text, SymbolTable symbols, ByteBuffer in) {
+        var buffer = in.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < HEADER || buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("not a serialized token buffer");
+        }
+        var version = buffer.getInt();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("token format version " + version + ", expected " + FORMAT_VERSION);
+        }
+        var length = buffer.getInt();
+        if (length != text.length()) {
+            throw new IllegalArgumentException("tokens of a text of length " + length + ", not " + text.length());
+        }
+        var size = buffer.getInt();
+        var tokens = new TokenBuffer(text, symbols, size);
+        buffer.get(tokens.kinds);
+        var ints = buffer.asIntBuffer();
+        ints.get(tokens.starts).get(tokens.lengths);
+        tokens.gapStart = size;
+        in.position(buffer.position() + ints.position() * Integer.BYTES);
+        return tokens;
+    }
+
+    private int physical(int index) {
+        return index < gapStart ? index : index + (gapEnd - gapStart);
+    }
+
+    private void append(TokenType kind, int start, int length) {
+        if (gapStart == gapEnd) {
+            grow();
+        }
+        kinds[gapStart] = (byte) kind.ordinal();
+        starts[gapStart] = start;
+        lengths[gapStart] = length;
+        gapStart++;
+    }
+
+    private void grow() {
+        var capacity = kinds.length;
+        var newCapacity = capacity * 2;
+        var tail = capacity - gapEnd;
+        var newGapEnd = newCapacity - tail;
+
+        var newKinds = Arrays.copyOf(kinds, newCapacity);
+        var newStarts = Arrays.copyOf(starts, newCapacity);
+        var newLengths = Arrays.copyOf(lengths, newCapacity);
+        System.arraycopy(kinds, gapEnd, newKinds, newGapEnd, tail);
+        System.arraycopy(starts, gapEnd, newStarts, newGapEnd, tail);
+        System.arraycopy(lengths, gapEnd, newLengths, newGapEnd, tail);
+
+        this.kinds = newKinds;
+        this.starts = newStarts;
+        this.lengths = newLengths;
+        this.gapEnd = newGapEnd;
+    }
+
+    private void moveGap(int index) {
+        while (gapStart > index) {
+            gapStart--;
+            gapEnd--;
+            kinds[gapEnd] = kinds[gapStart];
+            starts[gapEnd] = textLength - starts[gapStart];
+            lengths[gapEnd] = lengths[gapStart];
+        }
+        while (gapStart < index) {
+            kinds[gapStart] = kinds[gapEnd];
+            starts[gapStart] = textLength - starts[gapEnd];
+            lengths[gapStart] = lengths[gapEnd];
+            gapStart++;
+            gapEnd++;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package org.example.lexer;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Classifies a whole vector of input at a time with the incubating Vector
+ * API: 16 to 64 bytes of a mapped file ({@link ByteSource}), or 8 to 32 chars
+ * of a {@code char[]}-backed {@link CharBuffer}. Strings and other sequences
+ * have no array to load from and take the scalar path, as does the tail of
+ * every run shorter than a vector. Most runs in real scripts are a few chars
+ * long, so each scan first probes {@value #PROBE} chars one at a time and
+ * only switches to vectors for longer runs.
+ *
+ * <p>Only loaded by {@link Scanner#best()} when asked for and the module is
+ * present. {@code ScannerBenchmark} measures it ahead on long runs and level
+ * or behind on typical scripts.
+ */
+final class VectorScanner implements Scanner {
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Short> CHARS = ShortVector.SPECIES_PREFERRED;
+    private static final ByteOrder ORDER = ByteOrder.nativeOrder();
+    private static final int PROBE = 8;
+
+    private static final int WHITESPACE = 0;
+    private static final int LETTERS = 1;
+    private static final int DIGITS = 2;
+
+    @Override
+    public int skipWhitespace(CharSequence input, int from, int to, LineIndex lines) {
+        var probe = Math.min(to, from + PROBE);
+        int i = ScalarScanner.INSTANCE.skipWhitespace(input, from, probe, lines);
+        if (i < probe) {
+            return i;
+        }
+        if (input instanceof ByteSource source) {
+            i = scan(source.buffer(), i, to, WHITESPACE, lines);
+        } else if (input instanceof CharBuffer chars && chars.hasArray()) {
+            i = scan(chars, i, to, WHITESPACE, lines);
+        }
+        return ScalarScanner.INSTANCE.skipWhitespace(input, i, to, lines);
+    }
+
+    @Override
+    public int skipLetters(CharSequence input, int from, int to) {
+        var probe = Math.min(to, from + PROBE);
+        int i = ScalarScanner.INSTANCE.skipLetters(input, from, probe);
+        if (i < probe) {
+            return i;
+        }
+        if (input instanceof ByteSource source) {
+            i = scan(source.buffer(), i, to, LETTERS, null);
+        } else if (input instanceof CharBuffer chars && chars.hasArray()) {
+            i = scan(chars, i, to, LETTERS, null);
+        }
+        return ScalarScanner.INSTANCE.skipLetters(input, i, to);
+    }
+
+    @Override
+    public int skipDigits(CharSequence input, int from, int to) {
+        var probe = Math.min(to, from + PROBE);
+        int i = ScalarScanner.INSTANCE.skipDigits(input, from, probe);
+        if (i < probe) {
+            return i;
+        }
+        if (input instanceof ByteSource source) {
+            i = scan(source.buffer(), i, to, DIGITS, null);
+        } else if (input instanceof CharBuffer chars && chars.hasArray()) {
+            i = scan(chars, i, to, DIGITS, null);
+        }
+        return ScalarScanner.INSTANCE.skipDigits(input, i, to);
+    }
+
+    /**
+     * Skips whole vectors of the class; returns where a non-member was found
+     * or where fewer than a vector's worth of input is left.
+     */
+    private static int scan(ByteBuffer buffer, int from, int to, int charClass, LineIndex lines) {
+        var step = BYTES.length();
+        int i = from;
+        for (; i <= to - step; i += step) {
+            var v = ByteVector.fromByteBuffer(BYTES, buffer, i, ORDER);
+            VectorMask<Byte> member;
+            switch (charClass) {
+                case WHITESPACE -> {
+                    var newline = v.eq((byte) '\n');
+                    member = v.eq((byte) ' ').or(v.eq((byte) '\t')).or(v.eq((byte) '\r')).or(newline);
+                    var n = member.not().firstTrue();
+                    if (lines != null) {
+                        addLines(lines, newline.toLong(), i, n);
+                    }
+                    if (n < step) {
+                        return i + n;
+                    }
+                    continue;
+                }
+                case LETTERS -> {
+                    var lower = v.lanewise(VectorOperators.OR, (byte) 0x20);
+                    member = lower.compare(VectorOperators.GE, (byte) 'a')
+                            .and(lower.compare(VectorOperators.LE, (byte) 'z'))
+                            .or(v.eq((byte) '_'));
+                }
+                default -> member = v.compare(VectorOperators.GE, (byte) '0')
+                        .and(v.compare(VectorOperators.LE, (byte) '9'));
+            }
+            var n = member.not().firstTrue();
+            if (n < step) {
+                return i + n;
+            }
+        }
+        return i;
+    }
+
+    private static int scan(CharBuffer chars, int from, int to, int charClass, LineIndex lines) {
+        var array = chars.array();
+        var base = chars.arrayOffset() + chars.position();
+        var step = CHARS.length();
+        int i = from;
+        for (; i <= to - step; i += step) {
+            var v = ShortVector.fromCharArray(CHARS, array, base + i);
+            VectorMask<Short> member;
+            switch (charClass) {
+                case WHITESPACE -> {
+                    var newline = v.eq((short) '\n');
+                    member = v.eq((short) ' ').or(v.eq((short) '\t')).or(v.eq((short) '\r')).or(newline);
+                    var n = member.not().firstTrue();
+                    if (lines != null) {
+                        addLines(lines, newline.toLong(), i, n);
+                    }
+                    if (n < step) {
+                        return i + n;
+                    }
+                    continue;
+                }
+                case LETTERS -> {
+                    var lower = v.lanewise(VectorOperators.OR, (short) 0x20);
+                    member = lower.compare(VectorOperators.GE, (short) 'a')
+                            .and(lower.compare(VectorOperators.LE, (short) 'z'))
+                            .or(v.eq((short) '_'));
+                }
+                default -> member = v.compare(VectorOperators.GE, (short) '0')
+                        .and(v.compare(VectorOperators.LE, (short) '9'));
+            }
+            var n = member.not().firstTrue();
+            if (n < step) {
+                return i + n;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Records a line start after each newline among the first {@code count}
+     * lanes of a vector loaded at {@code offset}.
+     */
+    private static void addLines(LineIndex lines, long newlines, int offset, int count) {
+        if (count < Long.SIZE) {
+            newlines &= (1L << count) - 1;
+        }
+        while (newlines != 0) {
+            lines.add(offset + Long.numberOfTrailingZeros(newlines) + 1);
+            newlines &= newlines - 1;
+        }
+    }
+}
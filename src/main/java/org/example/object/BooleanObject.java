@@ -0,0 +1,37 @@
+package org.example.object;
+
+import lombok.Getter;
+
+/**
+ * One of the two boolean values; compare them by identity.
+ */
+@Getter
+public final class BooleanObject implements MonkeyObject {
+    public static final BooleanObject TRUE = new BooleanObject(true);
+    public static final BooleanObject FALSE = new BooleanObject(false);
+
+    private final boolean value;
+
+    private BooleanObject(boolean value) {
+        this.value = value;
+    }
+
+    public static BooleanObject of(boolean value) {
+        return value ? TRUE : FALSE;
+    }
+
+    @Override
+    public ObjectType type() {
+        return ObjectType.BOOLEAN;
+    }
+
+    @Override
+    public String inspect() {
+        return Boolean.toString(value);
+    }
+
+    @Override
+    public String toString() {
+        return inspect();
+    }
+}
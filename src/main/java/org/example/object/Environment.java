@@ -0,0 +1,23 @@
+package org.example.object;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The values bound by {@code let} statements, by name.
+ */
+public final class Environment {
+    private final Map<String, MonkeyObject> store = new HashMap<>();
+
+    /**
+     * The value bound to {@code name}, or {@code null} if there is none.
+     */
+    public MonkeyObject get(String name) {
+        return store.get(name);
+    }
+
+    public MonkeyObject set(String name, MonkeyObject value) {
+        store.put(name, value);
+        return value;
+    }
+}
@@ -0,0 +1,28 @@
+package org.example.object;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A runtime error; evaluation stops at the first one.
+ */
+@Getter
+@AllArgsConstructor
+public final class ErrorObject implements MonkeyObject {
+    private final String message;
+
+    @Override
+    public ObjectType type() {
+        return ObjectType.ERROR;
+    }
+
+    @Override
+    public String inspect() {
+        return "ERROR: " + message;
+    }
+
+    @Override
+    public String toString() {
+        return inspect();
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.object;
+
+/**
+ * The values bound by {@code let} statements, by the slot a
+ * {@link org.example.resolver.Resolver} gave each name. A frame's parent
+ * holds the bindings one depth out.
+ */
+public final class Frame {
+    private final MonkeyObject[] slots;
+    private final Frame parent;
+
+    public Frame(int size, Frame parent) {
+        this.slots = new MonkeyObject[size];
+        this.parent = parent;
+    }
+
+    /**
+     * The value at a coordinate, or {@code null} if nothing has been set there.
+     */
+    public MonkeyObject get(int depth, int slot) {
+        return outer(depth).slots[slot];
+    }
+
+    public MonkeyObject set(int depth, int slot, MonkeyObject value) {
+        outer(depth).slots[slot] = value;
+        return value;
+    }
+
+    private Frame outer(int depth) {
+        var frame = this;
+        for (int i = depth; i > 0; i--) {
+            frame = frame.parent;
+        }
+        return frame;
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.object;
+
+import lombok.Getter;
+
+/**
+ * A 64-bit integer value. Small values are shared instances, see {@link #of}.
+ */
+@Getter
+public final class IntegerObject implements MonkeyObject {
+    private static final int CACHE_LOW = -128;
+    private static final int CACHE_HIGH = 1023;
+    private static final IntegerObject[] CACHE = new IntegerObject[CACHE_HIGH - CACHE_LOW + 1];
+
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new IntegerObject(CACHE_LOW + i);
+        }
+    }
+
+    private final long value;
+
+    private IntegerObject(long value) {
+        this.value = value;
+    }
+
+    /**
+     * The integer object for {@code value}, allocating only outside
+     * [{@value #CACHE_LOW}, {@value #CACHE_HIGH}].
+     */
+    public static IntegerObject of(long value) {
+        if (value >= CACHE_LOW && value <= CACHE_HIGH) {
+            return CACHE[(int) value - CACHE_LOW];
+        }
+        return new IntegerObject(value);
+    }
+
+    @Override
+    public ObjectType type() {
+        return ObjectType.INTEGER;
+    }
+
+    @Override
+    public String inspect() {
+        return Long.toString(value);
+    }
+
+    @Override
+    public String toString() {
+        return inspect();
+    }
+}
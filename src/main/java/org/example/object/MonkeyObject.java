@@ -0,0 +1,13 @@
+package org.example.object;
+
+/**
+ * A runtime value of a Monkey program.
+ */
+public interface MonkeyObject {
+    ObjectType type();
+
+    /**
+     * The value as the REPL shows it.
+     */
+    String inspect();
+}
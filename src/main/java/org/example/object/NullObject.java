@@ -0,0 +1,26 @@
+package org.example.object;
+
+/**
+ * The absence of a value, such as the result of a {@code let} statement.
+ */
+public final class NullObject implements MonkeyObject {
+    public static final NullObject NULL = new NullObject();
+
+    private NullObject() {
+    }
+
+    @Override
+    public ObjectType type() {
+        return ObjectType.NULL;
+    }
+
+    @Override
+    public String inspect() {
+        return "null";
+    }
+
+    @Override
+    public String toString() {
+        return inspect();
+    }
+}
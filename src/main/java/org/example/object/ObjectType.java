@@ -0,0 +1,9 @@
+package org.example.object;
+
+public enum ObjectType {
+    INTEGER,
+    BOOLEAN,
+    NULL,
+    RETURN_VALUE,
+    ERROR,
+}
@@ -0,0 +1,29 @@
+package org.example.object;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Wraps the value of a {@code return} statement on its way out of the
+ * statements being evaluated.
+ */
+@Getter
+@AllArgsConstructor
+public final class ReturnValue implements MonkeyObject {
+    private final MonkeyObject value;
+
+    @Override
+    public ObjectType type() {
+        return ObjectType.RETURN_VALUE;
+    }
+
+    @Override
+    public String inspect() {
+        return value.inspect();
+    }
+
+    @Override
+    public String toString() {
+        return inspect();
+    }
+}
@@ -0,0 +1,270 @@
+package org.example.optimizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.example.ast.Expression;
+import org.example.ast.ExpressionStatement;
+import org.example.ast.Identifier;
+import org.example.ast.InfixExpression;
+import org.example.ast.IntegerLiteral;
+import org.example.ast.LetStatement;
+import org.example.ast.PrefixExpression;
+import org.example.ast.Program;
+import org.example.ast.ReturnStatement;
+import org.example.ast.Statement;
+import org.example.object.ObjectType;
+import org.example.token.Token;
+import org.example.token.TokenType;
+
+/**
+ * Shrinks a {@link Program} without changing its value or its errors, for
+ * the evaluator, the compiler and the JIT alike.
+ *
+ * <ul>
+ * <li>Integer arithmetic on literals is folded, except division by zero,
+ * which is left to fail at run time.</li>
+ * <li>{@code x + 0}, {@code 0 + x}, {@code x - 0}, {@code x * 1},
+ * {@code 1 * x} and {@code x / 1} become {@code x}, and {@code --x} and
+ * {@code !!x} become {@code x}, when {@code x} is known to be an integer,
+ * or for {@code !!} a boolean. Constants are gathered across {@code +} and
+ * {@code -}, and across {@code *}: {@code x + 1 - 3} becomes {@code x + -2}.
+ * Arithmetic wraps, so these hold on overflow too.</li>
+ * <li>A name bound to a literal by a {@code let} is replaced by the literal
+ * until the next {@code let} of the name.</li>
+ * <li>Statements after the first top-level {@code return} are dropped.</li>
+ * </ul>
+ *
+ * <p>The type of an expression is what its value is if it does not fail:
+ * an operator's own, or for a name that of its latest {@code let}. A failing
+ * operand fails the same way once an identity drops the operator, so only
+ * the type needs to be known, not that evaluation succeeds. Comparisons are
+ * not folded, as the AST has no boolean literal.
+ *
+ * <p>Expressions are rebuilt in post-order from an explicit stack, so deep
+ * nesting does not recurse. Unchanged subtrees are shared with the input.
+ */
+public final class Optimizer {
+    private final Map<String, IntegerLiteral> constants = new HashMap<>();
+    private final Map<String, ObjectType> types = new HashMap<>();
+
+    // expressions waiting to be rebuilt, and whether their operands are done
+    private Expression[] pending = new Expression[16];
+    private boolean[] expanded = new boolean[16];
+    private int pendingCount;
+
+    // rebuilt operands
+    private Expression[] results = new Expression[16];
+    private int resultCount;
+
+    private Optimizer() {
+    }
+
+    public static Program optimize(Program program) {
+        var optimizer = new Optimizer();
+        var statements = new ArrayList<Statement>(program.getStatements().size());
+        for (var statement : program.getStatements()) {
+            statements.add(optimizer.statement(statement));
+            if (statement instanceof ReturnStatement) {
+                break;
+            }
+        }
+        return new Program(statements);
+    }
+
+    private Statement statement(Statement statement) {
+        if (statement instanceof ExpressionStatement stmt) {
+            var expression = expression(stmt.getExpression());
+            return expression == stmt.getExpression() ? stmt : new ExpressionStatement(stmt.getToken(), expression);
+        } else if (statement instanceof LetStatement let) {
+            var value = expression(let.getValue());
+            var name = let.getName().getValue();
+            if (value instanceof IntegerLiteral lit) {
+                constants.put(name, lit);
+            } else {
+                constants.remove(name);
+            }
+            types.put(name, type(value));
+            return value == let.getValue() ? let : new LetStatement(let.getToken(), let.getName(), value);
+        } else if (statement instanceof ReturnStatement ret) {
+            var value = expression(ret.getReturnValue());
+            return value == ret.getReturnValue() ? ret : new ReturnStatement(ret.getToken(), value);
+        }
+        return statement; // an ErrorNode
+    }
+
+    private Expression expression(Expression root) {
+        schedule(root, false);
+        while (pendingCount > 0) {
+            pendingCount--;
+            var expression = pending[pendingCount];
+            var operandsDone = expanded[pendingCount];
+            pending[pendingCount] = null;
+
+            if (expression instanceof InfixExpression infix) {
+                if (operandsDone) {
+                    var right = pop();
+                    var left = pop();
+                    push(infix(infix, left, right));
+                } else {
+                    schedule(infix, true);
+                    schedule(infix.getRight(), false);
+                    schedule(infix.getLeft(), false);
+                }
+            } else if (expression instanceof PrefixExpression prefix) {
+                if (operandsDone) {
+                    push(prefix(prefix, pop()));
+                } else {
+                    schedule(prefix, true);
+                    schedule(prefix.getRight(), false);
+                }
+            } else if (expression instanceof Identifier ident) {
+                var constant = constants.get(ident.getValue());
+                push(constant != null ? constant : ident);
+            } else {
+                push(expression); // literals, errors and missing operands
+            }
+        }
+        return pop();
+    }
+
+    private Expression infix(InfixExpression infix, Expression left, Expression right) {
+        var operator = infix.getToken().getType();
+        if (operator != TokenType.PLUS && operator != TokenType.MINUS
+                && operator != TokenType.ASTERISK && operator != TokenType.SLASH) {
+            return rebuild(infix, left, right);
+        }
+        if (left instanceof IntegerLiteral a && right instanceof IntegerLiteral b) {
+            var x = a.getValue();
+            var y = b.getValue();
+            switch (operator) {
+                case PLUS -> {
+                    return literal(x + y);
+                }
+                case MINUS -> {
+                    return literal(x - y);
+                }
+                case ASTERISK -> {
+                    return literal(x * y);
+                }
+                default -> {
+                    if (y != 0) {
+                        return literal(x / y);
+                    }
+                    return rebuild(infix, left, right);
+                }
+            }
+        }
+        if (type(left) == ObjectType.INTEGER && right instanceof IntegerLiteral b) {
+            var y = b.getValue();
+            if (y == 0 && (operator == TokenType.PLUS || operator == TokenType.MINUS)
+                    || y == 1 && (operator == TokenType.ASTERISK || operator == TokenType.SLASH)) {
+                return left;
+            }
+            // an operand of another type would fail with the other operator in its message
+            if (left instanceof InfixExpression inner && inner.getRight() instanceof IntegerLiteral c
+                    && type(inner.getLeft()) == ObjectType.INTEGER) {
+                var innerOperator = inner.getToken().getType();
+                if (additive(operator) && additive(innerOperator)) {
+                    var sum = signed(innerOperator, c.getValue()) + signed(operator, y);
+                    return sum == 0 ? inner.getLeft() : arithmetic(TokenType.PLUS, inner.getLeft(), sum);
+                }
+                if (operator == TokenType.ASTERISK && innerOperator == TokenType.ASTERISK) {
+                    var product = c.getValue() * y;
+                    return product == 1 ? inner.getLeft() : arithmetic(TokenType.ASTERISK, inner.getLeft(), product);
+                }
+            }
+        }
+        if (left instanceof IntegerLiteral a && type(right) == ObjectType.INTEGER
+                && (a.getValue() == 0 && operator == TokenType.PLUS || a.getValue() == 1 && operator == TokenType.ASTERISK)) {
+            return right;
+        }
+        return rebuild(infix, left, right);
+    }
+
+    private static boolean additive(TokenType operator) {
+        return operator == TokenType.PLUS || operator == TokenType.MINUS;
+    }
+
+    private static long signed(TokenType operator, long value) {
+        return operator == TokenType.MINUS ? -value : value;
+    }
+
+    private Expression prefix(PrefixExpression prefix, Expression right) {
+        var operator = prefix.getToken().getType();
+        if (operator == TokenType.MINUS) {
+            if (right instanceof IntegerLiteral lit) {
+                return literal(-lit.getValue());
+            }
+            if (right instanceof PrefixExpression inner && inner.getToken().getType() == TokenType.MINUS
+                    && type(inner.getRight()) == ObjectType.INTEGER) {
+                return inner.getRight();
+            }
+        } else if (operator == TokenType.BANG && right instanceof PrefixExpression inner
+                && inner.getToken().getType() == TokenType.BANG && type(inner.getRight()) == ObjectType.BOOLEAN) {
+            return inner.getRight();
+        }
+        return right == prefix.getRight() ? prefix : new PrefixExpression(prefix.getToken(), prefix.getOperator(), right);
+    }
+
+    /**
+     * The type of an expression's value if it does not fail, or
+     * {@code null} if unknown.
+     */
+    private ObjectType type(Expression expression) {
+        if (expression instanceof IntegerLiteral) {
+            return ObjectType.INTEGER;
+        } else if (expression instanceof InfixExpression infix) {
+            return switch (infix.getToken().getType()) {
+                case PLUS, MINUS, ASTERISK, SLASH -> ObjectType.INTEGER;
+                default -> ObjectType.BOOLEAN;
+            };
+        } else if (expression instanceof PrefixExpression prefix) {
+            return prefix.getToken().getType() == TokenType.MINUS ? ObjectType.INTEGER : ObjectType.BOOLEAN;
+        } else if (expression instanceof Identifier ident) {
+            return types.get(ident.getValue());
+        } else if (expression == null) {
+            return ObjectType.NULL;
+        }
+        return null; // an ErrorNode
+    }
+
+    private static Expression rebuild(InfixExpression infix, Expression left, Expression right) {
+        if (left == infix.getLeft() && right == infix.getRight()) {
+            return infix;
+        }
+        return new InfixExpression(infix.getToken(), left, infix.getOperator(), right);
+    }
+
+    private static InfixExpression arithmetic(TokenType operator, Expression left, long right) {
+        return new InfixExpression(Token.of(operator), left, operator.literal(), literal(right));
+    }
+
+    private static IntegerLiteral literal(long value) {
+        return new IntegerLiteral(new Token(TokenType.INT, Long.toString(value)), value);
+    }
+
+    private void schedule(Expression expression, boolean operandsDone) {
+        if (pendingCount == pending.length) {
+            pending = Arrays.copyOf(pending, pendingCount * 2);
+            expanded = Arrays.copyOf(expanded, pendingCount * 2);
+        }
+        pending[pendingCount] = expression;
+        expanded[pendingCount] = operandsDone;
+        pendingCount++;
+    }
+
+    private void push(Expression expression) {
+        if (resultCount == results.length) {
+            results = Arrays.copyOf(results, resultCount * 2);
+        }
+        results[resultCount++] = expression;
+    }
+
+    private Expression pop() {
+        var expression = results[--resultCount];
+        results[resultCount] = null;
+        return expression;
+    }
+}
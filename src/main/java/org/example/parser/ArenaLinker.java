@@ -0,0 +1,153 @@
+package org.example.parser;
+
+import java.util.Arrays;
+import org.example.ast.AstArena;
+import org.example.ast.ErrorNode;
+import org.example.ast.Expression;
+import org.example.ast.ExpressionStatement;
+import org.example.ast.Identifier;
+import org.example.ast.InfixExpression;
+import org.example.ast.IntegerLiteral;
+import org.example.ast.LetStatement;
+import org.example.ast.PrefixExpression;
+import org.example.ast.ReturnStatement;
+import org.example.ast.Statement;
+import org.example.lexer.TokenBuffer;
+import org.example.token.TokenType;
+
+/**
+ * Copies statements the {@link Parser} built from a {@link TokenBuffer} into
+ * an {@link AstArena} whose nodes hold the index of their token, which
+ * {@link AstArena#of(org.example.ast.Program)} cannot know.
+ *
+ * <p>The indices are recovered by walking the tokens alongside the tree, in
+ * source order, from the index the statement started at. Only the grammar's
+ * punctuation lies between the tokens of two nodes that follow each other:
+ * {@code (} before an operand and {@code )} before an infix operator, the
+ * {@code =} of a {@code let}, and {@code ;} after the statement. Tokens the
+ * parser skipped to recover from an error all come after the statement's last
+ * node. Like {@code AstArena.of}, the walk uses an explicit stack.
+ */
+final class ArenaLinker {
+    private final AstArena arena;
+    private final TokenBuffer tokens;
+    private int next; // index of the first token not yet linked
+
+    // expressions waiting to be added, their progress and their token
+    private Expression[] pending = new Expression[16];
+    private int[] phases = new int[16];
+    private int[] pendingTokens = new int[16];
+    private int pendingCount;
+    // nodes of added operands
+    private int[] results = new int[16];
+    private int resultCount;
+
+    private static final int START = 0;
+    private static final int LEFT_DONE = 1; // of an INFIX, or the operand of a PREFIX
+    private static final int RIGHT_DONE = 2;
+
+    ArenaLinker(AstArena arena, TokenBuffer tokens) {
+        this.arena = arena;
+        this.tokens = tokens;
+    }
+
+    /**
+     * Adds a top-level statement that starts at token {@code start} and
+     * returns its node.
+     */
+    int add(Statement statement, int start) {
+        if (statement instanceof ErrorNode error) {
+            // only a let statement fails as a whole, at its first token
+            return error(start, error);
+        } else if (statement instanceof LetStatement let) {
+            var name = arena.identifier(start + 1, tokens.symbol(start + 1));
+            next = start + 3;
+            return arena.let(start, name, add(let.getValue()));
+        } else if (statement instanceof ReturnStatement ret) {
+            next = start + 1;
+            return arena.returns(start, add(ret.getReturnValue()));
+        } else if (statement instanceof ExpressionStatement stmt) {
+            next = start;
+            return arena.expression(start, stmt.getToken().getType(), add(stmt.getExpression()));
+        }
+        throw new IllegalArgumentException("unknown statement " + statement.getClass().getSimpleName());
+    }
+
+    private int add(Expression root) {
+        schedule(root, START, -1);
+        while (pendingCount > 0) {
+            pendingCount--;
+            var expression = pending[pendingCount];
+            var phase = phases[pendingCount];
+            var token = pendingTokens[pendingCount];
+            pending[pendingCount] = null;
+
+            if (expression == null) {
+                push(-1);
+                continue;
+            }
+            if (phase == START) {
+                skip(TokenType.LPAREN);
+            }
+            if (expression instanceof ErrorNode error) {
+                push(error(next++, error));
+            } else if (expression instanceof Identifier) {
+                push(arena.identifier(next, tokens.symbol(next++)));
+            } else if (expression instanceof IntegerLiteral lit) {
+                push(arena.integer(next++, lit.getValue()));
+            } else if (expression instanceof PrefixExpression prefix) {
+                if (phase == START) {
+                    schedule(prefix, LEFT_DONE, next++);
+                    schedule(prefix.getRight(), START, -1);
+                } else {
+                    push(arena.prefix(token, prefix.getToken().getType(), results[--resultCount]));
+                }
+            } else if (expression instanceof InfixExpression infix) {
+                if (phase == START) {
+                    schedule(infix, LEFT_DONE, -1);
+                    schedule(infix.getLeft(), START, -1);
+                } else if (phase == LEFT_DONE) {
+                    skip(TokenType.RPAREN);
+                    schedule(infix, RIGHT_DONE, next++);
+                    schedule(infix.getRight(), START, -1);
+                } else {
+                    var right = results[--resultCount];
+                    var left = results[--resultCount];
+                    push(arena.infix(token, infix.getToken().getType(), left, right));
+                }
+            } else {
+                throw new IllegalArgumentException("unknown expression " + expression.getClass().getSimpleName());
+            }
+        }
+        return results[--resultCount];
+    }
+
+    private int error(int token, ErrorNode error) {
+        return arena.error(token, error.getToken().getType(), error.getToken().getLiteral(), error.getMessage());
+    }
+
+    private void skip(TokenType punctuation) {
+        while (tokens.kind(next) == punctuation) {
+            next++;
+        }
+    }
+
+    private void schedule(Expression expression, int phase, int token) {
+        if (pendingCount == pending.length) {
+            pending = Arrays.copyOf(pending, pendingCount * 2);
+            phases = Arrays.copyOf(phases, pendingCount * 2);
+            pendingTokens = Arrays.copyOf(pendingTokens, pendingCount * 2);
+        }
+        pending[pendingCount] = expression;
+        phases[pendingCount] = phase;
+        pendingTokens[pendingCount] = token;
+        pendingCount++;
+    }
+
+    private void push(int node) {
+        if (resultCount == results.length) {
+            results = Arrays.copyOf(results, resultCount * 2);
+        }
+        results[resultCount++] = node;
+    }
+}
@@ -0,0 +1,208 @@
+package org.example.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Value;
+import org.example.ast.Program;
+import org.example.ast.Statement;
+import org.example.lexer.LineIndex;
+import org.example.lexer.TokenBuffer;
+
+/**
+ * Keeps the {@link Program} of a document current as the text is edited,
+ * reparsing only the top-level statements an edit touches. Untouched
+ * statements are kept by identity.
+ *
+ * <p>An edit re-lexes the changed window of the {@link TokenBuffer}, then
+ * reparses from the statement holding the token before the change. It stops
+ * as soon as a new statement starts exactly where an old one started past the
+ * change: a statement's parse only depends on its own tokens and the one
+ * after it, so the old statements from there on are still valid. Statements
+ * live in a gap buffer keyed by token index, so an edit costs the reparsed
+ * statements plus the distance from the previous edit, not the document size.
+ *
+ * <p>Errors carry their {@code line:column} like those of a fresh
+ * {@link Parser}, from the token buffer's line index, which edits keep
+ * current. A kept statement whose errors an edit moved to another line or
+ * column is reparsed so that its messages match. An edit that adds or removes
+ * lines thus also reparses the statements with errors after it.
+ *
+ * <p>{@link #program()} is a read-only view of the current statements, made
+ * in constant time and valid until the next edit that changes them; reading
+ * it after one throws {@link java.util.ConcurrentModificationException}. The
+ * statements themselves are immutable and shared across edits, so copying
+ * the list keeps a snapshot.
+ */
+public final class IncrementalParser {
+    private final TokenBuffer tokens;
+    private final StatementBuffer statements;
+    private Program program; // view of statements, made on first use after an edit
+
+    /**
+     * An error in a statement, at a token index relative to the statement
+     * start, with the {@link LineIndex#position position} its message names.
+     */
+    @Value
+    static class Diagnostic {
+        int token;
+        long position;
+        String message;
+    }
+
+    /**
+     * Describes a reparse: statements from index {@code first} on were
+     * replaced, {@code removed} old ones by {@code inserted} new ones. Some of
+     * the inserted may be old ones kept, passed over while relocating errors.
+     */
+    @Value
+    public static class Change {
+        int first;
+        int removed;
+        int inserted;
+    }
+
+    public IncrementalParser(TokenBuffer tokens) {
+        this.tokens = tokens;
+        this.statements = new StatementBuffer(tokens.size() / 8);
+        reparse(0, 0);
+    }
+
+    /**
+     * The current statements, as a view that fails once an edit changed them.
+     * Use {@code new Program(program().getStatements())} to keep them.
+     */
+    public Program program() {
+        if (program == null) {
+            program = Program.view(statements.subList(0, statements.size()));
+        }
+        return program;
+    }
+
+    public TokenBuffer tokens() {
+        return tokens;
+    }
+
+    /**
+     * Applies an edit made to the text, see {@link TokenBuffer#edit}, and
+     * reparses the statements it touched.
+     */
+    public Change edit(CharSequence newText, int offset, int removedLength, int insertedLength) {
+        var oldCount = tokens.size();
+        var first = tokens.indexAt(offset);
+        var from = statements.indexOf(Math.max(first - 1, 0), oldCount);
+        // before the change, so the edit does not move it
+        var start = from < statements.size() ? statements.start(from, oldCount) : 0;
+        statements.moveGap(from, oldCount);
+
+        var change = tokens.edit(newText, offset, removedLength, insertedLength);
+        var count = statements.size();
+        var inserted = reparse(start, change.getFirst() + change.getInserted());
+        inserted += relocate();
+        program = null;
+        return new Change(from, count + inserted - statements.size(), inserted);
+    }
+
+    /**
+     * Parses statements into the gap from token {@code start} until one lines
+     * up with an old statement starting at or after token {@code changeEnd},
+     * dropping the old statements passed over. Returns the number of
+     * statements parsed.
+     */
+    private int reparse(int start, int changeEnd) {
+        var tokenCount = tokens.size();
+        var parser = new Parser(tokens, start, tokenCount - 1);
+        var parsed = 0;
+        while (!parser.atEnd()) {
+            var errorCount = parser.getErrors().size();
+            var statementStart = parser.position();
+            var stmt = parser.nextStatement();
+            statements.append(stmt, statementStart, diagnostics(parser, errorCount, statementStart));
+            parsed++;
+
+            var next = parser.position();
+            while (statements.hasNext()) {
+                var old = statements.nextStart(tokenCount);
+                if (old < changeEnd || old < next) {
+                    statements.dropNext();
+                } else if (old == next) {
+                    return parsed;
+                } else {
+                    break;
+                }
+            }
+        }
+        while (statements.hasNext()) {
+            statements.dropNext();
+        }
+        return parsed;
+    }
+
+    /**
+     * Reparses the statements after the gap whose errors are no longer where
+     * their messages say, up to the first statement with errors that did not
+     * move: an edit shifts either every later line or only the rest of its
+     * own line, so no error after that one moved either. Returns the number
+     * of statements passed over.
+     */
+    private int relocate() {
+        var tokenCount = tokens.size();
+        var passed = 0;
+        while (statements.hasErrorsAfterGap()) {
+            var diagnostics = statements.nextDiagnostics();
+            var start = statements.nextStart(tokenCount);
+            if (diagnostics == null) {
+                statements.skipNext(tokenCount);
+            } else if (moved(diagnostics, start)) {
+                var parser = new Parser(tokens, start, tokenCount - 1);
+                var stmt = parser.nextStatement();
+                statements.dropNext();
+                statements.append(stmt, start, diagnostics(parser, 0, start));
+            } else {
+                break;
+            }
+            passed++;
+        }
+        return passed;
+    }
+
+    private boolean moved(List<Diagnostic> diagnostics, int statementStart) {
+        var lines = tokens.lines();
+        for (var diagnostic : diagnostics) {
+            if (lines.position(tokens.start(statementStart + diagnostic.getToken())) != diagnostic.getPosition()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<Diagnostic> diagnostics(Parser parser, int from, int statementStart) {
+        var errors = parser.getErrors();
+        if (errors.size() == from) {
+            return null;
+        }
+        var lines = tokens.lines();
+        var result = new ArrayList<Diagnostic>(errors.size() - from);
+        for (int i = from; i < errors.size(); i++) {
+            var index = parser.errorIndex(i);
+            result.add(new Diagnostic(index - statementStart, lines.position(tokens.start(index)), errors.get(i)));
+        }
+        return result;
+    }
+
+    /**
+     * The errors of the current text with their {@code line:column}, in
+     * source order. Unlike {@link #edit}, this walks all statements.
+     */
+    public List<String> errors() {
+        var result = new ArrayList<String>();
+        for (int i = 0; i < statements.size(); i++) {
+            var diagnostics = statements.diagnostics(i);
+            if (diagnostics != null) {
+                for (var diagnostic : diagnostics) {
+                    result.add(diagnostic.getMessage());
+                }
+            }
+        }
+        return result;
+    }
+}
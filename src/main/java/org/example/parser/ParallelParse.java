@@ -0,0 +1,116 @@
+package org.example.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import org.example.ast.Statement;
+import org.example.lexer.TokenBuffer;
+import org.example.token.TokenType;
+
+/**
+ * Parses runs of top-level statements on a {@link ForkJoinPool}, see
+ * {@link Parser#parseProgram(ForkJoinPool)}.
+ *
+ * <p>A pre-scan over the token kinds finds where segments may be cut: after a
+ * {@code ;} outside braces that is not followed by another {@code ;}. A
+ * statement never reaches past such a token, neither when it parses cleanly
+ * (a brace always ends an expression or fails it) nor when the parser
+ * recovers from an error, which skips to the same {@code ;} with the same
+ * brace counting. A run of {@code ;} stays in one segment because an
+ * expression statement swallows all of them. Each segment is then parsed on
+ * its own, and the results are concatenated in order.
+ */
+final class ParallelParse extends RecursiveAction {
+    static final int DEFAULT_SEGMENT_SIZE = 64 * 1024; // tokens
+    private static final long serialVersionUID = 1L;
+
+    private final TokenBuffer tokens;
+    private final int[] bounds;
+    private final List<Statement>[] statements;
+    private final List<String>[] errors;
+    private final int from;
+    private final int to;
+
+    private ParallelParse(TokenBuffer tokens, int[] bounds, List<Statement>[] statements, List<String>[] errors,
+            int from, int to) {
+        this.tokens = tokens;
+        this.bounds = bounds;
+        this.statements = statements;
+        this.errors = errors;
+        this.from = from;
+        this.to = to;
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<Statement> parse(TokenBuffer tokens, List<String> errors, ForkJoinPool pool, int segmentSize) {
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("segment size must be positive: " + segmentSize);
+        }
+        var bounds = boundaries(tokens, segmentSize);
+        var segments = bounds.length - 1;
+        if (segments == 1) {
+            var parser = new Parser(tokens);
+            var result = parser.parseStatements();
+            errors.addAll(parser.getErrors());
+            return result;
+        }
+        // built on demand otherwise, which must not race
+        tokens.lines();
+        var statements = (List<Statement>[]) new List<?>[segments];
+        var segmentErrors = (List<String>[]) new List<?>[segments];
+        pool.invoke(new ParallelParse(tokens, bounds, statements, segmentErrors, 0, segments));
+
+        var size = 0;
+        for (var part : statements) {
+            size += part.size();
+        }
+        var result = new ArrayList<Statement>(size);
+        for (int i = 0; i < segments; i++) {
+            result.addAll(statements[i]);
+            errors.addAll(segmentErrors[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Segment start indices followed by the index of the EOF token. Each
+     * segment holds at least {@code segmentSize} tokens except the last.
+     */
+    static int[] boundaries(TokenBuffer tokens, int segmentSize) {
+        var last = tokens.size() - 1;
+        var bounds = new ArrayList<Integer>();
+        bounds.add(0);
+        var depth = 0;
+        var next = segmentSize;
+        for (int i = 0; i < last; i++) {
+            switch (tokens.kind(i)) {
+                case LBRACE -> depth++;
+                case RBRACE -> depth = Math.max(0, depth - 1);
+                case SEMICOLON -> {
+                    if (depth == 0 && i + 1 >= next && i + 1 < last && tokens.kind(i + 1) != TokenType.SEMICOLON) {
+                        bounds.add(i + 1);
+                        next = i + 1 + segmentSize;
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+        bounds.add(last);
+        return bounds.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from == 1) {
+            var parser = new Parser(tokens, bounds[from], bounds[from + 1]);
+            statements[from] = parser.parseStatements();
+            errors[from] = parser.getErrors();
+            return;
+        }
+        var mid = (from + to) >>> 1;
+        invokeAll(new ParallelParse(tokens, bounds, statements, errors, from, mid),
+                new ParallelParse(tokens, bounds, statements, errors, mid, to));
+    }
+}
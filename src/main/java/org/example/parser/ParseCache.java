@@ -0,0 +1,241 @@
+package org.example.parser;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import org.example.ast.AstArena;
+import org.example.ast.NodeKind;
+import org.example.ast.Program;
+import org.example.ast.Statement;
+import org.example.lexer.Lexer;
+import org.example.lexer.TokenBuffer;
+import org.example.token.TokenType;
+
+/**
+ * Stores parse results in a directory, one file per distinct source text,
+ * named by the SHA-256 of the text. A file holds the parser's errors, the
+ * serialized {@link TokenBuffer} and the serialized {@link AstArena}; a hit
+ * maps it and reads the arena in place, without lexing or parsing the text.
+ * The object {@link Program} is only built when asked for. The arena's nodes
+ * hold the index of their token, so the program built from a hit takes its
+ * integer literals as written from the tokens and equals the one parsed on a
+ * miss.
+ *
+ * <p>Every file starts with {@link #VERSION}, derived from the grammar
+ * version, both serialization formats and the token and node kinds. A file
+ * written under any other version, or one that does not read back, is a miss
+ * and is overwritten by the fresh parse.
+ *
+ * <p>Files are written to a temporary name and then renamed over the entry,
+ * so concurrent processes never see half a file and mappings of an older
+ * file stay valid.
+ */
+public final class ParseCache {
+    private static final int MAGIC = 0x43504E4D; // "MNPC" in little-endian order
+    private static final String SUFFIX = ".ast";
+    private static final int LAYOUT = 2; // arena nodes linked to their tokens
+
+    /**
+     * Identifies the layout and meaning of cache files.
+     */
+    public static final int VERSION = Arrays.hashCode(new Object[]{LAYOUT, Parser.GRAMMAR_VERSION,
+            TokenBuffer.FORMAT_VERSION, AstArena.FORMAT_VERSION,
+            Arrays.toString(TokenType.values()), Arrays.toString(NodeKind.values())});
+
+    private final Path directory;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stale = new LongAdder();
+
+    public ParseCache(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    /**
+     * The result of parsing one source text, fresh or from the cache.
+     */
+    public static final class Entry {
+        private final TokenBuffer tokens;
+        private final AstArena arena;
+        private final List<String> errors;
+        private Program program;
+
+        private Entry(TokenBuffer tokens, AstArena arena, List<String> errors, Program program) {
+            this.tokens = tokens;
+            this.arena = arena;
+            this.errors = errors;
+            this.program = program;
+        }
+
+        public TokenBuffer tokens() {
+            return tokens;
+        }
+
+        public AstArena arena() {
+            return arena;
+        }
+
+        public List<String> errors() {
+            return errors;
+        }
+
+        /**
+         * The object AST, built from the arena and the tokens on first use
+         * after a hit.
+         */
+        public synchronized Program program() {
+            if (program == null) {
+                program = arena.toProgram(tokens::literal);
+            }
+            return program;
+        }
+    }
+
+    /**
+     * Returns the parse of {@code source}: read from the cache when an entry
+     * of the current version exists, otherwise lexed, parsed and stored.
+     */
+    public Entry parse(CharSequence source) throws IOException {
+        var file = directory.resolve(key(source) + SUFFIX);
+        var cached = read(file, source);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        var tokens = TokenBuffer.of(new Lexer(source));
+        var parser = new Parser(tokens);
+        var statements = new ArrayList<Statement>();
+        var arena = new AstArena(tokens.symbols(), Math.max(16, tokens.size()));
+        var linker = new ArenaLinker(arena, tokens);
+        while (!parser.atEnd()) {
+            var start = parser.position();
+            var statement = parser.nextStatement();
+            statements.add(statement);
+            arena.addStatement(linker.add(statement, start));
+        }
+        var entry = new Entry(tokens, arena, parser.getErrors(), new Program(statements));
+        write(file, entry);
+        return entry;
+    }
+
+    /**
+     * Lookups answered from the cache.
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * Lookups that had to parse, including {@link #stale} ones.
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Misses that found a file of another version or one that did not read back.
+     */
+    public long stale() {
+        return stale.sum();
+    }
+
+    private Entry read(Path file, CharSequence source) throws IOException {
+        ByteBuffer bytes;
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        try {
+            bytes.order(ByteOrder.LITTLE_ENDIAN);
+            if (bytes.getInt() != MAGIC || bytes.getInt() != VERSION) {
+                stale.increment();
+                return null;
+            }
+            var errorCount = bytes.getInt();
+            var errors = new ArrayList<String>(errorCount);
+            for (int i = 0; i < errorCount; i++) {
+                var utf8 = new byte[bytes.getInt()];
+                bytes.get(utf8);
+                errors.add(new String(utf8, StandardCharsets.UTF_8));
+            }
+            var arena = AstArena.read(bytes);
+            var tokens = TokenBuffer.read(source, arena.symbols(), bytes);
+            return new Entry(tokens, arena, errors, null);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | BufferUnderflowException
+                 | NegativeArraySizeException e) {
+            // truncated or overwritten by something else
+            stale.increment();
+            return null;
+        }
+    }
+
+    /**
+     * Layout: magic, {@link #VERSION}, error count, each error as an int byte
+     * length and UTF-8 bytes, then the arena and the tokens.
+     */
+    private void write(Path file, Entry entry) throws IOException {
+        var errors = new ArrayList<byte[]>(entry.errors.size());
+        var size = 3 * Integer.BYTES + entry.arena.serializedSize() + entry.tokens.serializedSize();
+        for (var error : entry.errors) {
+            var utf8 = error.getBytes(StandardCharsets.UTF_8);
+            errors.add(utf8);
+            size += Integer.BYTES + utf8.length;
+        }
+
+        var temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (var channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                var out = channel.map(FileChannel.MapMode.READ_WRITE, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+                out.putInt(MAGIC).putInt(VERSION).putInt(errors.size());
+                for (var utf8 : errors) {
+                    out.putInt(utf8.length).put(utf8);
+                }
+                entry.arena.write(out);
+                entry.tokens.write(out);
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Hex SHA-256 of the text's chars, two little-endian bytes each.
+     */
+    static String key(CharSequence source) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every JDK provides SHA-256
+        }
+        var chunk = ByteBuffer.allocate(8192).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < source.length(); i++) {
+            if (!chunk.hasRemaining()) {
+                digest.update(chunk.flip());
+                chunk.clear();
+            }
+            chunk.putChar(source.charAt(i));
+        }
+        digest.update(chunk.flip());
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -1,12 +1,10 @@
 package org.example.parser;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
-import java.util.function.Supplier;
-import java.util.function.UnaryOperator;
+import java.util.concurrent.ForkJoinPool;
+import org.example.ast.ErrorNode;
 import org.example.ast.Expression;
 import org.example.ast.ExpressionStatement;
 import org.example.ast.Identifier;
@@ -18,9 +16,44 @@ import org.example.ast.Program;
 import org.example.ast.ReturnStatement;
 import org.example.ast.Statement;
 import org.example.lexer.Lexer;
+import org.example.lexer.TokenBuffer;
+import org.example.token.SymbolTable;
 import org.example.token.Token;
-
+import org.example.token.TokenType;
+
+/**
+ * Pratt parser over a {@link TokenBuffer}. Tokens are addressed by index, and
+ * a {@link Token} object is only built for tokens that end up in the AST.
+ *
+ * <p>A syntax error does not stop the parse. The failed expression or
+ * statement becomes an {@link ErrorNode}, and the parser skips ahead to the
+ * end of the statement: a {@code ;} outside braces, the {@code }} closing a
+ * block the statement opened, or the {@code let} or {@code return} starting
+ * the next one. One pass thus reports every error without a cascade of
+ * follow-on errors.
+ *
+ * <p>The operand, prefix operator and precedence tables are static arrays
+ * indexed by {@link TokenType#ordinal()}, shared by every parser, so
+ * constructing one costs no more than its fields.
+ *
+ * <p>Expressions are parsed without recursion: operators wait on an explicit
+ * stack until one that binds less tightly arrives, the same order of
+ * reduction as recursive Pratt parsing. Nesting depth costs heap, not Java
+ * stack, so generated code with thousands of nested operators or
+ * parentheses parses like any other.
+ *
+ * <p>A parser built on a {@link Lexer} pulls tokens from it in batches as the
+ * parse advances, and drops the tokens of statements already parsed. It holds
+ * the tokens of the statement being parsed rather than of the whole input, so
+ * a {@link Lexer#map mapped} file stays off the heap.
+ */
 public class Parser {
+    /**
+     * Changes whenever the same tokens would parse to a different tree or
+     * different errors, so that trees stored by a {@link ParseCache} go stale.
+     */
+    public static final int GRAMMAR_VERSION = 1;
+
     private enum Precedence {
         LOWEST,
         EQUALS,// ==
@@ -31,162 +64,447 @@ public class Parser {
         CALL, // myFunction(X)
     }
 
-    private Map<String, Precedence> precedences;
+    @FunctionalInterface
+    private interface OperandParseFn {
+        Expression parse(Parser parser);
+    }
+
+    private static final OperandParseFn[] OPERAND_PARSE_FNS = new OperandParseFn[TokenType.values().length];
+    private static final boolean[] PREFIX_OPERATORS = new boolean[TokenType.values().length];
+    private static final Precedence[] PRECEDENCES = new Precedence[TokenType.values().length]; // of infix operators
+
+    static {
+        Arrays.fill(PRECEDENCES, Precedence.LOWEST);
+
+        registerOperand(TokenType.IDENT, Parser::parseIdentifier);
+        registerOperand(TokenType.INT, Parser::parseIntegerLiteral);
+
+        PREFIX_OPERATORS[TokenType.BANG.ordinal()] = true;
+        PREFIX_OPERATORS[TokenType.MINUS.ordinal()] = true;
+
+        registerInfix(TokenType.EQ, Precedence.EQUALS);
+        registerInfix(TokenType.NOT_EQ, Precedence.EQUALS);
+        registerInfix(TokenType.LT, Precedence.LESSGREATER);
+        registerInfix(TokenType.GT, Precedence.LESSGREATER);
+        registerInfix(TokenType.PLUS, Precedence.SUM);
+        registerInfix(TokenType.MINUS, Precedence.SUM);
+        registerInfix(TokenType.SLASH, Precedence.PRODUCT);
+        registerInfix(TokenType.ASTERISK, Precedence.PRODUCT);
+    }
+
+    private static void registerOperand(TokenType tokenType, OperandParseFn operandParseFn) {
+        OPERAND_PARSE_FNS[tokenType.ordinal()] = operandParseFn;
+    }
 
-    private Lexer l;
+    private static void registerInfix(TokenType tokenType, Precedence precedence) {
+        PRECEDENCES[tokenType.ordinal()] = precedence;
+    }
+
+    // kinds of operator stack entries, in the low bits below the token index
+    private static final int PREFIX_OPERATOR = 0;
+    private static final int INFIX_OPERATOR = 1;
+    private static final int GROUP = 2;
+    private static final Expression[] NO_OPERANDS = {};
+    private static final int[] NO_OPERATORS = {};
+    private static final int BATCH = 1024; // tokens pulled from a lexer at a time
+
+    private TokenBuffer tokens;
+    private Lexer lexer; // while tokens are still being pulled from it
+    private int available; // number of tokens in tokens
+    private int discarded; // tokens dropped from the front of tokens
+    private SymbolTable symbols;
     private List<String> errors;
+    private List<Integer> errorIndices; // token index each error was found at
 
-    private Token curToken;
-    private Token peekToken;
+    private int position; // index of the current token in tokens
+    private int last; // index of the EOF token or of the token ending the segment, MAX_VALUE before EOF is pulled
 
-    private Map<String, Supplier<Expression>> prefixParseFns;
-    private Map<String, UnaryOperator<Expression>> infixParseFns;
+    private Expression[] operands; // expression stacks, shared by all expressions of the parse
+    private int operandCount;
+    private int[] operators; // token index << 2 | PREFIX_OPERATOR, INFIX_OPERATOR or GROUP
+    private int operatorCount;
 
     public Parser(Lexer l) {
-        this.l = l;
+        this(TokenBuffer.open(l));
+        this.lexer = l;
+        this.last = Integer.MAX_VALUE;
+        pull(0);
+    }
+
+    public Parser(TokenBuffer tokens) {
+        this.tokens = tokens;
+        this.symbols = tokens.symbols();
         this.errors = new ArrayList<>();
+        this.errorIndices = new ArrayList<>();
+        this.position = 0;
+        this.last = tokens.size() - 1;
+        this.available = tokens.size();
+        this.operands = NO_OPERANDS;
+        this.operators = NO_OPERATORS;
+    }
 
-        this.prefixParseFns = new HashMap<>();
-        registerPrefix(Token.IDENT, parseIdentifier);
-        registerPrefix(Token.INT, parseIntegerLiteral);
-        registerPrefix(Token.BANG, parsePrefixExpression);
-        registerPrefix(Token.MINUS, parsePrefixExpression);
-
-        this.infixParseFns = new HashMap<>();
-        registerInfix(Token.PLUS, parseInfixExpression);
-        registerInfix(Token.MINUS, parseInfixExpression);
-        registerInfix(Token.SLASH, parseInfixExpression);
-        registerInfix(Token.ASTERISK, parseInfixExpression);
-        registerInfix(Token.EQ, parseInfixExpression);
-        registerInfix(Token.NOT_EQ, parseInfixExpression);
-        registerInfix(Token.LT, parseInfixExpression);
-        registerInfix(Token.GT, parseInfixExpression);
-
-        precedences = new HashMap<>();
-        precedences.put(Token.EQ, Precedence.EQUALS);
-        precedences.put(Token.NOT_EQ, Precedence.EQUALS);
-        precedences.put(Token.LT, Precedence.LESSGREATER);
-        precedences.put(Token.GT, Precedence.LESSGREATER);
-        precedences.put(Token.PLUS, Precedence.SUM);
-        precedences.put(Token.MINUS, Precedence.SUM);
-        precedences.put(Token.SLASH, Precedence.PRODUCT);
-        precedences.put(Token.ASTERISK, Precedence.PRODUCT);
-
-        // Read two tokens, so curToken and peekToken are both set
-        nextToken();
-        nextToken();
+    /**
+     * Parses the statements in tokens {@code [from, to)}, reading the token at
+     * {@code to} as EOF. The range must start a statement and end right after
+     * one, see {@link ParallelParse#boundaries}.
+     */
+    Parser(TokenBuffer tokens, int from, int to) {
+        this(tokens);
+        this.position = from;
+        this.last = to;
     }
 
     private void nextToken() {
-        this.curToken = this.peekToken;
-        this.peekToken = this.l.nextToken();
+        if (this.position < this.last) {
+            this.position++;
+            if (this.position == this.available) {
+                pull(this.position);
+            }
+        }
+    }
+
+    /**
+     * Pulls tokens from the lexer until the one at {@code index} or EOF is in.
+     */
+    private void pull(int index) {
+        while (this.lexer != null && this.available <= index) {
+            if (this.tokens.pull(this.lexer, BATCH)) {
+                this.lexer = null;
+                this.last = this.tokens.size() - 1;
+            }
+            this.available = this.tokens.size();
+        }
+    }
+
+    /**
+     * Drops the tokens before the current one. Only valid between statements,
+     * when no operator refers back to them.
+     */
+    private void release() {
+        this.tokens.discard(this.position);
+        this.discarded += this.position;
+        this.available -= this.position;
+        this.position = 0;
+    }
+
+    private TokenType curType() {
+        return kind(this.position);
+    }
+
+    private TokenType peekType() {
+        return peekType(1);
+    }
+
+    /**
+     * The kind of the token {@code distance} places after the current one.
+     */
+    private TokenType peekType(int distance) {
+        return kind(Math.min(this.position + distance, this.last));
+    }
+
+    private TokenType kind(int index) {
+        if (index >= this.available) {
+            pull(index);
+        }
+        return index >= this.last ? TokenType.EOF : this.tokens.kind(index);
+    }
+
+    private Token curToken() {
+        return this.tokens.token(this.position);
+    }
+
+    private String curLiteral() {
+        return this.tokens.literal(this.position);
     }
 
     public Program parseProgram() {
-        var program = new Program();
+        return new Program(parseStatements());
+    }
+
+    /**
+     * Same as {@link #parseProgram()}, with runs of top-level statements
+     * parsed in parallel on {@code pool}. Statements and errors come out in
+     * source order, the same as from a sequential parse.
+     */
+    public Program parseProgram(ForkJoinPool pool) {
+        return parseProgram(pool, ParallelParse.DEFAULT_SEGMENT_SIZE);
+    }
+
+    Program parseProgram(ForkJoinPool pool, int segmentSize) {
+        pull(Integer.MAX_VALUE); // segments are cut from all the tokens
+        return new Program(ParallelParse.parse(this.tokens, this.errors, pool, segmentSize));
+    }
+
+    List<Statement> parseStatements() {
         var statements = new ArrayList<Statement>();
 
-        while (!Objects.equals(this.curToken.getType(), Token.EOF)) {
-            var stmt = parseStatement();
-            if (stmt != null) {
-                statements.add(stmt);
+        while (curType() != TokenType.EOF) {
+            statements.add(nextStatement());
+            if (this.lexer != null && this.position >= BATCH) {
+                release();
             }
-            this.nextToken();
         }
 
-        program.setStatements(statements);
-        return program;
+        return statements;
+    }
+
+    /**
+     * Parses the statement at the current token and moves to the token after it.
+     */
+    Statement nextStatement() {
+        var errorCount = this.errors.size();
+        var stmt = parseStatement();
+        if (this.errors.size() > errorCount) {
+            synchronize();
+        }
+        this.nextToken();
+        return stmt;
+    }
+
+    boolean atEnd() {
+        return curType() == TokenType.EOF;
+    }
+
+    int position() {
+        return this.discarded + this.position;
+    }
+
+    /**
+     * The index of the token error {@code error} was found at.
+     */
+    int errorIndex(int error) {
+        return this.errorIndices.get(error);
     }
 
     private Statement parseStatement() {
-        return switch (this.curToken.getType()) {
-            case Token.LET -> parseLetStatement();
-            case Token.RETURN -> parseReturnStatement();
+        return switch (curType()) {
+            case LET -> parseLetStatement();
+            case RETURN -> parseReturnStatement();
             default -> parseExpressionStatement();
         };
     }
 
-    private LetStatement parseLetStatement() {
-        var stmt = new LetStatement();
-        stmt.setToken(this.curToken);
+    private Statement parseLetStatement() {
+        var token = curToken();
 
-        if (!expectPeek(Token.IDENT)) {
-            return null;
+        if (!expectPeek(TokenType.IDENT)) {
+            return errorNode(token);
         }
 
-        stmt.setName(new Identifier(this.curToken, this.curToken.getLiteral()));
+        var name = newIdentifier();
 
-        if (!expectPeek(Token.ASSIGN)) {
-            return null;
+        if (!expectPeek(TokenType.ASSIGN)) {
+            return errorNode(token);
         }
 
-        while (!curTokenIs(Token.SEMICOLON)) {
+        nextToken();
+
+        var value = parseExpression();
+
+        if (peekTokenIs(TokenType.SEMICOLON)) {
             nextToken();
         }
 
-        return stmt;
+        return new LetStatement(token, name, value);
     }
 
     private Statement parseReturnStatement() {
-        var stmt = new ReturnStatement();
-        stmt.setToken(this.curToken);
+        var token = curToken();
 
         nextToken();
 
-        while (!curTokenIs(Token.SEMICOLON)) {
+        var returnValue = parseExpression();
+
+        if (peekTokenIs(TokenType.SEMICOLON)) {
             nextToken();
         }
 
-        return stmt;
+        return new ReturnStatement(token, returnValue);
     }
 
     private ExpressionStatement parseExpressionStatement() {
-        var stmt = new ExpressionStatement();
-        stmt.setToken(this.curToken);
-        stmt.setExpression(parseExpression(Precedence.LOWEST));
+        var token = curToken();
+        var expression = parseExpression();
 
-        while (peekTokenIs(Token.SEMICOLON)) {
+        while (peekTokenIs(TokenType.SEMICOLON)) {
             nextToken();
         }
 
-        return stmt;
+        return new ExpressionStatement(token, expression);
     }
 
-    private Expression parseExpression(Precedence precedence) {
-        var prefix = this.prefixParseFns.get(this.curToken.getType());
-        if (prefix == null) {
-            noPrefixParseFnError(this.curToken.getType());
-            return null;
+    /**
+     * Parses the expression starting at the current token and leaves its last
+     * token current.
+     */
+    private Expression parseExpression() {
+        var operatorBase = this.operatorCount;
+        operand:
+        while (true) {
+            // operand position: any prefix operators and opening parentheses, then an operand
+            while (true) {
+                var type = curType();
+                if (PREFIX_OPERATORS[type.ordinal()]) {
+                    pushOperator(PREFIX_OPERATOR);
+                } else if (type == TokenType.LPAREN) {
+                    pushOperator(GROUP);
+                } else {
+                    break;
+                }
+                nextToken();
+            }
+            var operand = OPERAND_PARSE_FNS[curType().ordinal()];
+            if (operand == null) {
+                noPrefixParseFnError(curType());
+                pushOperand(errorNode(curToken()));
+                return abandon(operatorBase);
+            }
+            pushOperand(operand.parse(this));
+
+            // operator position: infix operators and closing parentheses
+            while (true) {
+                var precedence = peekPrecedence();
+                if (precedence != Precedence.LOWEST) {
+                    reduce(operatorBase, precedence);
+                    nextToken();
+                    pushOperator(INFIX_OPERATOR);
+                    nextToken();
+                    continue operand;
+                }
+                reduce(operatorBase, Precedence.LOWEST);
+                if (this.operatorCount == operatorBase) {
+                    return popOperand();
+                }
+                // a group is still open
+                if (!expectPeek(TokenType.RPAREN)) {
+                    return abandon(operatorBase);
+                }
+                this.operatorCount--;
+            }
         }
-        var leftExp = prefix.get();
+    }
 
-        while (!peekTokenIs(Token.SEMICOLON) && precedence.compareTo(peekPrecedence()) < 0) {
-            var infix = infixParseFns.get(this.peekToken.getType());
-            if (infix == null) {
-                return leftExp;
+    /**
+     * Builds the nodes for the stacked operators that bind at least as tightly
+     * as {@code precedence}, down to {@code base} or the innermost open group.
+     */
+    private void reduce(int base, Precedence precedence) {
+        while (this.operatorCount > base) {
+            var operator = this.operators[this.operatorCount - 1];
+            var kind = operator & 3;
+            if (kind == GROUP) {
+                return;
+            }
+            var index = operator >>> 2;
+            var bound = kind == PREFIX_OPERATOR ? Precedence.PREFIX : PRECEDENCES[this.tokens.kind(index).ordinal()];
+            if (bound.compareTo(precedence) < 0) {
+                return;
             }
+            this.operatorCount--;
+            build(operator);
+        }
+    }
 
-            nextToken();
+    /**
+     * Builds what was parsed so far after an error, dropping open groups, so
+     * the statement keeps the well-formed part of the expression.
+     */
+    private Expression abandon(int base) {
+        while (this.operatorCount > base) {
+            var operator = this.operators[--this.operatorCount];
+            if ((operator & 3) != GROUP) {
+                build(operator);
+            }
+        }
+        return popOperand();
+    }
 
-            leftExp = infix.apply(leftExp);
+    private void build(int operator) {
+        var index = operator >>> 2;
+        var right = popOperand();
+        if ((operator & 3) == PREFIX_OPERATOR) {
+            pushOperand(new PrefixExpression(this.tokens.token(index), this.tokens.literal(index), right));
+        } else {
+            var left = popOperand();
+            pushOperand(new InfixExpression(this.tokens.token(index), left, this.tokens.literal(index), right));
         }
+    }
+
+    private void pushOperator(int kind) {
+        if (this.operatorCount == this.operators.length) {
+            this.operators = Arrays.copyOf(this.operators, Math.max(8, this.operatorCount * 2));
+        }
+        this.operators[this.operatorCount++] = this.position << 2 | kind;
+    }
+
+    private void pushOperand(Expression operand) {
+        if (this.operandCount == this.operands.length) {
+            this.operands = Arrays.copyOf(this.operands, Math.max(8, this.operandCount * 2));
+        }
+        this.operands[this.operandCount++] = operand;
+    }
 
-        return leftExp;
+    private Expression popOperand() {
+        var operand = this.operands[--this.operandCount];
+        this.operands[this.operandCount] = null;
+        return operand;
     }
 
-    private void noPrefixParseFnError(String type) {
-        this.errors.add("no prefix parse function for " + type + " found");
+    private void noPrefixParseFnError(TokenType type) {
+        error(this.position, "no prefix parse function for " + type + " found");
     }
 
-    private boolean curTokenIs(String tokenType) {
-        return Objects.equals(this.curToken.getType(), tokenType);
+    /**
+     * Skips to the last token of the current statement: a {@code ;} outside
+     * braces opened since the current token, the {@code }} closing them (and
+     * a {@code ;} right after it), or the token before a {@code let} or
+     * {@code return} outside braces. Stops at EOF.
+     */
+    private void synchronize() {
+        var depth = 0;
+        while (!curTokenIs(TokenType.EOF)) {
+            switch (curType()) {
+                case LBRACE -> depth++;
+                case RBRACE -> {
+                    if (depth == 1) {
+                        if (peekTokenIs(TokenType.SEMICOLON)) {
+                            nextToken();
+                        }
+                        return;
+                    }
+                    depth = Math.max(0, depth - 1);
+                }
+                case SEMICOLON -> {
+                    if (depth == 0) {
+                        return;
+                    }
+                }
+                default -> {
+                }
+            }
+            if (depth == 0 && (peekTokenIs(TokenType.LET) || peekTokenIs(TokenType.RETURN))) {
+                return;
+            }
+            nextToken();
+        }
+    }
+
+    /**
+     * An error node for the error just reported.
+     */
+    private ErrorNode errorNode(Token token) {
+        return new ErrorNode(token, this.errors.get(this.errors.size() - 1));
+    }
+
+    private boolean curTokenIs(TokenType tokenType) {
+        return curType() == tokenType;
     }
 
-    private boolean peekTokenIs(String tokenType) {
-        return Objects.equals(this.peekToken.getType(), tokenType);
+    private boolean peekTokenIs(TokenType tokenType) {
+        return peekType() == tokenType;
     }
 
-    private boolean expectPeek(String tokenType) {
+    private boolean expectPeek(TokenType tokenType) {
         if (peekTokenIs(tokenType)) {
             nextToken();
             return true;
@@ -200,72 +518,49 @@ public class Parser {
         return errors;
     }
 
-    private void peekError(String tokenType) {
-        this.errors.add("expected next token to be " + tokenType + ", got " + this.peekToken.getType() + " instead");
+    /**
+     * The table the {@link Identifier#getSymbol() symbols} of the parsed program refer to.
+     */
+    public SymbolTable getSymbols() {
+        return symbols;
     }
 
-    private void registerPrefix(String tokenType, Supplier<Expression> prefixParseFn) {
-        this.prefixParseFns.put(tokenType, prefixParseFn);
+    private void peekError(TokenType tokenType) {
+        error(Math.min(this.position + 1, this.last), "expected next token to be "
+                + tokenType + ", got " + peekType() + " instead");
     }
 
-    private void registerInfix(String tokenType, UnaryOperator<Expression> infixParseFn) {
-        this.infixParseFns.put(tokenType, infixParseFn);
+    private void error(int index, String message) {
+        this.errors.add(location(index) + message);
+        this.errorIndices.add(this.discarded + index);
     }
 
-    private Supplier<Expression> parseIdentifier = () -> new Identifier(this.curToken, this.curToken.getLiteral());
-
-    private Supplier<Expression> parseIntegerLiteral = () -> {
-        var lit = new IntegerLiteral();
-        lit.setToken(this.curToken);
-
-        try {
-            var value = Long.parseLong(this.curToken.getLiteral());
-            lit.setValue(value);
-        } catch (Exception ex) {
-            this.errors.add("could not parse " + this.curToken.getLiteral() + " as integer");
-            return null;
-        }
-        return lit;
-    };
-
-    private Supplier<Expression> parsePrefixExpression = () -> {
-        var exp = new PrefixExpression();
-        exp.setToken(this.curToken);
-        exp.setOperator(this.curToken.getLiteral());
-
-        nextToken();
-
-        exp.setRight(parseExpression(Precedence.PREFIX));
-
-        return exp;
-    };
+    private String location(int index) {
+        return this.tokens.lines().format(this.tokens.start(index)) + ": ";
+    }
 
-    private UnaryOperator<Expression> parseInfixExpression = left -> {
-        var expression = new InfixExpression();
-        expression.setToken(this.curToken);
-        expression.setOperator(this.curToken.getLiteral());
-        expression.setLeft(left);
+    private Expression parseIdentifier() {
+        return newIdentifier();
+    }
 
-        var precedence = curPrecedence();
-        nextToken();
-        expression.setRight(parseExpression(precedence));
+    private Identifier newIdentifier() {
+        var symbol = this.tokens.symbol(this.position);
+        var name = this.symbols.name(symbol);
+        return new Identifier(new Token(TokenType.IDENT, name), name, symbol);
+    }
 
-        return expression;
-    };
+    private Expression parseIntegerLiteral() {
+        var token = curToken();
 
-    private Precedence peekPrecedence() {
-        var type = this.peekToken.getType();
-        if (precedences.containsKey(type)) {
-            return precedences.get(type);
+        try {
+            return new IntegerLiteral(token, Long.parseLong(token.getLiteral()));
+        } catch (Exception ex) {
+            error(this.position, "could not parse " + curLiteral() + " as integer");
+            return errorNode(token);
         }
-        return Precedence.LOWEST;
     }
 
-    private Precedence curPrecedence() {
-        var type = this.curToken.getType();
-        if (precedences.containsKey(type)) {
-            return precedences.get(type);
-        }
-        return Precedence.LOWEST;
+    private Precedence peekPrecedence() {
+        return PRECEDENCES[peekType().ordinal()];
     }
 }
@@ -0,0 +1,150 @@
+package org.example.parser;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.Value;
+import org.example.ast.Program;
+import org.example.lexer.TokenBuffer;
+
+/**
+ * Keeps the parses of recently seen source texts in memory, up to a budget
+ * of bytes, so that a snippet sent again is not lexed and parsed again.
+ *
+ * <p>Programs are immutable, so one entry is handed to every thread asking
+ * for the same text, without a copy.
+ *
+ * <p>Lookups read a {@link ConcurrentHashMap} and set the entry's referenced
+ * bit, nothing more. Once the entries outgrow the budget, whichever thread
+ * gets there first evicts with the CLOCK (second chance) policy, an
+ * approximation of LRU: entries are visited in insertion order, a referenced
+ * one has its bit cleared and goes to the back, and an unreferenced one is
+ * dropped. Other threads never wait for it. Two threads missing the same
+ * text at once both parse it and the first to finish is kept.
+ */
+public final class ProgramCache {
+    private final long capacity;
+    private final ConcurrentHashMap<String, Slot> slots = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Slot> clock = new ConcurrentLinkedQueue<>();
+    private final AtomicLong weight = new AtomicLong();
+    private final ReentrantLock evicting = new ReentrantLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // estimated heap bytes of the AST built per token, about one 48 byte node
+    private static final long BYTES_PER_TOKEN = 48;
+
+    /**
+     * @param capacity the most bytes of sources and estimated ASTs to keep
+     */
+    public ProgramCache(long capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * The parse of one source text, shared by all callers asking for it.
+     */
+    @Value
+    public static class Parsed {
+        Program program;
+        List<String> errors;
+    }
+
+    private static final class Slot {
+        private final String source;
+        private final Parsed parsed;
+        private final long weight;
+        private volatile boolean referenced;
+
+        Slot(String source, Parsed parsed, long weight) {
+            this.source = source;
+            this.parsed = parsed;
+            this.weight = weight;
+        }
+    }
+
+    public Parsed get(CharSequence source) {
+        var key = source.toString();
+        var slot = slots.get(key);
+        if (slot != null) {
+            if (!slot.referenced) {
+                slot.referenced = true;
+            }
+            hits.increment();
+            return slot.parsed;
+        }
+        misses.increment();
+
+        var tokens = TokenBuffer.lex(key);
+        var parser = new Parser(tokens);
+        var parsed = new Parsed(parser.parseProgram(), List.copyOf(parser.getErrors()));
+        var fresh = new Slot(key, parsed, 2L * key.length() + BYTES_PER_TOKEN * tokens.size());
+        var raced = slots.putIfAbsent(key, fresh);
+        if (raced != null) {
+            return raced.parsed;
+        }
+        clock.add(fresh);
+        if (weight.addAndGet(fresh.weight) > capacity) {
+            evict();
+        }
+        return parsed;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * The number of cached texts.
+     */
+    public int size() {
+        return slots.size();
+    }
+
+    /**
+     * The bytes the cached texts and ASTs are estimated to take up, as counted against the capacity.
+     */
+    public long weight() {
+        return weight.get();
+    }
+
+    private void evict() {
+        // a thread that found the lock taken may have added weight after the
+        // holder's last check, so the holder checks again once it lets go
+        while (weight.get() > capacity && evicting.tryLock()) {
+            try {
+                while (weight.get() > capacity) {
+                    var slot = clock.poll();
+                    if (slot == null) {
+                        return;
+                    }
+                    if (slot.referenced) {
+                        slot.referenced = false;
+                        clock.add(slot);
+                        continue;
+                    }
+                    slots.remove(slot.source, slot);
+                    weight.addAndGet(-slot.weight);
+                    evictions.increment();
+                }
+            } finally {
+                evicting.unlock();
+            }
+        }
+    }
+}
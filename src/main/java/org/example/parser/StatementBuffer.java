@@ -0,0 +1,195 @@
+package org.example.parser;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import org.example.ast.Statement;
+
+/**
+ * The top-level statements of an {@link IncrementalParser} with the token
+ * index each starts at and the errors it produced, in a gap buffer like the
+ * one of {@link org.example.lexer.TokenBuffer}: statements after the gap
+ * store their distance from the end of the tokens, which an edit in front of
+ * them does not change.
+ *
+ * <p>The list view is read-only and serves as {@link org.example.ast.Program}'s
+ * statements. Dropping or inserting a statement counts as a structural
+ * modification, so a {@link #subList} taken before fails fast afterwards.
+ */
+final class StatementBuffer extends AbstractList<Statement> implements RandomAccess {
+    private Statement[] statements;
+    private int[] starts; // token index before the gap, distance from the token count after it
+    private List<IncrementalParser.Diagnostic>[] diagnostics; // null for statements without errors
+    private int gapStart;
+    private int gapEnd;
+    private int errorsAfterGap; // statements after the gap with diagnostics
+
+    @SuppressWarnings("unchecked")
+    StatementBuffer(int capacity) {
+        capacity = Math.max(16, capacity);
+        this.statements = new Statement[capacity];
+        this.starts = new int[capacity];
+        this.diagnostics = (List<IncrementalParser.Diagnostic>[]) new List<?>[capacity];
+        this.gapStart = 0;
+        this.gapEnd = capacity;
+    }
+
+    @Override
+    public Statement get(int index) {
+        return statements[physical(index)];
+    }
+
+    @Override
+    public int size() {
+        return statements.length - (gapEnd - gapStart);
+    }
+
+    /**
+     * The token index of statement {@code index}, given the current number of tokens.
+     */
+    int start(int index, int tokenCount) {
+        var i = physical(index);
+        return i < gapStart ? starts[i] : tokenCount - starts[i];
+    }
+
+    List<IncrementalParser.Diagnostic> diagnostics(int index) {
+        return diagnostics[physical(index)];
+    }
+
+    /**
+     * Index of the last statement starting at or before token {@code token}, or 0.
+     */
+    int indexOf(int token, int tokenCount) {
+        int lo = 0;
+        int hi = size() - 1;
+        while (lo < hi) {
+            var mid = (lo + hi + 1) >>> 1;
+            if (start(mid, tokenCount) <= token) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return Math.max(lo, 0);
+    }
+
+    /**
+     * Moves the gap in front of statement {@code index}.
+     */
+    void moveGap(int index, int tokenCount) {
+        while (gapStart > index) {
+            gapStart--;
+            gapEnd--;
+            move(gapStart, gapEnd);
+            starts[gapEnd] = tokenCount - starts[gapEnd];
+            if (diagnostics[gapEnd] != null) {
+                errorsAfterGap++;
+            }
+        }
+        while (gapStart < index) {
+            if (diagnostics[gapEnd] != null) {
+                errorsAfterGap--;
+            }
+            move(gapEnd, gapStart);
+            starts[gapStart] = tokenCount - starts[gapStart];
+            gapStart++;
+            gapEnd++;
+        }
+    }
+
+    private void move(int from, int to) {
+        statements[to] = statements[from];
+        starts[to] = starts[from];
+        diagnostics[to] = diagnostics[from];
+        statements[from] = null;
+        diagnostics[from] = null;
+    }
+
+    /**
+     * Whether a statement follows the gap.
+     */
+    boolean hasNext() {
+        return gapEnd < statements.length;
+    }
+
+    /**
+     * Start of the statement right after the gap, given the current number of tokens.
+     */
+    int nextStart(int tokenCount) {
+        return tokenCount - starts[gapEnd];
+    }
+
+    /**
+     * Whether a statement with errors follows the gap.
+     */
+    boolean hasErrorsAfterGap() {
+        return errorsAfterGap > 0;
+    }
+
+    /**
+     * The errors of the statement right after the gap, or null.
+     */
+    List<IncrementalParser.Diagnostic> nextDiagnostics() {
+        return diagnostics[gapEnd];
+    }
+
+    /**
+     * Moves the statement right after the gap in front of it.
+     */
+    void skipNext(int tokenCount) {
+        moveGap(gapStart + 1, tokenCount);
+    }
+
+    /**
+     * Drops the statement right after the gap.
+     */
+    void dropNext() {
+        if (diagnostics[gapEnd] != null) {
+            errorsAfterGap--;
+        }
+        statements[gapEnd] = null;
+        diagnostics[gapEnd] = null;
+        gapEnd++;
+        modCount++;
+    }
+
+    /**
+     * Inserts a statement at the gap.
+     */
+    void append(Statement statement, int start, List<IncrementalParser.Diagnostic> errors) {
+        if (gapStart == gapEnd) {
+            grow();
+        }
+        statements[gapStart] = statement;
+        starts[gapStart] = start;
+        diagnostics[gapStart] = errors;
+        gapStart++;
+        modCount++;
+    }
+
+    private void grow() {
+        var capacity = statements.length;
+        var newCapacity = capacity * 2;
+        var tail = capacity - gapEnd;
+        var newGapEnd = newCapacity - tail;
+
+        var newStatements = Arrays.copyOf(statements, newCapacity);
+        var newStarts = Arrays.copyOf(starts, newCapacity);
+        var newDiagnostics = Arrays.copyOf(diagnostics, newCapacity);
+        System.arraycopy(statements, gapEnd, newStatements, newGapEnd, tail);
+        System.arraycopy(starts, gapEnd, newStarts, newGapEnd, tail);
+        System.arraycopy(diagnostics, gapEnd, newDiagnostics, newGapEnd, tail);
+        Arrays.fill(newStatements, gapEnd, newGapEnd, null);
+        Arrays.fill(newDiagnostics, gapEnd, newGapEnd, null);
+
+        this.statements = newStatements;
+        this.starts = newStarts;
+        this.diagnostics = newDiagnostics;
+        this.gapEnd = newGapEnd;
+    }
+
+    private int physical(int index) {
+        return index < gapStart ? index : index + (gapEnd - gapStart);
+    }
+}
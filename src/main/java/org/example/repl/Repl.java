@@ -3,9 +3,8 @@ package org.example.repl;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.util.Objects;
 import org.example.lexer.Lexer;
-import org.example.token.Token;
+import org.example.token.TokenType;
 
 public class Repl {
     private static final String PROMPT = ">> ";
@@ -20,7 +19,7 @@ public class Repl {
             var line = reader.readLine();
             var l = new Lexer(line);
 
-            for (var tok = l.nextToken(); !Objects.equals(tok.getType(), Token.EOF); tok = l.nextToken()) {
+            for (var tok = l.nextToken(); tok.getType() != TokenType.EOF; tok = l.nextToken()) {
                 System.out.println(tok);
             }
         }
@@ -0,0 +1,167 @@
+package org.example.resolver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Value;
+import org.example.ast.ErrorNode;
+import org.example.ast.Expression;
+import org.example.ast.ExpressionStatement;
+import org.example.ast.Identifier;
+import org.example.ast.InfixExpression;
+import org.example.ast.LetStatement;
+import org.example.ast.PrefixExpression;
+import org.example.ast.Program;
+import org.example.ast.ReturnStatement;
+import org.example.ast.Statement;
+
+/**
+ * Gives every {@link Identifier} of a {@link Program} the
+ * {@code (depth, slot)} coordinate of its binding, so it can be read from a
+ * {@link org.example.object.Frame} by index rather than looked up by name.
+ *
+ * <p>A scope holds one slot per name bound in it, the first {@code let} of a
+ * name picking the next free one and later ones reusing it. Depth counts
+ * scopes out from the one the name is read in; a program is a single scope,
+ * so every depth is 0 for now. A name read before any {@code let} binds it
+ * is an error here rather than when it is evaluated. Errors are listed in
+ * the order evaluation would reach them, parse errors included, and
+ * statements after the first top-level {@code return} are dropped as they
+ * never run.
+ */
+public final class Resolver {
+    @Value
+    public static class Resolved {
+        Program program;
+        int frameSize; // slots of the program's frame
+        List<String> errors;
+    }
+
+    // innermost last
+    private final List<Map<String, Integer>> scopes = new ArrayList<>();
+    private final List<String> errors = new ArrayList<>();
+
+    // expressions waiting to be rebuilt, and whether their operands are done
+    private Expression[] pending = new Expression[16];
+    private boolean[] expanded = new boolean[16];
+    private int pendingCount;
+
+    // rebuilt operands
+    private Expression[] results = new Expression[16];
+    private int resultCount;
+
+    private Resolver() {
+    }
+
+    public static Resolved resolve(Program program) {
+        var resolver = new Resolver();
+        var scope = new HashMap<String, Integer>();
+        resolver.scopes.add(scope);
+        var statements = new ArrayList<Statement>(program.getStatements().size());
+        for (var statement : program.getStatements()) {
+            statements.add(resolver.statement(statement));
+            if (statement instanceof ReturnStatement) {
+                break;
+            }
+        }
+        return new Resolved(new Program(statements), scope.size(), List.copyOf(resolver.errors));
+    }
+
+    private Statement statement(Statement statement) {
+        if (statement instanceof ExpressionStatement stmt) {
+            var expression = expression(stmt.getExpression());
+            return expression == stmt.getExpression() ? stmt : new ExpressionStatement(stmt.getToken(), expression);
+        } else if (statement instanceof LetStatement let) {
+            // the value is read before the name is bound
+            var value = expression(let.getValue());
+            var scope = scopes.get(scopes.size() - 1);
+            var name = let.getName();
+            var slot = scope.computeIfAbsent(name.getValue(), n -> scope.size());
+            return new LetStatement(let.getToken(), name.resolve(0, slot), value);
+        } else if (statement instanceof ReturnStatement ret) {
+            var value = expression(ret.getReturnValue());
+            return value == ret.getReturnValue() ? ret : new ReturnStatement(ret.getToken(), value);
+        } else if (statement instanceof ErrorNode error) {
+            errors.add(error.getMessage());
+        }
+        return statement;
+    }
+
+    private Expression expression(Expression root) {
+        schedule(root, false);
+        while (pendingCount > 0) {
+            pendingCount--;
+            var expression = pending[pendingCount];
+            var operandsDone = expanded[pendingCount];
+            pending[pendingCount] = null;
+
+            if (expression instanceof InfixExpression infix) {
+                if (operandsDone) {
+                    var right = pop();
+                    var left = pop();
+                    push(left == infix.getLeft() && right == infix.getRight()
+                            ? infix
+                            : new InfixExpression(infix.getToken(), left, infix.getOperator(), right));
+                } else {
+                    schedule(infix, true);
+                    schedule(infix.getRight(), false);
+                    schedule(infix.getLeft(), false);
+                }
+            } else if (expression instanceof PrefixExpression prefix) {
+                if (operandsDone) {
+                    var right = pop();
+                    push(right == prefix.getRight()
+                            ? prefix
+                            : new PrefixExpression(prefix.getToken(), prefix.getOperator(), right));
+                } else {
+                    schedule(prefix, true);
+                    schedule(prefix.getRight(), false);
+                }
+            } else if (expression instanceof Identifier ident) {
+                push(identifier(ident));
+            } else {
+                if (expression instanceof ErrorNode error) {
+                    errors.add(error.getMessage());
+                }
+                push(expression); // literals, errors and missing operands
+            }
+        }
+        return pop();
+    }
+
+    private Identifier identifier(Identifier ident) {
+        for (int depth = 0; depth < scopes.size(); depth++) {
+            var slot = scopes.get(scopes.size() - 1 - depth).get(ident.getValue());
+            if (slot != null) {
+                return ident.resolve(depth, slot);
+            }
+        }
+        errors.add("identifier not found: " + ident.getValue());
+        return ident;
+    }
+
+    private void schedule(Expression expression, boolean operandsDone) {
+        if (pendingCount == pending.length) {
+            pending = Arrays.copyOf(pending, pendingCount * 2);
+            expanded = Arrays.copyOf(expanded, pendingCount * 2);
+        }
+        pending[pendingCount] = expression;
+        expanded[pendingCount] = operandsDone;
+        pendingCount++;
+    }
+
+    private void push(Expression expression) {
+        if (resultCount == results.length) {
+            results = Arrays.copyOf(results, resultCount * 2);
+        }
+        results[resultCount++] = expression;
+    }
+
+    private Expression pop() {
+        var expression = results[--resultCount];
+        results[resultCount] = null;
+        return expression;
+    }
+}
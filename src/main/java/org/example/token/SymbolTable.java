@@ -0,0 +1,132 @@
+package org.example.token;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Interns identifier names to dense int ids, each with one canonical String.
+ *
+ * <p>Lookups hash the chars of the name in place, so interning a name straight
+ * from the source text allocates nothing once the name is known. A table can
+ * be shared by any number of lexers and parsers, also across threads. A
+ * name already in the table is found without locking, so threads interning
+ * the same few names over and over do not contend; only adding a name takes
+ * the table's lock. {@link #name} never locks.
+ *
+ * <p>A slot is published with a release store after the name it points to,
+ * and probed with an acquire load, so a reader that finds a slot also sees
+ * its name. Slots are never cleared, so a reader still probing a table that
+ * was replaced by a rehash finds every name it held, and takes the lock only
+ * for names added since.
+ */
+public final class SymbolTable {
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private volatile String[] names;
+    private volatile int[] slots; // open addressing, id + 1 per slot, 0 when empty
+    private int size;
+
+    public SymbolTable() {
+        this.names = new String[16];
+        this.slots = new int[32];
+    }
+
+    public int intern(String name) {
+        return intern(name, 0, name.length());
+    }
+
+    /**
+     * Returns the id for the name spanning {@code [start, end)} of {@code input},
+     * assigning the next id if the name is new.
+     */
+    public int intern(CharSequence input, int start, int end) {
+        var hash = hash(input, start, end);
+        var table = slots;
+        var mask = table.length - 1;
+        for (var i = hash & mask; ; i = (i + 1) & mask) {
+            var slot = (int) SLOT.getAcquire(table, i);
+            if (slot == 0) {
+                return add(input, start, end, hash);
+            }
+            if (matches(names[slot - 1], input, start, end)) {
+                return slot - 1;
+            }
+        }
+    }
+
+    /**
+     * The canonical string for an id returned by {@link #intern}.
+     */
+    public String name(int id) {
+        return names[id];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Probes again under the lock, since another thread may have added the
+     * name or rehashed since the lock-free probe, and adds the name if absent.
+     */
+    private synchronized int add(CharSequence input, int start, int end, int hash) {
+        var mask = slots.length - 1;
+        var i = hash & mask;
+        for (int slot; (slot = slots[i]) != 0; i = (i + 1) & mask) {
+            if (matches(names[slot - 1], input, start, end)) {
+                return slot - 1;
+            }
+        }
+        var id = size++;
+        var current = names;
+        if (id == current.length) {
+            current = Arrays.copyOf(current, id * 2);
+        }
+        current[id] = input.subSequence(start, end).toString();
+        names = current;
+        SLOT.setRelease(slots, i, id + 1);
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    private void rehash() {
+        var newSlots = new int[slots.length * 2];
+        var mask = newSlots.length - 1;
+        for (int id = 0; id < size; id++) {
+            var name = names[id];
+            var i = hash(name, 0, name.length()) & mask;
+            while (newSlots[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            newSlots[i] = id + 1;
+        }
+        slots = newSlots; // volatile, publishes the filled array
+    }
+
+    private static int hash(CharSequence input, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + input.charAt(i);
+        }
+        // spread the high bits, the table is indexed by the low ones
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean matches(String name, CharSequence input, int start, int end) {
+        if (name == input && start == 0 && end == name.length()) {
+            return true;
+        }
+        if (name.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != input.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
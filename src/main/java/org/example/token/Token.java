@@ -1,81 +1,85 @@
 package org.example.token;
 
-import java.util.HashMap;
-import java.util.Map;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
-import lombok.NoArgsConstructor;
-import lombok.Setter;
 import lombok.ToString;
 
 @Getter
-@Setter
-@NoArgsConstructor
 @AllArgsConstructor
 @ToString
 public class Token {
-    public static final String ILLEGAL = "ILLEGAL";
-    public static final String EOF = "EOF";
-
-    // Identifiers + literals
-    public static final String IDENT = "IDENT"; // add, foobar, x, y, ...
-    public static final String INT = "INT"; // 1343456
-
-    // Operators
-    public static final String ASSIGN = "=";
-    public static final String PLUS = "+";
-    public static final String MINUS = "-";
-    public static final String BANG = "!";
-    public static final String ASTERISK = "*";
-    public static final String SLASH = "/";
-    public static final String LT = "<";
-    public static final String GT = ">";
-    public static final String EQ = "==";
-    public static final String NOT_EQ = "!=";
-
-    // Delimiters
-    public static final String COMMA = ",";
-    public static final String SEMICOLON = ";";
-
-    public static final String LPAREN = "(";
-    public static final String RPAREN = ")";
-    public static final String LBRACE = "{";
-    public static final String RBRACE = "}";
-
-    // Keywords
-    public static final String FUNCTION = "FUNCTION";
-    public static final String LET = "LET";
-    public static final String TRUE = "TRUE";
-    public static final String FALSE = "FALSE";
-    public static final String IF = "IF";
-    public static final String ELSE = "ELSE";
-    public static final String RETURN = "RETURN";
-
-    private static final Map<String, String> keywords;
+    // one shared instance per type whose literal never varies, indexed by ordinal
+    private static final Token[] interned;
 
     static {
-        keywords = new HashMap<>();
-        keywords.put("fn", FUNCTION);
-        keywords.put("let", LET);
-        keywords.put("true", TRUE);
-        keywords.put("false", FALSE);
-        keywords.put("if", IF);
-        keywords.put("else", ELSE);
-        keywords.put("return", RETURN);
+        var types = TokenType.values();
+        interned = new Token[types.length];
+        for (var type : types) {
+            if (type.literal() != null) {
+                interned[type.ordinal()] = new Token(type, type.literal());
+            }
+        }
     }
 
-    private String type;
-    private String literal;
+    private final TokenType type;
+    private final String literal;
 
-    public Token(String type, char ch) {
+    public Token(TokenType type, char ch) {
         this.type = type;
         this.literal = String.valueOf(ch);
     }
 
-    public static String lookupIdent(String ident) {
-        if (keywords.containsKey(ident)) {
-            return keywords.get(ident);
+    /**
+     * Returns the shared token for a type with a fixed literal, such as
+     * operators, delimiters and keywords.
+     */
+    public static Token of(TokenType type) {
+        var tok = interned[type.ordinal()];
+        if (tok == null) {
+            throw new IllegalArgumentException(type.name() + " has no fixed literal");
+        }
+        return tok;
+    }
+
+    public static TokenType lookupIdent(String ident) {
+        return lookupIdent(ident, 0, ident.length());
+    }
+
+    /**
+     * Same as {@link #lookupIdent(String)} for the identifier spanning
+     * {@code [start, end)} of {@code input}, without extracting it. Length and
+     * first char select at most one keyword candidate, which is then compared
+     * in place.
+     */
+    public static TokenType lookupIdent(CharSequence input, int start, int end) {
+        var candidate = switch (end - start) {
+            case 2 -> switch (input.charAt(start)) {
+                case 'f' -> TokenType.FUNCTION;
+                case 'i' -> TokenType.IF;
+                default -> null;
+            };
+            case 3 -> TokenType.LET;
+            case 4 -> switch (input.charAt(start)) {
+                case 't' -> TokenType.TRUE;
+                case 'e' -> TokenType.ELSE;
+                default -> null;
+            };
+            case 5 -> TokenType.FALSE;
+            case 6 -> TokenType.RETURN;
+            default -> null;
+        };
+        if (candidate != null && regionMatches(input, start, candidate.literal())) {
+            return candidate;
+        }
+        return TokenType.IDENT;
+    }
+
+    private static boolean regionMatches(CharSequence input, int start, String keyword) {
+        for (int i = 0; i < keyword.length(); i++) {
+            if (input.charAt(start + i) != keyword.charAt(i)) {
+                return false;
+            }
         }
-        return IDENT;
+        return true;
     }
 }
@@ -0,0 +1,65 @@
+package org.example.token;
+
+public enum TokenType {
+    ILLEGAL("ILLEGAL"),
+    EOF("EOF", ""),
+
+    // Identifiers + literals
+    IDENT("IDENT"), // add, foobar, x, y, ...
+    INT("INT"), // 1343456
+
+    // Operators
+    ASSIGN("=", "="),
+    PLUS("+", "+"),
+    MINUS("-", "-"),
+    BANG("!", "!"),
+    ASTERISK("*", "*"),
+    SLASH("/", "/"),
+    LT("<", "<"),
+    GT(">", ">"),
+    EQ("==", "=="),
+    NOT_EQ("!=", "!="),
+
+    // Delimiters
+    COMMA(",", ","),
+    SEMICOLON(";", ";"),
+
+    LPAREN("(", "("),
+    RPAREN(")", ")"),
+    LBRACE("{", "{"),
+    RBRACE("}", "}"),
+
+    // Keywords
+    FUNCTION("FUNCTION", "fn"),
+    LET("LET", "let"),
+    TRUE("TRUE", "true"),
+    FALSE("FALSE", "false"),
+    IF("IF", "if"),
+    ELSE("ELSE", "else"),
+    RETURN("RETURN", "return");
+
+    private final String display;
+    private final String literal; // fixed spelling, null when the literal depends on the input
+
+    TokenType(String display) {
+        this(display, null);
+    }
+
+    TokenType(String display, String literal) {
+        this.display = display;
+        this.literal = literal;
+    }
+
+    /**
+     * The spelling shared by every token of this type, or {@code null} for
+     * {@link #IDENT}, {@link #INT} and {@link #ILLEGAL}.
+     */
+    public String literal() {
+        return literal;
+    }
+
+    @Override
+    public String toString() {
+        return display;
+    }
+}
@@ -0,0 +1,228 @@
+package org.example.vm;
+
+import java.util.Arrays;
+import org.example.compiler.Bytecode;
+import org.example.compiler.Opcode;
+import org.example.object.BooleanObject;
+import org.example.object.ErrorObject;
+import org.example.object.IntegerObject;
+import org.example.object.MonkeyObject;
+import org.example.object.NullObject;
+import org.example.object.ObjectType;
+
+/**
+ * Runs {@link Bytecode} with a switch over the opcode bytes.
+ *
+ * <p>The operand stack is a {@code long[]} with a parallel array of type
+ * tags, an integer stored as itself and a boolean as 0 or 1, so values are
+ * never boxed while running. Both arrays and the globals are allocated once
+ * and reused by every {@link #run}; they only grow when a program needs more
+ * than they hold, so the loop itself never checks for overflow. Only the
+ * result becomes a {@link MonkeyObject}. Errors carry the same messages as
+ * the evaluator's.
+ *
+ * <p>A VM is not thread-safe; use one per thread.
+ */
+public final class VM {
+    private static final byte INTEGER = 0;
+    private static final byte BOOLEAN = 1;
+    private static final byte NULL = 2;
+    private static final byte UNSET = 3; // a global no let has set yet
+    private static final ObjectType[] TYPES = {ObjectType.INTEGER, ObjectType.BOOLEAN, ObjectType.NULL};
+    private static final String[] OPERATORS = new String[Opcode.GREATER_THAN + 1];
+
+    static {
+        OPERATORS[Opcode.ADD] = "+";
+        OPERATORS[Opcode.SUB] = "-";
+        OPERATORS[Opcode.MUL] = "*";
+        OPERATORS[Opcode.DIV] = "/";
+        OPERATORS[Opcode.EQUAL] = "==";
+        OPERATORS[Opcode.NOT_EQUAL] = "!=";
+        OPERATORS[Opcode.LESS_THAN] = "<";
+        OPERATORS[Opcode.GREATER_THAN] = ">";
+    }
+
+    private long[] stack;
+    private byte[] tags;
+    private long[] globals;
+    private byte[] globalTags;
+
+    public VM() {
+        this(256, 64);
+    }
+
+    public VM(int stackSize, int globalCount) {
+        this.stack = new long[stackSize];
+        this.tags = new byte[stackSize];
+        this.globals = new long[globalCount];
+        this.globalTags = new byte[globalCount];
+    }
+
+    /**
+     * The value of the program: that of its last statement or first
+     * {@code return}, or the first error. Globals start unset on every run.
+     */
+    public MonkeyObject run(Bytecode bytecode) {
+        if (bytecode.getMaxStack() > stack.length) {
+            stack = new long[bytecode.getMaxStack()];
+            tags = new byte[bytecode.getMaxStack()];
+        }
+        var globalCount = bytecode.getGlobals().length;
+        if (globalCount > globals.length) {
+            globals = new long[globalCount];
+            globalTags = new byte[globalCount];
+        }
+        Arrays.fill(globalTags, 0, globalCount, UNSET);
+
+        var code = bytecode.getInstructions();
+        var constants = bytecode.getConstants();
+        var stack = this.stack;
+        var tags = this.tags;
+        var globals = this.globals;
+        var globalTags = this.globalTags;
+        int sp = 0;
+        int ip = 0;
+
+        while (ip < code.length) {
+            var opcode = code[ip++];
+            switch (opcode) {
+                case Opcode.CONSTANT -> {
+                    stack[sp] = constants[Bytecode.operand(code, ip)];
+                    tags[sp++] = INTEGER;
+                    ip += 2;
+                }
+                case Opcode.NULL -> {
+                    stack[sp] = 0;
+                    tags[sp++] = NULL;
+                }
+                case Opcode.POP -> sp--;
+                case Opcode.ADD -> {
+                    if ((tags[--sp] | tags[sp - 1]) != INTEGER) {
+                        return operandError(opcode, tags[sp - 1], tags[sp]);
+                    }
+                    stack[sp - 1] += stack[sp];
+                }
+                case Opcode.SUB -> {
+                    if ((tags[--sp] | tags[sp - 1]) != INTEGER) {
+                        return operandError(opcode, tags[sp - 1], tags[sp]);
+                    }
+                    stack[sp - 1] -= stack[sp];
+                }
+                case Opcode.MUL -> {
+                    if ((tags[--sp] | tags[sp - 1]) != INTEGER) {
+                        return operandError(opcode, tags[sp - 1], tags[sp]);
+                    }
+                    stack[sp - 1] *= stack[sp];
+                }
+                case Opcode.DIV -> {
+                    if ((tags[--sp] | tags[sp - 1]) != INTEGER) {
+                        return operandError(opcode, tags[sp - 1], tags[sp]);
+                    }
+                    if (stack[sp] == 0) {
+                        return new ErrorObject("division by zero");
+                    }
+                    stack[sp - 1] /= stack[sp];
+                }
+                case Opcode.ADD_CONSTANT -> {
+                    if (tags[sp - 1] != INTEGER) {
+                        return operandError(Opcode.ADD, tags[sp - 1], INTEGER);
+                    }
+                    stack[sp - 1] += constants[Bytecode.operand(code, ip)];
+                    ip += 2;
+                }
+                case Opcode.SUB_CONSTANT -> {
+                    if (tags[sp - 1] != INTEGER) {
+                        return operandError(Opcode.SUB, tags[sp - 1], INTEGER);
+                    }
+                    stack[sp - 1] -= constants[Bytecode.operand(code, ip)];
+                    ip += 2;
+                }
+                case Opcode.MUL_CONSTANT -> {
+                    if (tags[sp - 1] != INTEGER) {
+                        return operandError(Opcode.MUL, tags[sp - 1], INTEGER);
+                    }
+                    stack[sp - 1] *= constants[Bytecode.operand(code, ip)];
+                    ip += 2;
+                }
+                case Opcode.DIV_CONSTANT -> {
+                    if (tags[sp - 1] != INTEGER) {
+                        return operandError(Opcode.DIV, tags[sp - 1], INTEGER);
+                    }
+                    var right = constants[Bytecode.operand(code, ip)];
+                    if (right == 0) {
+                        return new ErrorObject("division by zero");
+                    }
+                    stack[sp - 1] /= right;
+                    ip += 2;
+                }
+                case Opcode.LESS_THAN, Opcode.GREATER_THAN -> {
+                    sp--;
+                    if ((tags[sp - 1] | tags[sp]) != INTEGER) {
+                        return operandError(opcode, tags[sp - 1], tags[sp]);
+                    }
+                    var result = opcode == Opcode.LESS_THAN ? stack[sp - 1] < stack[sp] : stack[sp - 1] > stack[sp];
+                    stack[sp - 1] = result ? 1 : 0;
+                    tags[sp - 1] = BOOLEAN;
+                }
+                case Opcode.EQUAL, Opcode.NOT_EQUAL -> {
+                    sp--;
+                    if (tags[sp - 1] != tags[sp]) {
+                        return operandError(opcode, tags[sp - 1], tags[sp]);
+                    }
+                    // null is always 0, so null == null
+                    var equal = stack[sp - 1] == stack[sp];
+                    stack[sp - 1] = equal == (opcode == Opcode.EQUAL) ? 1 : 0;
+                    tags[sp - 1] = BOOLEAN;
+                }
+                case Opcode.MINUS -> {
+                    if (tags[sp - 1] != INTEGER) {
+                        return new ErrorObject("unknown operator: -" + TYPES[tags[sp - 1]]);
+                    }
+                    stack[sp - 1] = -stack[sp - 1];
+                }
+                case Opcode.BANG -> {
+                    var tag = tags[sp - 1];
+                    stack[sp - 1] = tag == NULL || tag == BOOLEAN && stack[sp - 1] == 0 ? 1 : 0;
+                    tags[sp - 1] = BOOLEAN;
+                }
+                case Opcode.GET_GLOBAL -> {
+                    var slot = Bytecode.operand(code, ip);
+                    ip += 2;
+                    if (globalTags[slot] == UNSET) {
+                        return new ErrorObject("identifier not found: " + bytecode.getGlobals()[slot]);
+                    }
+                    stack[sp] = globals[slot];
+                    tags[sp++] = globalTags[slot];
+                }
+                case Opcode.SET_GLOBAL -> {
+                    var slot = Bytecode.operand(code, ip);
+                    ip += 2;
+                    sp--;
+                    globals[slot] = stack[sp];
+                    globalTags[slot] = tags[sp];
+                }
+                case Opcode.RETURN -> {
+                    return value(stack[sp - 1], tags[sp - 1]);
+                }
+                case Opcode.ERROR -> {
+                    return new ErrorObject(bytecode.getErrors()[Bytecode.operand(code, ip)]);
+                }
+                default -> throw new IllegalStateException("unknown opcode " + opcode + " at " + (ip - 1));
+            }
+        }
+        return value(stack[sp - 1], tags[sp - 1]);
+    }
+
+    private static MonkeyObject value(long value, byte tag) {
+        return switch (tag) {
+            case INTEGER -> IntegerObject.of(value);
+            case BOOLEAN -> BooleanObject.of(value != 0);
+            default -> NullObject.NULL;
+        };
+    }
+
+    private static ErrorObject operandError(byte opcode, byte left, byte right) {
+        var problem = left == right ? "unknown operator: " : "type mismatch: ";
+        return new ErrorObject(problem + TYPES[left] + " " + OPERATORS[opcode] + " " + TYPES[right]);
+    }
+}
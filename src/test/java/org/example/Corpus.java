@@ -0,0 +1,52 @@
+package org.example;
+
+import java.util.Random;
+
+/**
+ * Deterministic Monkey sources for benchmarks and differential tests.
+ */
+public final class Corpus {
+    private static final String[] NAMES = {"x", "y", "foo", "bar", "total", "counter", "result", "a", "b", "value"};
+    private static final String[] OPERATORS = {"+", "-", "*", "/", "<", ">", "==", "!="};
+
+    private Corpus() {
+    }
+
+    /**
+     * A program of let, return and expression statements roughly {@code size} chars long.
+     */
+    public static String program(int size) {
+        var random = new Random(42);
+        var out = new StringBuilder(size + 64);
+        while (out.length() < size) {
+            switch (random.nextInt(4)) {
+                case 0 -> out.append("return ");
+                case 1 -> out.append("let ").append(NAMES[random.nextInt(NAMES.length)]).append(" = ");
+                default -> {
+                }
+            }
+            expression(random, out, 1 + random.nextInt(6));
+            out.append(";\n");
+        }
+        return out.toString();
+    }
+
+    private static void expression(Random random, StringBuilder out, int terms) {
+        for (int i = 0; i < terms; i++) {
+            if (i > 0) {
+                out.append(' ').append(OPERATORS[random.nextInt(OPERATORS.length)]).append(' ');
+            }
+            switch (random.nextInt(5)) {
+                case 0 -> out.append('-');
+                case 1 -> out.append('!');
+                default -> {
+                }
+            }
+            if (random.nextBoolean()) {
+                out.append(NAMES[random.nextInt(NAMES.length)]);
+            } else {
+                out.append(random.nextInt(10_000));
+            }
+        }
+    }
+}
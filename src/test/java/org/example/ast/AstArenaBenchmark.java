@@ -0,0 +1,107 @@
+package org.example.ast;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.example.Corpus;
+import org.example.lexer.Lexer;
+import org.example.parser.Parser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Building the object AST and the arena for the same program. Run with
+ * {@code -prof gc} and divide {@code gc.alloc.rate.norm} by the node count
+ * printed at setup for the bytes each representation costs per node.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AstArenaBenchmark {
+    @Param({"65536", "1048576"})
+    private int size;
+
+    private String source;
+    private Program program;
+    private AstArena arena;
+    private ByteBuffer bytes;
+
+    @Setup
+    public void setup() {
+        source = Corpus.program(size);
+        program = new Parser(new Lexer(source)).parseProgram();
+        arena = AstArena.of(program);
+        bytes = ByteBuffer.allocateDirect(arena.serializedSize());
+        arena.write(bytes);
+        bytes.flip();
+        System.out.println("nodes: " + arena.size());
+    }
+
+    @Benchmark
+    public ByteBuffer serialize() {
+        bytes.clear();
+        arena.write(bytes);
+        return bytes.flip();
+    }
+
+    /**
+     * Reloading a stored program: wrap the bytes and build the object AST.
+     */
+    @Benchmark
+    public Program deserialize() {
+        return AstArena.read(bytes.duplicate()).toProgram();
+    }
+
+    /**
+     * The baseline for {@link #deserialize}: lex and parse the source again.
+     */
+    @Benchmark
+    public Program reparse() {
+        return new Parser(new Lexer(source)).parseProgram();
+    }
+
+    @Benchmark
+    public Program objects() {
+        return arena.toProgram();
+    }
+
+    @Benchmark
+    public AstArena arena() {
+        var copy = new AstArena(arena.symbols(), arena.size());
+        for (int i = 0; i < arena.statementCount(); i++) {
+            copy.addStatement(copy(copy, arena.statement(i)));
+        }
+        return copy;
+    }
+
+    private int copy(AstArena copy, int node) {
+        if (node < 0) {
+            return -1;
+        }
+        var token = arena.token(node);
+        return switch (arena.kind(node)) {
+            case LET -> copy.let(token, copy(copy, arena.name(node)), copy(copy, arena.value(node)));
+            case RETURN -> copy.returns(token, copy(copy, arena.value(node)));
+            case EXPRESSION -> copy.expression(token, arena.operator(node), copy(copy, arena.value(node)));
+            case IDENTIFIER -> copy.identifier(token, arena.symbol(node));
+            case INTEGER -> copy.integer(token, arena.integer(node));
+            case PREFIX -> copy.prefix(token, arena.operator(node), copy(copy, arena.right(node)));
+            case ERROR -> copy.error(token, arena.errorType(node), arena.errorLiteral(node), arena.errorMessage(node));
+            case INFIX -> {
+                var left = copy(copy, arena.left(node));
+                yield copy.infix(token, arena.operator(node), left, copy(copy, arena.right(node)));
+            }
+        };
+    }
+}
@@ -0,0 +1,157 @@
+package org.example.ast;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import org.example.Corpus;
+import org.example.lexer.Lexer;
+import org.example.parser.Parser;
+import org.example.token.SymbolTable;
+import org.example.token.TokenType;
+import org.junit.jupiter.api.Test;
+
+class AstArenaTest {
+
+    @Test
+    void roundTrip() {
+        for (var input : new String[]{
+                "-a * b + c / d == e != !f;",
+                "let x = 5; return y;",
+                "a + b * c + d / e - f; 3 + 4; -5 * 5; 5 > 4 == 3 < 4;",
+                "let = 1; 1 + ; x; ) ;",
+                "(1 + 2) * 3; -x; !a == b; (x); 7 - y; z;",
+                Corpus.program(20_000)}) {
+            var program = new Parser(new Lexer(input)).parseProgram();
+            var arena = AstArena.of(program);
+
+            var copy = arena.toProgram();
+            assertEquals(program.toString(), copy.toString());
+            assertEquals(program.getStatements().size(), copy.getStatements().size());
+            for (int i = 0; i < program.getStatements().size(); i++) {
+                assertEquals(program.getStatements().get(i).tokenLiteral(), copy.getStatements().get(i).tokenLiteral());
+            }
+            assertNotSame(arena, copy.arena());
+            var frozen = arena.frozen();
+            assertSame(frozen, frozen.toProgram().arena());
+        }
+    }
+
+    @Test
+    void deepRoundTrip() {
+        // as deep as ParserTest goes
+        var depth = 200_000;
+        for (var input : new String[]{
+                "(".repeat(depth) + "1" + " + 1)".repeat(depth),
+                "-".repeat(depth) + "1",
+                "let x = " + "!".repeat(depth) + "(" + "x" + " + x * x".repeat(depth) + ");"}) {
+            var program = new Parser(new Lexer(input)).parseProgram();
+            var arena = AstArena.of(program);
+            var copy = AstArena.read(arena.serialize()).toProgram();
+            assertEquals(program.toString(), copy.toString());
+            assertEquals(program.getStatements().get(0).tokenLiteral(), copy.getStatements().get(0).tokenLiteral());
+        }
+    }
+
+    @Test
+    void serialization() {
+        var source = Corpus.program(20_000) + "let = 1; x + ; réponse;";
+        var arena = new Parser(new Lexer(source)).parseProgram().arena();
+        var expected = arena.toProgram().toString();
+
+        var bytes = arena.serialize();
+        assertEquals(arena.serializedSize(), bytes.remaining());
+        var heap = AstArena.read(bytes);
+        assertEquals(0, bytes.remaining());
+        assertEquals(expected, heap.toProgram().toString());
+        assertEquals(arena.size(), heap.size());
+
+        // behind other data in a direct buffer, as when mapped from a file
+        var direct = ByteBuffer.allocateDirect(arena.serializedSize() + 3);
+        direct.put(new byte[]{1, 2, 3});
+        arena.write(direct);
+        direct.flip().position(3);
+        var mapped = AstArena.read(direct.asReadOnlyBuffer());
+        assertEquals(expected, mapped.toProgram().toString());
+        assertEquals(arena.symbols().size(), mapped.symbols().size());
+        for (int i = 0; i < arena.statementCount(); i++) {
+            assertEquals(arena.kind(arena.statement(i)), mapped.kind(mapped.statement(i)));
+        }
+
+        var garbage = ByteBuffer.wrap("not an AST at all".getBytes());
+        assertThrows(IllegalArgumentException.class, () -> AstArena.read(garbage));
+    }
+
+    @Test
+    void layout() {
+        var symbols = new SymbolTable();
+        var arena = new AstArena(symbols, 1);
+        var x = arena.identifier(3, symbols.intern("x"));
+        var big = arena.integer(5, -1L << 40 | 7);
+        var sum = arena.infix(4, TokenType.PLUS, x, big);
+        var neg = arena.prefix(2, TokenType.MINUS, sum);
+        arena.addStatement(arena.expression(2, neg));
+
+        assertEquals(5, arena.size());
+        assertEquals(1, arena.statementCount());
+        assertEquals(NodeKind.EXPRESSION, arena.kind(arena.statement(0)));
+        assertEquals(neg, arena.value(arena.statement(0)));
+        assertEquals(TokenType.MINUS, arena.operator(neg));
+        assertEquals(TokenType.PLUS, arena.operator(sum));
+        assertEquals(x, arena.left(sum));
+        assertEquals(big, arena.right(sum));
+        assertEquals("x", symbols.name(arena.symbol(x)));
+        assertEquals(-1L << 40 | 7, arena.integer(big));
+        assertEquals(4, arena.token(sum));
+        assertEquals("(-(x + " + (-1L << 40 | 7) + "))", arena.toProgram().toString());
+    }
+
+    @Test
+    void visitor() {
+        var program = new Parser(new Lexer("a * 2 + -b; c;")).parseProgram();
+        var arena = program.arena();
+
+        var depth = new AstArena.Visitor<Integer>() {
+            @Override
+            public Integer visitLet(AstArena arena, int node) {
+                return 1 + arena.accept(arena.value(node), this);
+            }
+
+            @Override
+            public Integer visitReturn(AstArena arena, int node) {
+                return 1 + arena.accept(arena.value(node), this);
+            }
+
+            @Override
+            public Integer visitExpression(AstArena arena, int node) {
+                return 1 + arena.accept(arena.value(node), this);
+            }
+
+            @Override
+            public Integer visitIdentifier(AstArena arena, int node) {
+                return 1;
+            }
+
+            @Override
+            public Integer visitInteger(AstArena arena, int node) {
+                return 1;
+            }
+
+            @Override
+            public Integer visitPrefix(AstArena arena, int node) {
+                return 1 + arena.accept(arena.right(node), this);
+            }
+
+            @Override
+            public Integer visitInfix(AstArena arena, int node) {
+                return 1 + Math.max(arena.accept(arena.left(node), this), arena.accept(arena.right(node), this));
+            }
+
+            @Override
+            public Integer visitError(AstArena arena, int node) {
+                return 1;
+            }
+        };
+        assertEquals(4, arena.accept(arena.statement(0), depth));
+        assertEquals(2, arena.accept(arena.statement(1), depth));
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.ast;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.example.Corpus;
+import org.example.lexer.Lexer;
+import org.example.parser.Parser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Dumping the AST of a 1 MB program as text.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AstPrinterBenchmark {
+    private Program program;
+    private StringBuilder builder;
+    private ByteBuffer bytes;
+
+    @Setup
+    public void setup() {
+        program = new Parser(new Lexer(Corpus.program(1 << 20))).parseProgram();
+        builder = new StringBuilder(2 << 20);
+        bytes = ByteBuffer.allocateDirect(2 << 20);
+    }
+
+    @Benchmark
+    public String programToString() {
+        return program.toString();
+    }
+
+    @Benchmark
+    public int printToBuilder() {
+        builder.setLength(0);
+        AstPrinter.print(program, builder);
+        return builder.length();
+    }
+
+    @Benchmark
+    public int printToByteBuffer() {
+        bytes.clear();
+        AstPrinter.print(program, bytes);
+        return bytes.position();
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.ast;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.example.Corpus;
+import org.example.lexer.Lexer;
+import org.example.parser.Parser;
+import org.junit.jupiter.api.Test;
+
+class AstPrinterTest {
+
+    @Test
+    void sameAsToString() throws IOException {
+        var program = new Parser(new Lexer("let x = -a * (b + 1); return x != y; z; 1 + ;")).parseProgram();
+        var expected = "let x = ((-a) * (b + 1));return (x != y);z(1 + <error>)";
+        assertEquals(expected, program.toString());
+
+        var writer = new StringWriter();
+        AstPrinter.print(program, writer);
+        assertEquals(expected, writer.toString());
+
+        var builder = new StringBuilder("> ");
+        AstPrinter.print(program.getStatements().get(0), builder);
+        assertEquals("> let x = ((-a) * (b + 1));", builder.toString());
+
+        var bytes = ByteBuffer.allocate(100);
+        AstPrinter.print(program, bytes);
+        assertEquals(expected, new String(bytes.array(), 0, bytes.position(), StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    void deepNesting() {
+        var depth = 100_000;
+        var program = new Parser(new Lexer("-".repeat(depth) + "x")).parseProgram();
+        assertEquals("(-".repeat(depth) + "x" + ")".repeat(depth), AstPrinter.toString(program));
+    }
+
+    @Test
+    void largeProgram() {
+        var program = new Parser(new Lexer(Corpus.program(100_000))).parseProgram();
+        var out = new StringBuilder();
+        for (var stmt : program.getStatements()) {
+            out.append(stmt);
+        }
+        assertEquals(out.toString(), program.toString());
+    }
+}
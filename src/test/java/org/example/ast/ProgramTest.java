@@ -3,23 +3,64 @@ package org.example.ast;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.ArrayList;
+import java.util.List;
+import org.example.token.SymbolTable;
 import org.example.token.Token;
+import org.example.token.TokenType;
 import org.junit.jupiter.api.Test;
 
 class ProgramTest {
 
     @Test
     void testToString() {
-        var program = new Program();
-
-        var letStmt = new LetStatement(new Token(Token.LET, "let"),
-                new Identifier(new Token(Token.IDENT, "myVar"), "myVar"),
-                new Identifier(new Token(Token.IDENT, "anotherVar"), "anotherVar"));
+        var letStmt = new LetStatement(new Token(TokenType.LET, "let"),
+                new Identifier(new Token(TokenType.IDENT, "myVar"), "myVar"),
+                new Identifier(new Token(TokenType.IDENT, "anotherVar"), "anotherVar"));
 
         var statements = new ArrayList<Statement>();
         statements.add(letStmt);
-        program.setStatements(statements);
+        var program = new Program(statements);
 
         assertEquals("let myVar = anotherVar;", program.toString());
     }
-}
\ No newline at end of file
+
+    @Test
+    void statementsCannotChange() {
+        var statements = new ArrayList<Statement>();
+        statements.add(new ExpressionStatement(new Token(TokenType.IDENT, "x"),
+                new Identifier(new Token(TokenType.IDENT, "x"), "x")));
+        var program = new Program(statements);
+
+        statements.clear();
+        assertEquals(1, program.getStatements().size());
+        assertThrows(UnsupportedOperationException.class, () -> program.getStatements().clear());
+    }
+
+    @Test
+    void viewShowsItsList() {
+        var statements = new ArrayList<Statement>();
+        var program = Program.view(statements);
+        statements.add(new ExpressionStatement(new Token(TokenType.IDENT, "x"),
+                new Identifier(new Token(TokenType.IDENT, "x"), "x")));
+
+        assertEquals("x", program.toString());
+        assertThrows(UnsupportedOperationException.class, () -> program.getStatements().clear());
+    }
+
+    @Test
+    void arenaIsFrozen() {
+        var program = new Program(List.of(new ExpressionStatement(new Token(TokenType.IDENT, "x"),
+                new Identifier(new Token(TokenType.IDENT, "x"), "x"))));
+        var arena = program.arena();
+
+        assertTrue(arena.isFrozen());
+        assertSame(arena, program.arena());
+        assertThrows(UnsupportedOperationException.class, () -> arena.integer(-1, 1));
+        assertThrows(UnsupportedOperationException.class, () -> arena.addStatement(0));
+        assertEquals(1, arena.statementCount());
+
+        var open = new AstArena(new SymbolTable());
+        assertThrows(IllegalArgumentException.class, () -> new Program(List.of(), open));
+        assertSame(arena, new Program(List.of(), arena).arena());
+    }
+}
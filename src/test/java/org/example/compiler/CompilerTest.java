@@ -0,0 +1,78 @@
+package org.example.compiler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.example.lexer.Lexer;
+import org.example.parser.Parser;
+import org.junit.jupiter.api.Test;
+
+class CompilerTest {
+
+    @Test
+    void testExpressions() {
+        var bytecode = compile("1 + 2 * -x; !(3 < 1); x / 4 - 1");
+
+        assertEquals("""
+                0000 CONSTANT 0
+                0003 CONSTANT 1
+                0006 GET_GLOBAL 0
+                0009 MINUS
+                0010 MUL
+                0011 ADD
+                0012 POP
+                0013 CONSTANT 2
+                0016 CONSTANT 0
+                0019 LESS_THAN
+                0020 BANG
+                0021 POP
+                0022 GET_GLOBAL 0
+                0025 DIV_CONSTANT 3
+                0028 SUB_CONSTANT 0
+                """, bytecode.disassemble());
+        assertArrayEquals(new long[]{1, 2, 3, 4}, bytecode.getConstants());
+        assertArrayEquals(new String[]{"x"}, bytecode.getGlobals());
+        assertEquals(3, bytecode.getMaxStack());
+    }
+
+    @Test
+    void testStatements() {
+        var bytecode = compile("let a = 5; let b = a; return b; let a = 6;");
+
+        assertEquals("""
+                0000 CONSTANT 0
+                0003 SET_GLOBAL 0
+                0006 GET_GLOBAL 0
+                0009 SET_GLOBAL 1
+                0012 GET_GLOBAL 1
+                0015 RETURN
+                0016 CONSTANT 1
+                0019 SET_GLOBAL 0
+                0022 NULL
+                """, bytecode.disassemble());
+        assertArrayEquals(new String[]{"a", "b"}, bytecode.getGlobals());
+    }
+
+    @Test
+    void testErrors() {
+        var bytecode = compile("let = 1; 2");
+
+        assertEquals("""
+                0000 ERROR 0
+                0003 CONSTANT 0
+                """, bytecode.disassemble());
+        assertEquals(1, bytecode.getErrors().length);
+    }
+
+    @Test
+    void testDeepNesting() {
+        var depth = 100_000;
+        var bytecode = compile("(".repeat(depth) + "1" + " + 1)".repeat(depth));
+
+        assertEquals(3 + 3 * depth, bytecode.getInstructions().length);
+        assertEquals(2, bytecode.getMaxStack());
+    }
+
+    private static Bytecode compile(String input) {
+        return Compiler.compile(new Parser(new Lexer(input)).parseProgram());
+    }
+}
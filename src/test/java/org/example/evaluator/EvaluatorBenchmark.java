@@ -0,0 +1,122 @@
+package org.example.evaluator;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.example.ast.Expression;
+import org.example.ast.ExpressionStatement;
+import org.example.ast.InfixExpression;
+import org.example.ast.IntegerLiteral;
+import org.example.ast.PrefixExpression;
+import org.example.ast.Program;
+import org.example.lexer.Lexer;
+import org.example.object.BooleanObject;
+import org.example.object.IntegerObject;
+import org.example.object.MonkeyObject;
+import org.example.parser.Parser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Deep arithmetic expressions. Divide {@code gc.alloc.rate.norm} by the
+ * infix count printed at setup for the bytes allocated per evaluated
+ * {@link InfixExpression}. {@link #boxed} is the baseline: the same walk
+ * with an {@link IntegerObject} for every intermediate result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluatorBenchmark {
+    /**
+     * chain: 1000 terms of {@code + - *}, left-deep. tree: a balanced
+     * expression 12 levels deep. compare: the tree compared with itself.
+     */
+    @Param({"chain", "tree", "compare"})
+    private String shape;
+
+    private Program program;
+    private Evaluator evaluator;
+
+    @Setup
+    public void setup() {
+        var random = new Random(42);
+        var source = switch (shape) {
+            case "chain" -> chain(random, 1000);
+            case "tree" -> tree(random, 12);
+            default -> {
+                var tree = tree(random, 11);
+                yield tree + " == " + tree;
+            }
+        };
+        program = new Parser(new Lexer(source)).parseProgram();
+        evaluator = new Evaluator();
+        System.out.println("infix expressions: " + count(((ExpressionStatement) program.getStatements().get(0)).getExpression()));
+    }
+
+    @Benchmark
+    public MonkeyObject eval() {
+        return evaluator.eval(program);
+    }
+
+    @Benchmark
+    public MonkeyObject boxed() {
+        return boxed(((ExpressionStatement) program.getStatements().get(0)).getExpression());
+    }
+
+    private static String chain(Random random, int terms) {
+        var out = new StringBuilder();
+        var operators = "+-*";
+        for (int i = 0; i < terms; i++) {
+            if (i > 0) {
+                out.append(' ').append(operators.charAt(random.nextInt(3))).append(' ');
+            }
+            out.append(random.nextInt(10_000));
+        }
+        return out.toString();
+    }
+
+    private static String tree(Random random, int depth) {
+        if (depth == 0) {
+            return Integer.toString(1 + random.nextInt(10_000));
+        }
+        var operator = " +-*".charAt(1 + random.nextInt(3));
+        return "(" + tree(random, depth - 1) + " " + operator + " " + tree(random, depth - 1) + ")";
+    }
+
+    private static int count(Expression expression) {
+        if (expression instanceof InfixExpression infix) {
+            return 1 + count(infix.getLeft()) + count(infix.getRight());
+        }
+        if (expression instanceof PrefixExpression prefix) {
+            return count(prefix.getRight());
+        }
+        return 0;
+    }
+
+    private static MonkeyObject boxed(Expression expression) {
+        if (expression instanceof IntegerLiteral lit) {
+            return IntegerObject.of(lit.getValue());
+        }
+        var infix = (InfixExpression) expression;
+        var left = ((IntegerObject) boxed(infix.getLeft())).getValue();
+        var right = ((IntegerObject) boxed(infix.getRight())).getValue();
+        return switch (infix.getToken().getType()) {
+            case PLUS -> IntegerObject.of(left + right);
+            case MINUS -> IntegerObject.of(left - right);
+            case ASTERISK -> IntegerObject.of(left * right);
+            case EQ -> BooleanObject.of(left == right);
+            default -> throw new IllegalStateException();
+        };
+    }
+}
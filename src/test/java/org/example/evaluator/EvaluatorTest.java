@@ -0,0 +1,156 @@
+package org.example.evaluator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.example.lexer.Lexer;
+import org.example.object.BooleanObject;
+import org.example.object.ErrorObject;
+import org.example.object.IntegerObject;
+import org.example.object.MonkeyObject;
+import org.example.object.NullObject;
+import org.example.parser.Parser;
+import org.junit.jupiter.api.Test;
+
+class EvaluatorTest {
+
+    @Test
+    void testIntegerExpressions() {
+        var tests = Map.ofEntries(
+                Map.entry("5", 5L),
+                Map.entry("-10", -10L),
+                Map.entry("--10", 10L),
+                Map.entry("5 + 5 + 5 + 5 - 10", 10L),
+                Map.entry("2 * 2 * 2 * 2 * 2", 32L),
+                Map.entry("-50 + 100 + -50", 0L),
+                Map.entry("20 + 2 * -10", 0L),
+                Map.entry("50 / 2 * 2 + 10", 60L),
+                Map.entry("3 * (3 * 3) + 10", 37L),
+                Map.entry("(5 + 10 * 2 + 15 / 3) * 2 + -10", 50L),
+                Map.entry("9223372036854775807 + 1", Long.MIN_VALUE),
+                Map.entry("123456789 * 1000", 123456789000L));
+        tests.forEach((input, expected) -> assertInteger(expected, eval(input), input));
+    }
+
+    @Test
+    void testBooleanExpressions() {
+        var tests = Map.ofEntries(
+                Map.entry("1 < 2", true),
+                Map.entry("1 > 2", false),
+                Map.entry("1 == 1", true),
+                Map.entry("1 != 1", false),
+                Map.entry("(1 + 2) * 3 == 9", true),
+                Map.entry("(1 < 2) == (3 < 4)", true),
+                Map.entry("(1 < 2) != (3 > 4)", true),
+                Map.entry("!5", false),
+                Map.entry("!!5", true),
+                Map.entry("!(1 > 2)", true));
+        tests.forEach((input, expected) -> assertSame(BooleanObject.of(expected), eval(input), input));
+    }
+
+    @Test
+    void testLetAndReturn() {
+        assertInteger(15, eval("let a = 5; let b = a * 2; a + b;"), "bindings");
+        assertInteger(-6, eval("let a = 2; let b = -a * 3; b;"), "negated binding");
+        assertInteger(10, eval("return 10; 9;"), "return stops the program");
+        assertInteger(10, eval("9; return 2 * 5; 9;"), "return in the middle");
+        assertSame(NullObject.NULL, eval("let a = 1;"));
+    }
+
+    @Test
+    void testErrors() {
+        var tests = Map.ofEntries(
+                Map.entry("5 + (1 < 2);", "type mismatch: INTEGER + BOOLEAN"),
+                Map.entry("(1 < 2) + 5; 5;", "type mismatch: BOOLEAN + INTEGER"),
+                Map.entry("-(1 < 2)", "unknown operator: -BOOLEAN"),
+                Map.entry("(1 < 2) + (2 < 3)", "unknown operator: BOOLEAN + BOOLEAN"),
+                Map.entry("(1 < 2) * 2 * 3", "type mismatch: BOOLEAN * INTEGER"),
+                Map.entry("1 + 2 * (5 > 1) + 3", "type mismatch: INTEGER * BOOLEAN"),
+                Map.entry("foobar", "identifier not found: foobar"),
+                Map.entry("1 + foobar * 2", "identifier not found: foobar"),
+                Map.entry("10 / (5 - 5)", "division by zero"),
+                Map.entry("let x = 1 / 0; 5", "division by zero"),
+                Map.entry("return -(4 / 0);", "division by zero"),
+                Map.entry("let = 1;", "1:5: expected next token to be IDENT, got = instead"));
+        tests.forEach((input, expected) -> {
+            var result = eval(input);
+            assertInstanceOf(ErrorObject.class, result, input);
+            assertEquals(expected, ((ErrorObject) result).getMessage(), input);
+        });
+    }
+
+    @Test
+    void testSmallIntegersAreShared() {
+        assertSame(eval("500 + 500"), eval("1000"));
+        assertNotSame(eval("5000 + 5000"), eval("10000"));
+    }
+
+    @Test
+    void testDeepNesting() throws InterruptedException {
+        var depth = Evaluator.MAX_DEPTH;
+        var inputs = Map.of(
+                "(1 + ".repeat(depth) + "1" + ")".repeat(depth), (MonkeyObject) IntegerObject.of(depth + 1),
+                "-".repeat(depth) + "1", IntegerObject.of(1),
+                "!".repeat(depth) + "1", BooleanObject.TRUE,
+                "(1 < 2) == (".repeat(depth - 1) + "(1 < 2)" + ")".repeat(depth - 1), BooleanObject.TRUE,
+                "1 + (-(".repeat(depth / 2) + "1" + "))".repeat(depth / 2), IntegerObject.of(1));
+        var results = new ConcurrentHashMap<String, MonkeyObject>();
+        // the limit holds on the default thread stack size
+        var thread = new Thread(null, () -> inputs.keySet().forEach(input -> results.put(input, eval(input))),
+                "1 MB stack", 1024 * 1024);
+        thread.start();
+        thread.join();
+        assertEquals(inputs.size(), results.size(), "completed on a 1 MB stack");
+        inputs.forEach((input, expected) -> {
+            assertEquals(expected.inspect(), results.get(input).inspect(), input.substring(0, 20));
+            assertError("expression nested too deeply", eval("-(" + input + ")"));
+        });
+        assertError("expression nested too deeply", eval("(1 + ".repeat(100_000) + "1" + ")".repeat(100_000)));
+    }
+
+    @Test
+    void testLeftChainsAreNotNesting() {
+        var terms = 10_000;
+        assertInteger(terms, eval("1" + " + 1".repeat(terms - 1)), "flat sum");
+        assertInteger(terms + 1, eval("(".repeat(terms) + "1" + " + 1)".repeat(terms)), "left groups");
+        assertInteger(terms, eval("0" + " + 3 * 2 - 4 / 2 - 2".repeat(terms) + " - " + terms), "mixed");
+        assertEquals(BooleanObject.TRUE, eval("1 < 2" + " == (1 < 2)".repeat(terms)));
+        // a chain counts as one level of the nesting around it
+        assertInteger(terms, eval("-(".repeat(Evaluator.MAX_DEPTH - 1) + "0" + " - 1".repeat(terms)
+                + ")".repeat(Evaluator.MAX_DEPTH - 1)), "nested chain");
+
+        var evaluator = new Evaluator();
+        var program = new Parser(new Lexer("1" + " + 1".repeat(terms / 2) + " + x" + " + 1".repeat(terms / 2)))
+                .parseProgram();
+        assertError("identifier not found: x", evaluator.eval(program));
+        assertError("type mismatch: BOOLEAN + INTEGER", eval("(1 < 2)" + " + 1".repeat(terms)));
+        assertError("division by zero", eval("1" + " + 1".repeat(terms) + " / 0" + " * 2".repeat(terms)));
+    }
+
+    @Test
+    void testTooDeepLeavesEvaluatorUsable() {
+        var evaluator = new Evaluator();
+        var input = "let a = 1; let b = " + "-".repeat(Evaluator.MAX_DEPTH + 1) + "a; let c = 2;";
+        assertError("expression nested too deeply", evaluator.eval(new Parser(new Lexer(input)).parseProgram()));
+        // statements before the error ran, those after did not
+        assertInteger(1, evaluator.eval(new Parser(new Lexer("a")).parseProgram()), "a");
+        assertError("identifier not found: b", evaluator.eval(new Parser(new Lexer("b")).parseProgram()));
+        assertError("identifier not found: c", evaluator.eval(new Parser(new Lexer("c")).parseProgram()));
+        assertInteger(3, evaluator.eval(new Parser(new Lexer("a + 2")).parseProgram()), "a + 2");
+    }
+
+    private static MonkeyObject eval(String input) {
+        return new Evaluator().eval(new Parser(new Lexer(input)).parseProgram());
+    }
+
+    private static void assertError(String expected, MonkeyObject actual) {
+        assertInstanceOf(ErrorObject.class, actual);
+        assertEquals(expected, ((ErrorObject) actual).getMessage());
+    }
+
+    private static void assertInteger(long expected, MonkeyObject actual, String input) {
+        assertInstanceOf(IntegerObject.class, actual, input);
+        assertEquals(expected, ((IntegerObject) actual).getValue(), input);
+    }
+}
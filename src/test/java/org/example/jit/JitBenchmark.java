@@ -0,0 +1,129 @@
+package org.example.jit;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.example.ast.Program;
+import org.example.compiler.Bytecode;
+import org.example.compiler.Compiler;
+import org.example.lexer.Lexer;
+import org.example.object.MonkeyObject;
+import org.example.parser.Parser;
+import org.example.vm.VM;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The {@link org.example.vm.VMBenchmark} programs run by the {@link VM} and as compiled
+ * classes, and the cost of compiling one. globals is a left-deep chain of
+ * 3000 terms that read globals, so that C2 cannot fold it to a constant as it
+ * does chain, and too large for one method HotSpot compiles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JitBenchmark {
+    @Param({"chain", "tree", "lets", "globals"})
+    private String shape;
+
+    private Program program;
+    private Bytecode bytecode;
+    private VM vm;
+    private CompiledScript compiled;
+
+    @Setup
+    public void setup() {
+        var random = new Random(42);
+        var source = switch (shape) {
+            case "chain" -> chain(random, 1000);
+            case "tree" -> tree(random, 12);
+            case "globals" -> globals(random, 3000);
+            default -> lets(random, 1000);
+        };
+        program = new Parser(new Lexer(source)).parseProgram();
+        bytecode = Compiler.compile(program);
+        vm = new VM();
+        compiled = JitCompiler.compile(program);
+        var expected = vm.run(bytecode).inspect();
+        if (!expected.equals(compiled.run().inspect())) {
+            throw new IllegalStateException("VM and compiled script disagree");
+        }
+        System.out.println("result: " + expected + ", class: " + compiled.classSize() + " bytes");
+    }
+
+    @Benchmark
+    public MonkeyObject vm() {
+        return vm.run(bytecode);
+    }
+
+    @Benchmark
+    public MonkeyObject jit() {
+        return compiled.run();
+    }
+
+    /**
+     * Compile to a class and define it, the one-off cost of promotion.
+     */
+    @Benchmark
+    public CompiledScript compile() {
+        return JitCompiler.compile(program);
+    }
+
+    private static String chain(Random random, int terms) {
+        var out = new StringBuilder();
+        for (int i = 0; i < terms; i++) {
+            if (i > 0) {
+                out.append(' ').append("+-*".charAt(random.nextInt(3))).append(' ');
+            }
+            out.append(random.nextInt(10_000));
+        }
+        return out.toString();
+    }
+
+    private static String tree(Random random, int depth) {
+        if (depth == 0) {
+            return Integer.toString(1 + random.nextInt(10_000));
+        }
+        var operator = "+-*".charAt(random.nextInt(3));
+        return "(" + tree(random, depth - 1) + " " + operator + " " + tree(random, depth - 1) + ")";
+    }
+
+    private static String globals(Random random, int terms) {
+        var out = new StringBuilder("let a = 3; let b = 0 - 5; let c = 7;\n");
+        for (int i = 0; i < terms; i++) {
+            if (i > 0) {
+                out.append(' ').append("+-*".charAt(random.nextInt(3))).append(' ');
+            }
+            out.append(random.nextBoolean() ? Integer.toString(random.nextInt(10_000)) : "abc".charAt(random.nextInt(3)));
+        }
+        return out.toString();
+    }
+
+    private static String lets(Random random, int count) {
+        var names = new String[]{"a", "b", "c", "total", "count", "value"};
+        var out = new StringBuilder();
+        for (var name : names) {
+            out.append("let ").append(name).append(" = ").append(1 + random.nextInt(100)).append(";\n");
+        }
+        for (int i = 0; i < count; i++) {
+            out.append("let ").append(names[random.nextInt(names.length)]).append(" = ")
+                    .append(names[random.nextInt(names.length)]).append(' ')
+                    .append("+-*".charAt(random.nextInt(3))).append(' ')
+                    .append(names[random.nextInt(names.length)]).append(" / ")
+                    .append(1 + random.nextInt(9)).append(" - ")
+                    .append(names[random.nextInt(names.length)]).append(";\n");
+        }
+        return out.append("total").toString();
+    }
+}
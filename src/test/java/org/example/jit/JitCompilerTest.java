@@ -0,0 +1,174 @@
+package org.example.jit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import java.util.Random;
+import org.example.ast.Program;
+import org.example.evaluator.Evaluator;
+import org.example.lexer.Lexer;
+import org.example.parser.Parser;
+import org.junit.jupiter.api.Test;
+
+class JitCompilerTest {
+
+    @Test
+    void testPrograms() {
+        var tests = Map.ofEntries(
+                Map.entry("1 + 2 * 3", "7"),
+                Map.entry("(5 + 10 * 2 + 15 / 3) * 2 + -10", "50"),
+                Map.entry("9223372036854775807 + 1", "-9223372036854775808"),
+                Map.entry("-9223372036854775807 - 1 < 9223372036854775807", "true"),
+                Map.entry("300 > -40000", "true"),
+                Map.entry("5 > 5", "false"),
+                Map.entry("1 < 2 == !(2 < 1)", "true"),
+                Map.entry("(1 < 2) != (2 < 1)", "true"),
+                Map.entry("7 == 7", "true"),
+                Map.entry("7 != 7", "false"),
+                Map.entry("!5", "false"),
+                Map.entry("!!5", "true"),
+                Map.entry("let a = 5; let b = a * 2; a + b", "15"),
+                Map.entry("let a = 1 > 2; !a", "true"),
+                Map.entry("let a = 1;", "null"),
+                Map.entry("", "null"),
+                Map.entry("return 10; x", "10"),
+                Map.entry("let a = 2; let a = a * a; a", "4"),
+                Map.entry("let a = 2; let a = a > 1; a", "true"),
+                Map.entry("5 + (1 < 2)", "ERROR: type mismatch: INTEGER + BOOLEAN"),
+                Map.entry("(1 < 2) == (1 < 2) + 1", "ERROR: type mismatch: BOOLEAN + INTEGER"),
+                Map.entry("(1 < 2) > (2 < 3)", "ERROR: unknown operator: BOOLEAN > BOOLEAN"),
+                Map.entry("-(1 < 2)", "ERROR: unknown operator: -BOOLEAN"),
+                Map.entry("1 + x", "ERROR: identifier not found: x"),
+                Map.entry("let x = x + 1;", "ERROR: identifier not found: x"),
+                Map.entry("7 / (3 - 3)", "ERROR: division by zero"),
+                Map.entry("1 / 0 + x", "ERROR: division by zero"),
+                Map.entry("1 / 0; 1 + (1 < 2)", "ERROR: division by zero"),
+                Map.entry("1; let = 2; 3", "ERROR: 1:8: expected next token to be IDENT, got = instead"));
+        tests.forEach((input, expected) -> assertEquals(expected, JitCompiler.compile(parse(input)).run().inspect(), input));
+    }
+
+    @Test
+    void testManyGlobals() {
+        // locals past 255 take the wide form
+        var input = new StringBuilder();
+        var names = new String[300];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = "v" + "abcdefghijklmnopqrstuvwxyz".charAt(i % 26) + "abcdefghijklmnopqrstuvwxyz".charAt(i / 26);
+            input.append("let ").append(names[i]).append(" = ").append(i).append(";\n");
+        }
+        input.append(names[299]).append(" - ").append(names[1]);
+        assertEquals("298", JitCompiler.compile(parse(input.toString())).run().inspect());
+    }
+
+    @Test
+    void testTooLarge() {
+        // nesting through right operands is not split
+        var depth = 100_000;
+        var program = parse("(1 + ".repeat(depth) + "1" + ")".repeat(depth));
+        assertThrows(IllegalArgumentException.class, () -> JitCompiler.compile(program));
+    }
+
+    @Test
+    void testLongChains() {
+        var random = new Random(3);
+        for (var terms : new int[]{3000, 20_000}) {
+            for (var error : new String[]{null, "(1 < 2)", "(1 / (a - a))", "z"}) {
+                var input = new StringBuilder("let a = 3; let b = 0 - 5; let c = a * b;\n");
+                for (int i = 0; i < terms; i++) {
+                    if (i > 0) {
+                        input.append(' ').append("+-*".charAt(random.nextInt(3))).append(' ');
+                    }
+                    input.append(i == terms * 2 / 3 && error != null ? error
+                            : random.nextBoolean() ? "abc".charAt(random.nextInt(3)) : random.nextInt(10_000));
+                }
+                var program = parse(input.toString());
+                var expected = new Evaluator().eval(program).inspect();
+                assertEquals(expected, JitCompiler.compile(program).run().inspect(), error + " in " + terms);
+            }
+        }
+        // left groups are a chain too, and so are prefix operators
+        var depth = 100_000;
+        assertEquals("100001", JitCompiler.compile(parse("(".repeat(depth) + "1" + " + 1)".repeat(depth))).run().inspect());
+        assertEquals("-7", JitCompiler.compile(parse("let a = 7; " + "-".repeat(depth + 1) + "a")).run().inspect());
+        assertEquals("false", JitCompiler.compile(parse("let a = 7; " + "!".repeat(depth + 1) + "a")).run().inspect());
+    }
+
+    @Test
+    void testLargeExpressions() {
+        // far more than fits one method HotSpot compiles, with an error at some leaf
+        var random = new Random(7);
+        for (var error : new String[]{null, "(1 < 2)", "(1 / (a - a))", "z"}) {
+            for (var leaf : new int[]{0, 3000, 8191}) {
+                var input = new StringBuilder("let a = 3; let b = 0 - 5; ");
+                tree(random, input, 13, new int[]{leaf}, error);
+                var program = parse(input.toString());
+                var expected = new Evaluator().eval(program).inspect();
+                assertEquals(expected, JitCompiler.compile(program).run().inspect(), error + " at " + leaf);
+            }
+        }
+    }
+
+    @Test
+    void sameAsEvaluator() {
+        var random = new Random(5);
+        for (int n = 0; n < 1000; n++) {
+            var input = program(random);
+            var program = parse(input);
+            var expected = new Evaluator().eval(program).inspect();
+            assertEquals(expected, JitCompiler.compile(program).run().inspect(), input);
+        }
+    }
+
+    private static Program parse(String input) {
+        return new Parser(new Lexer(input)).parseProgram();
+    }
+
+    private static void tree(Random random, StringBuilder out, int depth, int[] errorLeaf, String error) {
+        if (depth == 0) {
+            if (errorLeaf[0]-- == 0 && error != null) {
+                out.append(error);
+            } else {
+                out.append(random.nextBoolean() ? "ab".charAt(random.nextInt(2)) : (char) ('1' + random.nextInt(9)));
+            }
+            return;
+        }
+        out.append('(');
+        tree(random, out, depth - 1, errorLeaf, error);
+        out.append(' ').append("+-*".charAt(random.nextInt(3))).append(' ');
+        tree(random, out, depth - 1, errorLeaf, error);
+        out.append(')');
+    }
+
+    private static String program(Random random) {
+        var out = new StringBuilder();
+        for (int i = random.nextInt(6); i >= 0; i--) {
+            switch (random.nextInt(6)) {
+                case 0, 1 -> out.append("let ").append("abc".charAt(random.nextInt(3))).append(" = ");
+                case 2 -> out.append(random.nextInt(8) == 0 ? "return " : "");
+                default -> {
+                }
+            }
+            expression(random, out, 3);
+            out.append(random.nextInt(20) == 0 ? " " : "; ");
+        }
+        return out.toString();
+    }
+
+    private static void expression(Random random, StringBuilder out, int depth) {
+        switch (depth == 0 ? random.nextInt(2) : random.nextInt(5)) {
+            case 0 -> out.append(random.nextInt(4) == 0 ? 1L << 62 : random.nextInt(400) - 200);
+            case 1 -> out.append("abcd".charAt(random.nextInt(4)));
+            case 2 -> {
+                out.append("-!".charAt(random.nextInt(2)));
+                expression(random, out, depth - 1);
+            }
+            default -> {
+                out.append('(');
+                expression(random, out, depth - 1);
+                out.append(' ').append(new String[]{"+", "-", "*", "/", "<", ">", "==", "!="}[random.nextInt(8)]).append(' ');
+                expression(random, out, depth - 1);
+                out.append(')');
+            }
+        }
+    }
+}
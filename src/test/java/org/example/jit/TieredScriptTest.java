@@ -0,0 +1,77 @@
+package org.example.jit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.example.compiler.Compiler;
+import org.example.lexer.Lexer;
+import org.example.parser.Parser;
+import org.junit.jupiter.api.Test;
+
+class TieredScriptTest {
+
+    @Test
+    void compilesAfterThreshold() {
+        var script = new TieredScript(new Parser(new Lexer("let a = 6; a * 7")).parseProgram(), 3);
+        for (int i = 0; i < 3; i++) {
+            assertEquals("42", script.run().inspect());
+            assertFalse(script.isCompiled());
+        }
+        assertEquals("42", script.run().inspect());
+        assertTrue(script.isCompiled());
+        assertEquals("42", script.run().inspect());
+    }
+
+    @Test
+    void tooLargeStaysInterpreted() {
+        var depth = 100_000;
+        var program = new Parser(new Lexer("(1 + ".repeat(depth) + "1" + ")".repeat(depth))).parseProgram();
+        var script = new TieredScript(program, 0);
+        assertEquals("100001", script.run().inspect());
+        assertFalse(script.isCompiled());
+        assertEquals("100001", script.run().inspect());
+    }
+
+    @Test
+    void tooManyConstantsForTheVm() {
+        var count = Compiler.MAX_POOL_SIZE + 10;
+        var source = IntStream.range(0, count).mapToObj(i -> "let a = " + i + " - a;")
+                .collect(Collectors.joining("\n", "let a = 0;\n", "\na"));
+        var program = new Parser(new Lexer(source)).parseProgram();
+        assertThrows(IllegalArgumentException.class, () -> Compiler.compile(program));
+
+        var script = new TieredScript(program, 2);
+        var expected = Long.toString(count / 2);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(expected, script.run().inspect());
+        }
+    }
+
+    @Test
+    void concurrentRuns() throws Exception {
+        var script = new TieredScript(new Parser(new Lexer("let x = 10; x / (x - 10)")).parseProgram(), 50);
+        var pool = Executors.newFixedThreadPool(4);
+        try {
+            var tasks = new ArrayList<Callable<String>>();
+            for (int i = 0; i < 400; i++) {
+                tasks.add(() -> script.run().inspect());
+            }
+            for (var result : pool.invokeAll(tasks)) {
+                assertEquals("ERROR: division by zero", result.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertTrue(script.isCompiled());
+    }
+
+    @Test
+    void negativeThreshold() {
+        var program = new Parser(new Lexer("1")).parseProgram();
+        assertThrows(IllegalArgumentException.class, () -> new TieredScript(program, -1));
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.lexer;
+
+import java.util.concurrent.TimeUnit;
+import org.example.Corpus;
+import org.example.token.TokenType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Lexes a multi-megabyte script through the cursor API and through the
+ * Token adapter. Run with {@code -prof gc} and divide gc.alloc.rate.norm by
+ * the token count printed at setup to get bytes allocated per token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LexerBenchmark {
+    @Param({"4194304"})
+    private int size;
+
+    private String input;
+
+    @Setup
+    public void setup() {
+        input = Corpus.program(size);
+        System.out.println("tokens: " + cursor());
+    }
+
+    @Benchmark
+    public int cursor() {
+        var l = new Lexer(input);
+        int count = 0;
+        while (l.next() != TokenType.EOF) {
+            count++;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public void tokens(Blackhole bh) {
+        var l = new Lexer(input);
+        for (var tok = l.nextToken(); tok.getType() != TokenType.EOF; tok = l.nextToken()) {
+            bh.consume(tok);
+        }
+    }
+}
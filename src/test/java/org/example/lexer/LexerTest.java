@@ -2,9 +2,15 @@ package org.example.lexer;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import org.example.token.Token;
+import org.example.token.TokenType;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class LexerTest {
 
@@ -34,80 +40,80 @@ if (5 < 10) {
 """;
         
         var expectedTokens = new ArrayList<Token>();
-        expectedTokens.add(new Token(Token.LET, "let"));
-        expectedTokens.add(new Token(Token.IDENT, "five"));
-        expectedTokens.add(new Token(Token.ASSIGN, "="));
-        expectedTokens.add(new Token(Token.INT, "5"));
-        expectedTokens.add(new Token(Token.SEMICOLON, ";"));
-        expectedTokens.add(new Token(Token.LET, "let"));
-        expectedTokens.add(new Token(Token.IDENT, "ten"));
-        expectedTokens.add(new Token(Token.ASSIGN, "="));
-        expectedTokens.add(new Token(Token.INT, "10"));
-        expectedTokens.add(new Token(Token.SEMICOLON, ";"));
-        expectedTokens.add(new Token(Token.LET, "let"));
-        expectedTokens.add(new Token(Token.IDENT, "add"));
-        expectedTokens.add(new Token(Token.ASSIGN, "="));
-        expectedTokens.add(new Token(Token.FUNCTION, "fn"));
-        expectedTokens.add(new Token(Token.LPAREN, "("));
-        expectedTokens.add(new Token(Token.IDENT, "x"));
-        expectedTokens.add(new Token(Token.COMMA, ","));
-        expectedTokens.add(new Token(Token.IDENT, "y"));
-        expectedTokens.add(new Token(Token.RPAREN, ")"));
-        expectedTokens.add(new Token(Token.LBRACE, "{"));
-        expectedTokens.add(new Token(Token.IDENT, "x"));
-        expectedTokens.add(new Token(Token.PLUS, "+"));
-        expectedTokens.add(new Token(Token.IDENT, "y"));
-        expectedTokens.add(new Token(Token.SEMICOLON, ";"));
-        expectedTokens.add(new Token(Token.RBRACE, "}"));
-        expectedTokens.add(new Token(Token.SEMICOLON, ";"));
-        expectedTokens.add(new Token(Token.LET, "let"));
-        expectedTokens.add(new Token(Token.IDENT, "result"));
-        expectedTokens.add(new Token(Token.ASSIGN, "="));
-        expectedTokens.add(new Token(Token.IDENT, "add"));
-        expectedTokens.add(new Token(Token.LPAREN, "("));
-        expectedTokens.add(new Token(Token.IDENT, "five"));
-        expectedTokens.add(new Token(Token.COMMA, ","));
-        expectedTokens.add(new Token(Token.IDENT, "ten"));
-        expectedTokens.add(new Token(Token.RPAREN, ")"));
-        expectedTokens.add(new Token(Token.SEMICOLON, ";"));
-        expectedTokens.add(new Token(Token.BANG, "!"));
-        expectedTokens.add(new Token(Token.MINUS, "-"));
-        expectedTokens.add(new Token(Token.SLASH, "/"));
-        expectedTokens.add(new Token(Token.ASTERISK, "*"));
-        expectedTokens.add(new Token(Token.INT, "5"));
-        expectedTokens.add(new Token(Token.SEMICOLON, ";"));
-        expectedTokens.add(new Token(Token.INT, "5"));
-        expectedTokens.add(new Token(Token.LT, "<"));
-        expectedTokens.add(new Token(Token.INT, "10"));
-        expectedTokens.add(new Token(Token.GT, ">"));
-        expectedTokens.add(new Token(Token.INT, "5"));
-        expectedTokens.add(new Token(Token.SEMICOLON, ";"));
-        expectedTokens.add(new Token(Token.IF, "if"));
-        expectedTokens.add(new Token(Token.LPAREN, "("));
-        expectedTokens.add(new Token(Token.INT, "5"));
-        expectedTokens.add(new Token(Token.LT, "<"));
-        expectedTokens.add(new Token(Token.INT, "10"));
-        expectedTokens.add(new Token(Token.RPAREN, ")"));
-        expectedTokens.add(new Token(Token.LBRACE, "{"));
-        expectedTokens.add(new Token(Token.RETURN, "return"));
-        expectedTokens.add(new Token(Token.TRUE, "true"));
-        expectedTokens.add(new Token(Token.SEMICOLON, ";"));
-        expectedTokens.add(new Token(Token.RBRACE, "}"));
-        expectedTokens.add(new Token(Token.ELSE, "else"));
-        expectedTokens.add(new Token(Token.LBRACE, "{"));
-        expectedTokens.add(new Token(Token.RETURN, "return"));
-        expectedTokens.add(new Token(Token.FALSE, "false"));
-        expectedTokens.add(new Token(Token.SEMICOLON, ";"));
-        expectedTokens.add(new Token(Token.RBRACE, "}"));
-        expectedTokens.add(new Token(Token.INT, "10"));
-        expectedTokens.add(new Token(Token.EQ, "=="));
-        expectedTokens.add(new Token(Token.INT, "10"));
-        expectedTokens.add(new Token(Token.SEMICOLON, ";"));
-        expectedTokens.add(new Token(Token.INT, "10"));
-        expectedTokens.add(new Token(Token.NOT_EQ, "!="));
-        expectedTokens.add(new Token(Token.INT, "9"));
-        expectedTokens.add(new Token(Token.SEMICOLON, ";"));
-        expectedTokens.add(new Token(Token.EOF, ""));
+        expectedTokens.add(new Token(TokenType.LET, "let"));
+        expectedTokens.add(new Token(TokenType.IDENT, "five"));
+        expectedTokens.add(new Token(TokenType.ASSIGN, "="));
+        expectedTokens.add(new Token(TokenType.INT, "5"));
+        expectedTokens.add(new Token(TokenType.SEMICOLON, ";"));
+        expectedTokens.add(new Token(TokenType.LET, "let"));
+        expectedTokens.add(new Token(TokenType.IDENT, "ten"));
+        expectedTokens.add(new Token(TokenType.ASSIGN, "="));
+        expectedTokens.add(new Token(TokenType.INT, "10"));
+        expectedTokens.add(new Token(TokenType.SEMICOLON, ";"));
+        expectedTokens.add(new Token(TokenType.LET, "let"));
+        expectedTokens.add(new Token(TokenType.IDENT, "add"));
+        expectedTokens.add(new Token(TokenType.ASSIGN, "="));
+        expectedTokens.add(new Token(TokenType.FUNCTION, "fn"));
+        expectedTokens.add(new Token(TokenType.LPAREN, "("));
+        expectedTokens.add(new Token(TokenType.IDENT, "x"));
+        expectedTokens.add(new Token(TokenType.COMMA, ","));
+        expectedTokens.add(new Token(TokenType.IDENT, "y"));
+        expectedTokens.add(new Token(TokenType.RPAREN, ")"));
+        expectedTokens.add(new Token(TokenType.LBRACE, "{"));
+        expectedTokens.add(new Token(TokenType.IDENT, "x"));
+        expectedTokens.add(new Token(TokenType.PLUS, "+"));
+        expectedTokens.add(new Token(TokenType.IDENT, "y"));
+        expectedTokens.add(new Token(TokenType.SEMICOLON, ";"));
+        expectedTokens.add(new Token(TokenType.RBRACE, "}"));
+        expectedTokens.add(new Token(TokenType.SEMICOLON, ";"));
+        expectedTokens.add(new Token(TokenType.LET, "let"));
+        expectedTokens.add(new Token(TokenType.IDENT, "result"));
+        expectedTokens.add(new Token(TokenType.ASSIGN, "="));
+        expectedTokens.add(new Token(TokenType.IDENT, "add"));
+        expectedTokens.add(new Token(TokenType.LPAREN, "("));
+        expectedTokens.add(new Token(TokenType.IDENT, "five"));
+        expectedTokens.add(new Token(TokenType.COMMA, ","));
+        expectedTokens.add(new Token(TokenType.IDENT, "ten"));
+        expectedTokens.add(new Token(TokenType.RPAREN, ")"));
+        expectedTokens.add(new Token(TokenType.SEMICOLON, ";"));
+        expectedTokens.add(new Token(TokenType.BANG, "!"));
+        expectedTokens.add(new Token(TokenType.MINUS, "-"));
+        expectedTokens.add(new Token(TokenType.SLASH, "/"));
+        expectedTokens.add(new Token(TokenType.ASTERISK, "*"));
+        expectedTokens.add(new Token(TokenType.INT, "5"));
+        expectedTokens.add(new Token(TokenType.SEMICOLON, ";"));
+        expectedTokens.add(new Token(TokenType.INT, "5"));
+        expectedTokens.add(new Token(TokenType.LT, "<"));
+        expectedTokens.add(new Token(TokenType.INT, "10"));
+        expectedTokens.add(new Token(TokenType.GT, ">"));
+        expectedTokens.add(new Token(TokenType.INT, "5"));
+        expectedTokens.add(new Token(TokenType.SEMICOLON, ";"));
+        expectedTokens.add(new Token(TokenType.IF, "if"));
+        expectedTokens.add(new Token(TokenType.LPAREN, "("));
+        expectedTokens.add(new Token(TokenType.INT, "5"));
+        expectedTokens.add(new Token(TokenType.LT, "<"));
+        expectedTokens.add(new Token(TokenType.INT, "10"));
+        expectedTokens.add(new Token(TokenType.RPAREN, ")"));
+        expectedTokens.add(new Token(TokenType.LBRACE, "{"));
+        expectedTokens.add(new Token(TokenType.RETURN, "return"));
+        expectedTokens.add(new Token(TokenType.TRUE, "true"));
+        expectedTokens.add(new Token(TokenType.SEMICOLON, ";"));
+        expectedTokens.add(new Token(TokenType.RBRACE, "}"));
+        expectedTokens.add(new Token(TokenType.ELSE, "else"));
+        expectedTokens.add(new Token(TokenType.LBRACE, "{"));
+        expectedTokens.add(new Token(TokenType.RETURN, "return"));
+        expectedTokens.add(new Token(TokenType.FALSE, "false"));
+        expectedTokens.add(new Token(TokenType.SEMICOLON, ";"));
+        expectedTokens.add(new Token(TokenType.RBRACE, "}"));
+        expectedTokens.add(new Token(TokenType.INT, "10"));
+        expectedTokens.add(new Token(TokenType.EQ, "=="));
+        expectedTokens.add(new Token(TokenType.INT, "10"));
+        expectedTokens.add(new Token(TokenType.SEMICOLON, ";"));
+        expectedTokens.add(new Token(TokenType.INT, "10"));
+        expectedTokens.add(new Token(TokenType.NOT_EQ, "!="));
+        expectedTokens.add(new Token(TokenType.INT, "9"));
+        expectedTokens.add(new Token(TokenType.SEMICOLON, ";"));
+        expectedTokens.add(new Token(TokenType.EOF, ""));
 
         var l = new Lexer(input);
 
@@ -118,4 +124,65 @@ if (5 < 10) {
             assertEquals(expectedToken.getLiteral(), tok.getLiteral());
         }
     }
+
+    @Test
+    void cursor() {
+        var input = "let x1 = 10 != five;\n  y == !z";
+        var l = new Lexer(input.toCharArray());
+
+        assertNull(l.kind());
+        assertEquals(TokenType.LET, l.next());
+        assertEquals(0, l.start());
+        assertEquals(3, l.length());
+        assertEquals(TokenType.IDENT, l.next());
+        assertEquals("x", l.literal());
+        assertEquals(TokenType.INT, l.next());
+        assertEquals(5, l.start());
+        assertEquals("1", l.literal());
+        assertEquals(TokenType.ASSIGN, l.next());
+        assertEquals(TokenType.INT, l.next());
+        assertEquals("10", l.literal());
+        assertEquals(TokenType.NOT_EQ, l.next());
+        assertEquals(12, l.start());
+        assertEquals(2, l.length());
+        assertEquals(TokenType.IDENT, l.next());
+        assertEquals(TokenType.SEMICOLON, l.next());
+        assertEquals(TokenType.IDENT, l.next());
+        assertEquals(23, l.start());
+        assertEquals(TokenType.EQ, l.next());
+        assertEquals(TokenType.BANG, l.next());
+        assertEquals(TokenType.IDENT, l.next());
+        assertEquals("z", l.literal());
+        assertEquals(TokenType.EOF, l.next());
+        assertEquals(input.length(), l.start());
+        assertEquals(0, l.length());
+        assertEquals(TokenType.EOF, l.next());
+    }
+
+    @Test
+    void mappedFile(@TempDir Path dir) throws IOException {
+        var input = """
+let add = fn(x, y) { x + y; };
+let result = add(5, 10) != 9 == !true;
+if (5 < 10) { return true; } else { return false; }
+$ é
+""";
+        var file = dir.resolve("input.monkey");
+        Files.writeString(file, input, StandardCharsets.UTF_8);
+
+        var expected = new Lexer(input);
+        var mapped = Lexer.map(file);
+        for (var tok = expected.nextToken(); tok.getType() != TokenType.EOF; tok = expected.nextToken()) {
+            if (tok.getLiteral().equals("é")) {
+                // two UTF-8 bytes, each read as its own char
+                assertEquals(TokenType.ILLEGAL, mapped.nextToken().getType());
+                assertEquals(TokenType.ILLEGAL, mapped.nextToken().getType());
+                continue;
+            }
+            var actual = mapped.nextToken();
+            assertEquals(tok.getType(), actual.getType());
+            assertEquals(tok.getLiteral(), actual.getLiteral());
+        }
+        assertEquals(TokenType.EOF, mapped.nextToken().getType());
+    }
 }
\ No newline at end of file
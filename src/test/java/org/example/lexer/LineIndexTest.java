@@ -0,0 +1,77 @@
+package org.example.lexer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import org.example.token.TokenType;
+import org.junit.jupiter.api.Test;
+
+class LineIndexTest {
+
+    @Test
+    void position() {
+        var text = "let a = 1;\n\n  a + b;\r\nb";
+        var index = LineIndex.of(text);
+
+        assertEquals(LineIndex.pack(1, 1), index.position(0));
+        assertEquals(LineIndex.pack(1, 5), index.position(4));
+        assertEquals(LineIndex.pack(2, 1), index.position(11));
+        assertEquals(LineIndex.pack(3, 3), index.position(14));
+        assertEquals(LineIndex.pack(4, 1), index.position(text.length() - 1));
+        assertEquals("3:7", index.format(18));
+    }
+
+    @Test
+    void builtByLexer() {
+        var text = "let a = 1;\n\n  a + b;\r\nb";
+        var l = new Lexer(text);
+        while (l.next() != TokenType.EOF) {
+            var expected = LineIndex.of(text).position(l.start());
+            assertEquals(expected, l.lines().position(l.start()));
+        }
+    }
+
+    @Test
+    void edit() {
+        var random = new Random(5);
+        var text = new StringBuilder("let a = 1;\n\n  a + b;\r\nb\n");
+        var index = LineIndex.of(text);
+        var alphabet = "ab \n\n;";
+
+        for (int n = 0; n < 2000; n++) {
+            var offset = random.nextInt(text.length() + 1);
+            var removed = Math.min(text.length() - offset, random.nextInt(5));
+            var inserted = new StringBuilder();
+            for (int i = random.nextInt(5); i > 0; i--) {
+                inserted.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            text.replace(offset, offset + removed, inserted.toString());
+
+            index.edit(text, offset, removed, inserted.length());
+
+            var expected = LineIndex.of(text);
+            for (int i = 0; i <= text.length(); i++) {
+                assertEquals(expected.position(i), index.position(i), text + " at " + i);
+            }
+        }
+    }
+
+    @Test
+    void keptByTokenBufferEdits() {
+        var tokens = TokenBuffer.lex("let a = 1;\nlet b = 2;\nlet c = 3;");
+        var lines = tokens.lines();
+
+        tokens.edit("let a = 1;\nlet b =\n\n 2;\nlet c = 3;", 18, 1, 3);
+
+        assertSame(lines, tokens.lines());
+        assertEquals("5:5", lines.format(tokens.start(tokens.size() - 5)));
+    }
+
+    @Test
+    void pack() {
+        var position = LineIndex.pack(123456, 7);
+
+        assertEquals(123456, LineIndex.line(position));
+        assertEquals(7, LineIndex.column(position));
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.lexer;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.example.Corpus;
+import org.example.token.SymbolTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lexing throughput on a 32 MB script as the pool grows; {@code sequential}
+ * is the single-lexer baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelLexerBenchmark {
+    @Param({"1", "2", "4", "8"})
+    private int parallelism;
+
+    private String input;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setup() {
+        input = Corpus.program(32 << 20);
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int parallel() {
+        return ParallelLexer.lex(input, new SymbolTable(), pool, 256 * 1024).size();
+    }
+
+    @Benchmark
+    public int sequential() {
+        return TokenBuffer.lex(input).size();
+    }
+}
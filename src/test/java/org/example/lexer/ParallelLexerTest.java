@@ -0,0 +1,90 @@
+package org.example.lexer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.example.Corpus;
+import org.example.token.SymbolTable;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class ParallelLexerTest {
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void startPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void sameAsSequential() {
+        var input = """
+let five = 5;
+let ten = 10;
+
+let add = fn(x, y) {
+  x + y;
+};
+
+let result = add(five, ten);
+
+!-/*5;
+5 < 10 > 5;
+
+if (5 < 10) {
+  return true;
+} else {
+  return false;
+}
+
+10 == 10;
+10 != 9;
+""";
+        for (int chunkSize = 1; chunkSize < input.length(); chunkSize++) {
+            assertSameTokens(input, chunkSize);
+        }
+        assertSameTokens(Corpus.program(1 << 20), 4096);
+    }
+
+    @Test
+    void randomInputs() {
+        var random = new Random(11);
+        var alphabet = "abc xyz 0123 =!+-*/<>;(){},\n\t$";
+        for (int n = 0; n < 200; n++) {
+            var input = new StringBuilder();
+            for (int i = random.nextInt(400); i > 0; i--) {
+                input.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            if (n % 10 == 0 && input.length() > 0) {
+                // the sequential lexer stops at a NUL char
+                input.setCharAt(random.nextInt(input.length()), '\0');
+            }
+            assertSameTokens(input.toString(), 1 + random.nextInt(32));
+        }
+    }
+
+    @Test
+    void boundaries() {
+        assertArrayEquals(new int[]{0, 3, 8, 11, 14}, ParallelLexer.boundaries("let x=1;y = 22", 3));
+        assertArrayEquals(new int[]{0, 5}, ParallelLexer.boundaries("abcde", 2));
+    }
+
+    private void assertSameTokens(String input, int chunkSize) {
+        var expected = TokenBuffer.lex(input);
+        var actual = ParallelLexer.lex(input, new SymbolTable(), pool, chunkSize);
+
+        assertEquals(expected.size(), actual.size(), "token count at chunk size " + chunkSize);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.kind(i), actual.kind(i));
+            assertEquals(expected.start(i), actual.start(i));
+            assertEquals(expected.length(i), actual.length(i));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.lexer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.example.Corpus;
+import org.example.token.TokenType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Scalar against vector scanning over a direct byte buffer, as for a mapped
+ * file. {@code generated} is a typical script, {@code longRuns} is padded with
+ * wide whitespace and long names, and {@code shortRuns} is the worst case for
+ * vectors: one-char names and single spaces.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class ScannerBenchmark {
+    private static final int SIZE = 8 << 20;
+
+    @Param({"scalar", "vector"})
+    private String backend;
+
+    @Param({"generated", "longRuns", "shortRuns"})
+    private String input;
+
+    private ByteSource source;
+    private Scanner scanner;
+
+    @Setup
+    public void setup() {
+        var text = switch (input) {
+            case "generated" -> Corpus.program(SIZE);
+            case "longRuns" -> ("let " + "someVeryLongGeneratedIdentifierName_".repeat(4) + " =" + " ".repeat(96)
+                    + "1234567890123456789;\n" + "\t".repeat(40) + "\n").repeat(SIZE / 320);
+            default -> "a b c = d + 1 ; ".repeat(SIZE / 16);
+        };
+        var bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+        var buffer = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+        source = new ByteSource(buffer);
+        scanner = backend.equals("vector") ? new VectorScanner() : ScalarScanner.INSTANCE;
+    }
+
+    @Benchmark
+    public int lex() {
+        var l = new Lexer(source, null, 0, source.length(), scanner);
+        int count = 0;
+        while (l.next() != TokenType.EOF) {
+            count++;
+        }
+        return count;
+    }
+}
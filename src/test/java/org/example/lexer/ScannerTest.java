@@ -0,0 +1,80 @@
+package org.example.lexer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import org.example.token.TokenType;
+import org.junit.jupiter.api.Test;
+
+class ScannerTest {
+
+    @Test
+    void vectorBackendIsOptIn() {
+        assertSame(ScalarScanner.INSTANCE, Scanner.best());
+        // surefire runs with --add-modules jdk.incubator.vector
+        System.setProperty("monkey.lexer.vector", "true");
+        try {
+            assertInstanceOf(VectorScanner.class, Scanner.best());
+        } finally {
+            System.clearProperty("monkey.lexer.vector");
+        }
+    }
+
+    @Test
+    void sameAsScalar() {
+        var random = new Random(3);
+        // long runs of each class, broken by every kind of boundary
+        var pieces = new String[]{" ", "\n", "\t\r\n", "        ", "a", "Z_", "abcdefghijklmnopqrstuvwxyz_ABCDEFGHIJKLMNOPQRSTUVWXYZ",
+                "0", "0123456789", "`", "@", "[", "{", "/", ":", "=", ";", "\0", "é", "š"};
+        var vector = new VectorScanner();
+        for (int n = 0; n < 300; n++) {
+            var text = new StringBuilder();
+            for (int i = random.nextInt(40); i > 0; i--) {
+                var piece = pieces[random.nextInt(pieces.length)];
+                text.append(piece.repeat(1 + random.nextInt(random.nextBoolean() ? 3 : 70)));
+            }
+            var input = text.toString();
+            var chars = CharBuffer.wrap(input.toCharArray());
+            var bytes = new ByteSource(ByteBuffer.wrap(input.getBytes(StandardCharsets.ISO_8859_1)));
+            for (int from = 0; from < input.length(); from += 1 + random.nextInt(5)) {
+                assertSameScan(input, chars, from, vector);
+                assertSameScan(bytes, bytes, from, vector);
+            }
+        }
+    }
+
+    @Test
+    void sameTokensWithEitherBackend() {
+        var input = ("let   longIdentifierNameThatSpansVectors = 1234567890123456789 + x;\n\n\n"
+                + "           \t\t  return    __private_name__ != 42;\r\n").repeat(50);
+        var scalar = new Lexer(CharBuffer.wrap(input.toCharArray()), null, 0, input.length(), ScalarScanner.INSTANCE);
+        var vector = new Lexer(CharBuffer.wrap(input.toCharArray()), null, 0, input.length(), new VectorScanner());
+
+        TokenType kind;
+        do {
+            kind = scalar.next();
+            assertEquals(kind, vector.next());
+            assertEquals(scalar.start(), vector.start());
+            assertEquals(scalar.length(), vector.length());
+            assertEquals(scalar.lines().format(scalar.start()), vector.lines().format(vector.start()));
+        } while (kind != TokenType.EOF);
+    }
+
+    private void assertSameScan(CharSequence expected, CharSequence actual, int from, Scanner vector) {
+        var scalar = ScalarScanner.INSTANCE;
+        var to = expected.length();
+        var scalarLines = new LineIndex();
+        var vectorLines = new LineIndex();
+
+        var skipped = scalar.skipWhitespace(expected, from, to, scalarLines);
+        assertEquals(skipped, vector.skipWhitespace(actual, from, to, vectorLines));
+        for (int i = from; i <= skipped && i < to; i++) {
+            assertEquals(scalarLines.position(i), vectorLines.position(i));
+        }
+        assertEquals(scalar.skipLetters(expected, from, to), vector.skipLetters(actual, from, to));
+        assertEquals(scalar.skipDigits(expected, from, to), vector.skipDigits(actual, from, to));
+    }
+}
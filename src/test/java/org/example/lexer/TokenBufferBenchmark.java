@@ -0,0 +1,55 @@
+package org.example.lexer;
+
+import java.util.concurrent.TimeUnit;
+import org.example.Corpus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-keystroke cost of keeping a document's tokens current: typing and
+ * deleting one char in the middle of documents of growing size, incrementally
+ * and by re-lexing the whole text.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenBufferBenchmark {
+    @Param({"65536", "1048576", "16777216"})
+    private int size;
+
+    private String before;
+    private String after;
+    private int offset;
+    private TokenBuffer tokens;
+
+    @Setup
+    public void setup() {
+        before = Corpus.program(size);
+        offset = before.indexOf(' ', before.length() / 2);
+        after = before.substring(0, offset) + "x" + before.substring(offset);
+        tokens = TokenBuffer.lex(before);
+    }
+
+    @Benchmark
+    public TokenBuffer.Change incremental() {
+        tokens.edit(after, offset, 0, 1);
+        return tokens.edit(before, offset, 1, 0);
+    }
+
+    @Benchmark
+    public int fullRelex() {
+        return TokenBuffer.lex(after).size() + TokenBuffer.lex(before).size();
+    }
+}
@@ -0,0 +1,132 @@
+package org.example.lexer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import org.example.Corpus;
+import org.example.token.SymbolTable;
+import org.example.token.TokenType;
+import org.junit.jupiter.api.Test;
+
+class TokenBufferTest {
+
+    @Test
+    void lex() {
+        var tokens = TokenBuffer.lex("let x = 10;");
+
+        assertEquals(6, tokens.size());
+        assertEquals(TokenType.LET, tokens.kind(0));
+        assertEquals(TokenType.IDENT, tokens.kind(1));
+        assertEquals("x", tokens.literal(1));
+        assertEquals(4, tokens.start(1));
+        assertEquals(TokenType.INT, tokens.kind(3));
+        assertEquals("10", tokens.token(3).getLiteral());
+        assertEquals(2, tokens.length(3));
+        assertEquals(TokenType.EOF, tokens.kind(5));
+        assertEquals(11, tokens.start(5));
+    }
+
+    @Test
+    void edit() {
+        var tokens = TokenBuffer.lex("let x = 10;\nlet y = 20;");
+
+        // "10" -> "1 + 2"
+        var change = tokens.edit("let x = 1 + 2;\nlet y = 20;", 8, 2, 5);
+
+        assertEquals(3, change.getFirst());
+        assertEquals(1, change.getRemoved());
+        assertEquals(3, change.getInserted());
+        assertEquals(TokenType.PLUS, tokens.kind(4));
+        assertEquals("20", tokens.literal(10));
+        assertEquals(23, tokens.start(10));
+        assertSameTokens(TokenBuffer.lex(tokens.text()), tokens);
+    }
+
+    @Test
+    void editJoiningTokens() {
+        var tokens = TokenBuffer.lex("a = = b");
+
+        // removing the space merges "= =" into "=="
+        tokens.edit("a == b", 3, 1, 0);
+
+        assertSameTokens(TokenBuffer.lex("a == b"), tokens);
+        assertEquals(TokenType.EQ, tokens.kind(1));
+    }
+
+    @Test
+    void randomEdits() {
+        var random = new Random(7);
+        var text = new StringBuilder(Corpus.program(4096));
+        var tokens = TokenBuffer.lex(text.toString());
+        var alphabet = "abc xyz 0123 =!+-*/<>;(){},\n\0";
+
+        for (int i = 0; i < 2000; i++) {
+            // edits cluster around a moving caret, like typing does
+            var offset = Math.min(text.length(), Math.max(0, (i * 37) % text.length() + random.nextInt(9) - 4));
+            var removed = Math.min(text.length() - offset, random.nextInt(4));
+            var inserted = new StringBuilder();
+            for (int n = random.nextInt(4); n > 0; n--) {
+                inserted.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            text.replace(offset, offset + removed, inserted.toString());
+            var newText = text.toString();
+
+            tokens.edit(newText, offset, removed, inserted.length());
+
+            assertSameTokens(TokenBuffer.lex(newText), tokens);
+        }
+    }
+
+    @Test
+    void pullAndDiscard() {
+        var text = "let x = 10;\nlet y = x + 20;";
+        var l = new Lexer(text);
+        var tokens = TokenBuffer.open(l);
+
+        assertFalse(tokens.pull(l, 5));
+        assertEquals(5, tokens.size());
+        tokens.discard(4);
+        assertEquals(TokenType.SEMICOLON, tokens.kind(0));
+        assertTrue(tokens.pull(l, 100));
+
+        var all = TokenBuffer.lex(text);
+        assertEquals(all.size() - 4, tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            assertEquals(all.kind(i + 4), tokens.kind(i), "kind of token " + i);
+            assertEquals(all.start(i + 4), tokens.start(i), "start of token " + i);
+        }
+        assertEquals("2:9", tokens.lines().format(tokens.start(4)));
+    }
+
+    @Test
+    void serialization() {
+        var text = "let x = 10;\nlet y = 20;";
+        var tokens = TokenBuffer.lex(text);
+        var newText = "let x = 1 + 2;\nlet y = 20;";
+        tokens.edit(newText, 8, 2, 5); // leaves tokens on both sides of the gap
+
+        var bytes = ByteBuffer.allocate(tokens.serializedSize() + 2);
+        bytes.put((byte) 9);
+        tokens.write(bytes);
+        assertEquals(1, bytes.remaining());
+        bytes.flip().position(1);
+
+        var read = TokenBuffer.read(newText, new SymbolTable(), bytes);
+        assertEquals(tokens.serializedSize() + 1, bytes.position());
+        assertSameTokens(TokenBuffer.lex(newText), read);
+        assertEquals("y", read.token(8).getLiteral());
+
+        bytes.position(1);
+        assertThrows(IllegalArgumentException.class, () -> TokenBuffer.read(text, new SymbolTable(), bytes));
+    }
+
+    private void assertSameTokens(TokenBuffer expected, TokenBuffer actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.kind(i), actual.kind(i), "kind of token " + i);
+            assertEquals(expected.start(i), actual.start(i), "start of token " + i);
+            assertEquals(expected.length(i), actual.length(i), "length of token " + i);
+        }
+    }
+}
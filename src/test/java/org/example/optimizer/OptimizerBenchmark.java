@@ -0,0 +1,106 @@
+package org.example.optimizer;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.example.ast.AstArena;
+import org.example.ast.Program;
+import org.example.evaluator.Evaluator;
+import org.example.lexer.Lexer;
+import org.example.object.MonkeyObject;
+import org.example.parser.Parser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Evaluating scripts as parsed and as optimized, and the cost of the pass.
+ * Node counts before and after are printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OptimizerBenchmark {
+    /**
+     * generated: 1000 lets over six names, each with literal subexpressions
+     * such as {@code 5 * 10 + -2}, {@code x * 1} and {@code --y}. plain: 1000
+     * lets of names and single literals. Every name starts out bound to a
+     * literal, so in both the lets fold to literals one by one.
+     */
+    @Param({"generated", "plain"})
+    private String shape;
+
+    private Program program;
+    private Program optimized;
+    private Evaluator evaluator;
+
+    @Setup
+    public void setup() {
+        var random = new Random(42);
+        program = new Parser(new Lexer(lets(random, 1000, shape.equals("generated")))).parseProgram();
+        optimized = Optimizer.optimize(program);
+        evaluator = new Evaluator();
+        var expected = evaluator.eval(program).inspect();
+        if (!expected.equals(evaluator.eval(optimized).inspect())) {
+            throw new IllegalStateException("optimized program disagrees");
+        }
+        System.out.println("result: " + expected + ", nodes: " + AstArena.of(program).size()
+                + " -> " + AstArena.of(optimized).size());
+    }
+
+    @Benchmark
+    public MonkeyObject eval() {
+        return evaluator.eval(program);
+    }
+
+    @Benchmark
+    public MonkeyObject evalOptimized() {
+        return evaluator.eval(optimized);
+    }
+
+    @Benchmark
+    public Program optimize() {
+        return Optimizer.optimize(program);
+    }
+
+    private static String lets(Random random, int count, boolean literals) {
+        var names = new String[]{"a", "b", "c", "total", "count", "value"};
+        var out = new StringBuilder();
+        for (var name : names) {
+            out.append("let ").append(name).append(" = ").append(1 + random.nextInt(100)).append(";\n");
+        }
+        for (int i = 0; i < count; i++) {
+            out.append("let ").append(names[random.nextInt(names.length)]).append(" = ");
+            for (int term = 0; term < 4; term++) {
+                if (term > 0) {
+                    out.append(' ').append("+-*".charAt(random.nextInt(3))).append(' ');
+                }
+                var name = names[random.nextInt(names.length)];
+                if (!literals) {
+                    out.append(random.nextBoolean() ? name : Integer.toString(1 + random.nextInt(9)));
+                    continue;
+                }
+                switch (random.nextInt(5)) {
+                    case 0 -> out.append('(').append(random.nextInt(10)).append(" * ").append(random.nextInt(10))
+                            .append(" + -").append(random.nextInt(10)).append(')');
+                    case 1 -> out.append('(').append(name).append(" * 1)");
+                    case 2 -> out.append("--").append(name);
+                    case 3 -> out.append('(').append(name).append(" + 0)");
+                    default -> out.append(name);
+                }
+            }
+            out.append(";\n");
+        }
+        return out.append("total").toString();
+    }
+}
@@ -0,0 +1,112 @@
+package org.example.optimizer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import java.util.Random;
+import org.example.ast.AstArena;
+import org.example.ast.Program;
+import org.example.evaluator.Evaluator;
+import org.example.lexer.Lexer;
+import org.example.parser.Parser;
+import org.junit.jupiter.api.Test;
+
+class OptimizerTest {
+
+    @Test
+    void testFolding() {
+        var tests = Map.ofEntries(
+                Map.entry("5 * 10 + -2", "48"),
+                Map.entry("9223372036854775807 + 1", "-9223372036854775808"),
+                Map.entry("--x", "(-(-x))"),
+                Map.entry("let x = 2 < 3; x * 1", "let x = (2 < 3);(x * 1)"),
+                Map.entry("7 / 0", "(7 / 0)"),
+                Map.entry("1 < 2", "(1 < 2)"),
+                Map.entry("let x = 5; let y = x * 2 + 1; y - x", "let x = 5;let y = 11;6"),
+                Map.entry("let x = 5; let x = x + 1; x", "let x = 5;let x = 6;6"),
+                Map.entry("let x = 5; let x = 1 < 2; x", "let x = 5;let x = (1 < 2);x"),
+                Map.entry("let x = 2 * a; x + 0; 0 + x; x - 0; x * 1; 1 * x; x / 1; --x",
+                        "let x = (2 * a);xxxxxxx"),
+                Map.entry("let x = 2 * a; 0 - x; x * 0; x + 1 - 3", "let x = (2 * a);(0 - x)(x * 0)(x + -2)"),
+                Map.entry("let x = 2 * a; x * 2 * 3 * 4; x + 1 - 1", "let x = (2 * a);(x * 24)x"),
+                Map.entry("(1 < 2) - 1 + 1", "(((1 < 2) - 1) + 1)"),
+                Map.entry("let x = 2 * a; !!(x < 2); !!x", "let x = (2 * a);(x < 2)(!(!x))"),
+                Map.entry("a + 0", "(a + 0)"),
+                Map.entry("let x = a < b; !!x", "let x = (a < b);x"),
+                Map.entry("return 1; let = 2; 3", "return 1;"));
+        tests.forEach((input, expected) -> assertEquals(expected, Optimizer.optimize(parse(input)).toString(), input));
+    }
+
+    @Test
+    void testShrinks() {
+        var program = parse("let a = 2 * 3; let b = a + 4 * (1 + 1); b * 1 + 0");
+        var optimized = Optimizer.optimize(program);
+        assertEquals(20, AstArena.of(program).size());
+        assertEquals("let a = 6;let b = 14;14", optimized.toString());
+        assertEquals(8, AstArena.of(optimized).size());
+    }
+
+    @Test
+    void testDeepNesting() {
+        var depth = 100_000;
+        assertEquals("100001", Optimizer.optimize(parse("(".repeat(depth) + "1" + " + 1)".repeat(depth))).toString());
+        var negated = Optimizer.optimize(parse("-".repeat(depth) + "x"));
+        assertEquals("x", negated.toString().replace("(", "").replace(")", "").replace("-", ""));
+    }
+
+    @Test
+    void sameAsEvaluator() {
+        var random = new Random(9);
+        for (int n = 0; n < 3000; n++) {
+            var input = program(random);
+            var program = parse(input);
+            var expected = new Evaluator().eval(program).inspect();
+            assertEquals(expected, new Evaluator().eval(Optimizer.optimize(program)).inspect(), input);
+        }
+    }
+
+    private static Program parse(String input) {
+        return new Parser(new Lexer(input)).parseProgram();
+    }
+
+    private static String program(Random random) {
+        var out = new StringBuilder();
+        for (int i = random.nextInt(6); i >= 0; i--) {
+            switch (random.nextInt(6)) {
+                case 0, 1 -> out.append("let ").append("abc".charAt(random.nextInt(3))).append(" = ");
+                case 2 -> out.append(random.nextInt(8) == 0 ? "return " : "");
+                default -> {
+                }
+            }
+            expression(random, out, 3);
+            out.append(random.nextInt(20) == 0 ? " " : "; ");
+        }
+        return out.toString();
+    }
+
+    // leans to the identities the optimizer looks for
+    private static void expression(Random random, StringBuilder out, int depth) {
+        switch (depth == 0 ? random.nextInt(2) : random.nextInt(6)) {
+            case 0 -> out.append(random.nextInt(4) == 0 ? 1L << 62 : random.nextInt(4));
+            case 1 -> out.append("abcd".charAt(random.nextInt(4)));
+            case 2 -> {
+                var operator = "-!".charAt(random.nextInt(2));
+                out.append(operator).append(operator);
+                expression(random, out, depth - 1);
+            }
+            case 3 -> {
+                out.append('(');
+                expression(random, out, depth - 1);
+                out.append(new String[]{" + 0", " - 0", " * 1", " / 1", " + 1", " - 2", " * 3"}[random.nextInt(7)]);
+                out.append(')');
+            }
+            default -> {
+                out.append('(');
+                expression(random, out, depth - 1);
+                out.append(' ').append(new String[]{"+", "-", "*", "/", "<", ">", "==", "!="}[random.nextInt(8)]).append(' ');
+                expression(random, out, depth - 1);
+                out.append(')');
+            }
+        }
+    }
+}
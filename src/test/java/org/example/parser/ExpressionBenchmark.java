@@ -0,0 +1,47 @@
+package org.example.parser;
+
+import java.util.concurrent.TimeUnit;
+import org.example.Corpus;
+import org.example.ast.Program;
+import org.example.lexer.TokenBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Expression parsing throughput: 1 MB of expression statements, and one
+ * expression nested 2000 prefix operators deep.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpressionBenchmark {
+    private TokenBuffer flat;
+    private TokenBuffer deep;
+
+    @Setup
+    public void setup() {
+        flat = TokenBuffer.lex(Corpus.program(1 << 20).replace("return ", "").replaceAll("let \\w+ = ", ""));
+        deep = TokenBuffer.lex("-!".repeat(1000) + "x * y;");
+    }
+
+    @Benchmark
+    public Program flat() {
+        return new Parser(flat).parseProgram();
+    }
+
+    @Benchmark
+    public Program deep() {
+        return new Parser(deep).parseProgram();
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.parser;
+
+import java.util.concurrent.TimeUnit;
+import org.example.Corpus;
+import org.example.ast.Program;
+import org.example.lexer.Lexer;
+import org.example.lexer.TokenBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Per-keystroke cost of keeping a document's AST current: typing and deleting
+ * one char in a statement in the middle of documents of growing size,
+ * incrementally, with a {@link IncrementalParser#program()} after each edit,
+ * and by parsing the whole text again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class IncrementalParserBenchmark {
+    @Param({"65536", "1048576", "16777216"})
+    private int size;
+
+    private String before;
+    private String after;
+    private int offset;
+    private IncrementalParser session;
+
+    @Setup
+    public void setup() {
+        before = Corpus.program(size);
+        offset = before.indexOf(' ', before.length() / 2);
+        after = before.substring(0, offset) + "x" + before.substring(offset);
+        session = new IncrementalParser(TokenBuffer.lex(before));
+    }
+
+    @Benchmark
+    public IncrementalParser.Change incremental() {
+        session.edit(after, offset, 0, 1);
+        return session.edit(before, offset, 1, 0);
+    }
+
+    @Benchmark
+    public Program incrementalProgram(Blackhole blackhole) {
+        session.edit(after, offset, 0, 1);
+        blackhole.consume(session.program());
+        session.edit(before, offset, 1, 0);
+        return session.program();
+    }
+
+    @Benchmark
+    public Program full() {
+        new Parser(new Lexer(after)).parseProgram();
+        return new Parser(new Lexer(before)).parseProgram();
+    }
+}
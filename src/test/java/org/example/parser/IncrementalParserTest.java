@@ -0,0 +1,171 @@
+package org.example.parser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Random;
+import org.example.Corpus;
+import org.example.ast.ErrorNode;
+import org.example.ast.ExpressionStatement;
+import org.example.ast.InfixExpression;
+import org.example.ast.LetStatement;
+import org.example.ast.Node;
+import org.example.ast.PrefixExpression;
+import org.example.ast.Program;
+import org.example.ast.ReturnStatement;
+import org.example.lexer.TokenBuffer;
+import org.junit.jupiter.api.Test;
+
+class IncrementalParserTest {
+
+    @Test
+    void reusesUntouchedStatements() {
+        var before = "let a = 1;\nlet b = 2;\nlet c = 3;\n";
+        var session = new IncrementalParser(TokenBuffer.lex(before));
+        var old = session.program().getStatements().toArray();
+
+        var offset = before.indexOf('2');
+        var after = before.substring(0, offset) + "2 + x" + before.substring(offset + 1);
+        var change = session.edit(after, offset, 1, 5);
+
+        var statements = session.program().getStatements();
+        assertEquals(3, statements.size());
+        assertSame(old[0], statements.get(0));
+        assertNotSame(old[1], statements.get(1));
+        assertSame(old[2], statements.get(2));
+        assertEquals("let b = (2 + x);", statements.get(1).toString());
+        assertEquals(new IncrementalParser.Change(1, 1, 1), change);
+    }
+
+    @Test
+    void splitsAndJoinsStatements() {
+        var text = "a + b; c * d; e";
+        var session = new IncrementalParser(TokenBuffer.lex(text));
+        var last = session.program().getStatements().get(2);
+
+        // drop the first ';': "a + b c * d; e" parses as "a + b" and "c * d"
+        session.edit("a + b c * d; e", 5, 1, 0);
+        assertEquals("(a + b)(c * d)e", session.program().toString());
+        assertSame(last, session.program().getStatements().get(2));
+
+        // open a brace that swallows the rest as one broken statement
+        session.edit("a + b { c * d; e", 6, 0, 2);
+        assertEquals(2, session.program().getStatements().size());
+        assertEquals(new Parser(TokenBuffer.lex("a + b { c * d; e")).parseProgram().toString(),
+                session.program().toString());
+    }
+
+    @Test
+    void locatesErrorsLikeAFreshParse() {
+        var text = "let a = 1;\nlet b 2;\nc;\n1 + ;";
+        var session = new IncrementalParser(TokenBuffer.lex(text));
+        var c = session.program().getStatements().get(2);
+        assertEquals(List.of("2:7: expected next token to be =, got INT instead",
+                "4:5: no prefix parse function for ; found"), session.errors());
+        assertEquals(session.errors(), errorMessages(session.program().getStatements()));
+
+        // a new line above moves both errors down; the statement between them is kept
+        var change = session.edit("\n" + text, 0, 0, 1);
+        assertEquals(List.of("3:7: expected next token to be =, got INT instead",
+                "5:5: no prefix parse function for ; found"), session.errors());
+        assertEquals(session.errors(), errorMessages(session.program().getStatements()));
+        assertSame(c, session.program().getStatements().get(2));
+        assertEquals(new IncrementalParser.Change(0, 4, 4), change);
+
+        // a same-length edit on a line of its own moves nothing after it
+        var old = session.program().getStatements().toArray();
+        session.edit("\nlet a = 2;\nlet b 2;\nc;\n1 + ;", 9, 1, 1);
+        assertSame(old[1], session.program().getStatements().get(1));
+        assertSame(old[3], session.program().getStatements().get(3));
+    }
+
+    @Test
+    void programIsAViewUntilTheNextEdit() {
+        var text = "a; b; c;";
+        var session = new IncrementalParser(TokenBuffer.lex(text));
+        var program = session.program();
+        assertSame(program, session.program());
+        var kept = new Program(program.getStatements());
+
+        session.edit("a; x; c;", 3, 1, 1);
+        assertThrows(ConcurrentModificationException.class, () -> program.getStatements().get(0));
+        assertEquals("abc", kept.toString());
+        assertEquals("axc", session.program().toString());
+    }
+
+    @Test
+    void randomEdits() {
+        var random = new Random(9);
+        var text = new StringBuilder(Corpus.program(4096));
+        var session = new IncrementalParser(TokenBuffer.lex(text.toString()));
+        var alphabet = "abc xyz 0123 =!+-*/<>;;;(){},\n";
+        var words = new String[]{"let ", "return ", "let x = ", ";\n"};
+
+        for (int i = 0; i < 3000; i++) {
+            // edits cluster around a moving caret, like typing does
+            var offset = Math.min(text.length(), Math.max(0, (i * 53) % Math.max(1, text.length()) + random.nextInt(9) - 4));
+            var removed = Math.min(text.length() - offset, random.nextInt(4));
+            var inserted = new StringBuilder();
+            if (random.nextInt(5) == 0) {
+                inserted.append(words[random.nextInt(words.length)]);
+            } else {
+                for (int n = random.nextInt(4); n > 0; n--) {
+                    inserted.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+            }
+            text.replace(offset, offset + removed, inserted.toString());
+            var newText = text.toString();
+
+            session.edit(newText, offset, removed, inserted.length());
+
+            assertSameParse(newText, session);
+        }
+    }
+
+    private void assertSameParse(String text, IncrementalParser session) {
+        var parser = new Parser(TokenBuffer.lex(text));
+        var expected = parser.parseProgram();
+        var actual = session.program();
+
+        assertEquals(parser.getErrors(), session.errors(), text);
+        assertEquals(expected.getStatements().size(), actual.getStatements().size(), text);
+        for (int i = 0; i < expected.getStatements().size(); i++) {
+            var e = expected.getStatements().get(i);
+            var a = actual.getStatements().get(i);
+            assertEquals(e.getClass(), a.getClass(), text);
+            assertEquals(e.toString(), a.toString(), text);
+        }
+        assertEquals(errorMessages(expected.getStatements()), errorMessages(actual.getStatements()), text);
+    }
+
+    /**
+     * The messages of the error nodes in the statements, in source order.
+     */
+    private static List<String> errorMessages(List<? extends Node> nodes) {
+        var messages = new ArrayList<String>();
+        var pending = new ArrayList<Node>(nodes);
+        while (!pending.isEmpty()) {
+            var node = pending.remove(0);
+            var children = new ArrayList<Node>();
+            if (node instanceof ErrorNode error) {
+                messages.add(error.getMessage());
+            } else if (node instanceof LetStatement let) {
+                children.add(let.getValue());
+            } else if (node instanceof ReturnStatement ret) {
+                children.add(ret.getReturnValue());
+            } else if (node instanceof ExpressionStatement stmt) {
+                children.add(stmt.getExpression());
+            } else if (node instanceof PrefixExpression prefix) {
+                children.add(prefix.getRight());
+            } else if (node instanceof InfixExpression infix) {
+                children.add(infix.getLeft());
+                children.add(infix.getRight());
+            }
+            children.removeIf(child -> child == null);
+            pending.addAll(0, children);
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.parser;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.example.Corpus;
+import org.example.ast.Program;
+import org.example.lexer.Lexer;
+import org.example.lexer.TokenBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing a memory-mapped file, pulling tokens from the lexer as the parse
+ * goes against buffering all of them first. Run with {@code -prof gc}: the
+ * difference in gc.alloc.rate.norm is the token buffer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappedParseBenchmark {
+    @Param({"16777216"})
+    private int size;
+
+    private Path file;
+
+    @Setup
+    public void setup() throws IOException {
+        file = Files.createTempFile("monkey", ".mk");
+        Files.writeString(file, Corpus.program(size));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public Program streamed() throws IOException {
+        return new Parser(Lexer.map(file)).parseProgram();
+    }
+
+    @Benchmark
+    public Program buffered() throws IOException {
+        return new Parser(TokenBuffer.of(Lexer.map(file))).parseProgram();
+    }
+}
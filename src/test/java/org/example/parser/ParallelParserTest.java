@@ -0,0 +1,73 @@
+package org.example.parser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.example.Corpus;
+import org.example.lexer.TokenBuffer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class ParallelParserTest {
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void startPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void sameAsSequential() {
+        assertSameParse(Corpus.program(1 << 20), 1000);
+        var input = "let x = 5;; return x;\n{ a; b }; c;;; let = 1; 1 + ; (a; { x } y; -!z";
+        for (int segmentSize = 1; segmentSize < 40; segmentSize++) {
+            assertSameParse(input, segmentSize);
+        }
+    }
+
+    @Test
+    void randomInputs() {
+        var random = new Random(5);
+        var pieces = new String[]{"let ", "return ", "x ", "y ", "1 ", "= ", "+ ", "- ", "* ", "! ", "== ", "< ",
+                ";", ";", ";", "{", "}", "(", ")", "\n", "fn ", ","};
+        for (int n = 0; n < 500; n++) {
+            var input = new StringBuilder();
+            for (int i = random.nextInt(200); i > 0; i--) {
+                input.append(pieces[random.nextInt(pieces.length)]);
+            }
+            assertSameParse(input.toString(), 1 + random.nextInt(20));
+        }
+    }
+
+    @Test
+    void boundaries() {
+        var tokens = TokenBuffer.lex("a; { b; c }; d;; e; f");
+        // a ; { b ; c } ; d ; ; e ; f EOF
+        assertArrayEquals(new int[]{0, 2, 8, 11, 13, 14}, ParallelParse.boundaries(tokens, 1));
+        assertArrayEquals(new int[]{0, 14}, ParallelParse.boundaries(tokens, 100));
+    }
+
+    private void assertSameParse(String input, int segmentSize) {
+        var tokens = TokenBuffer.lex(input);
+        var sequential = new Parser(tokens);
+        var expected = sequential.parseProgram();
+        var parallel = new Parser(tokens);
+        var actual = parallel.parseProgram(pool, segmentSize);
+
+        assertEquals(sequential.getErrors(), parallel.getErrors(), input);
+        assertEquals(expected.getStatements().size(), actual.getStatements().size(), input);
+        for (int i = 0; i < expected.getStatements().size(); i++) {
+            var e = expected.getStatements().get(i);
+            var a = actual.getStatements().get(i);
+            assertEquals(e.getClass(), a.getClass(), input);
+            assertEquals(e.toString(), a.toString(), input);
+        }
+    }
+}
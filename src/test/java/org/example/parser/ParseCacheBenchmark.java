@@ -0,0 +1,70 @@
+package org.example.parser;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.example.Corpus;
+import org.example.ast.Program;
+import org.example.lexer.TokenBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Startup cost of a script with and without a warm {@link ParseCache}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseCacheBenchmark {
+    @Param({"65536", "1048576"})
+    private int size;
+
+    private String source;
+    private ParseCache cache;
+
+    @Setup
+    public void setup() throws IOException {
+        source = Corpus.program(size);
+        Path directory = Files.createTempDirectory("parse-cache");
+        directory.toFile().deleteOnExit();
+        cache = new ParseCache(directory);
+        cache.parse(source);
+    }
+
+    /**
+     * No cache: lex and parse.
+     */
+    @Benchmark
+    public Program parse() {
+        return new Parser(TokenBuffer.lex(source)).parseProgram();
+    }
+
+    /**
+     * Hash the source, map its entry and read the arena and tokens.
+     */
+    @Benchmark
+    public ParseCache.Entry hit() throws IOException {
+        return cache.parse(source);
+    }
+
+    /**
+     * A hit that also builds the object AST.
+     */
+    @Benchmark
+    public Program hitProgram() throws IOException {
+        return cache.parse(source).program();
+    }
+}
@@ -0,0 +1,152 @@
+package org.example.parser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.example.Corpus;
+import org.example.ast.NodeKind;
+import org.example.lexer.TokenBuffer;
+import org.example.token.TokenType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ParseCacheTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void hitMatchesFreshParse() throws IOException {
+        var source = Corpus.program(8192) + "let = 1;\nx + ;";
+        var cache = new ParseCache(directory);
+
+        var fresh = cache.parse(source);
+        assertEquals(0, cache.hits());
+        assertEquals(1, cache.misses());
+        assertEquals(2, fresh.errors().size());
+
+        // a new cache over the same directory, as after a restart
+        var warm = new ParseCache(directory);
+        var cached = warm.parse(source);
+        assertEquals(1, warm.hits());
+        assertEquals(0, warm.misses());
+
+        assertEquals(fresh.program().toString(), cached.program().toString());
+        assertEquals(fresh.errors(), cached.errors());
+        assertEquals(fresh.arena().size(), cached.arena().size());
+        var expected = TokenBuffer.lex(source);
+        assertEquals(expected.size(), cached.tokens().size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.kind(i), cached.tokens().kind(i));
+            assertEquals(expected.start(i), cached.tokens().start(i));
+            assertEquals(expected.length(i), cached.tokens().length(i));
+        }
+        assertEquals(expected.token(1), cached.tokens().token(1));
+    }
+
+    @Test
+    void hitLinksTokensLikeAMiss() throws IOException {
+        var source = "let a = (007 + -b) * ((c));\n007 - a;\nreturn (1);\nlet = 1;\nx + ;\n"
+                + "let x = = 2;\n(1 + 2;\n-(0x) + 08;";
+        var fresh = new ParseCache(directory).parse(source);
+        var cached = new ParseCache(directory).parse(source);
+
+        assertEquals(fresh.program().toString(), cached.program().toString());
+        assertTrue(cached.program().toString().contains("((007 + (-b)) * c)"), cached.program().toString());
+        assertEquals("007", cached.program().getStatements().get(1).tokenLiteral());
+        var arena = fresh.arena();
+        var tokens = fresh.tokens();
+        assertEquals(arena.size(), cached.arena().size());
+        for (int node = 0; node < arena.size(); node++) {
+            var token = arena.token(node);
+            assertEquals(token, cached.arena().token(node));
+            var expected = switch (arena.kind(node)) {
+                case LET -> TokenType.LET;
+                case RETURN -> TokenType.RETURN;
+                case EXPRESSION -> tokens.kind(token);
+                case IDENTIFIER -> TokenType.IDENT;
+                case INTEGER -> TokenType.INT;
+                case PREFIX, INFIX -> arena.operator(node);
+                case ERROR -> arena.errorType(node);
+            };
+            assertEquals(expected, tokens.kind(token), "node " + node);
+        }
+        // the second "=" of "let x = = 2", not the first
+        var equals = source.indexOf("= = 2") + 2;
+        var error = -1;
+        for (int node = 0; node < arena.size(); node++) {
+            if (arena.kind(node) == NodeKind.ERROR && arena.errorType(node) == TokenType.ASSIGN) {
+                error = node;
+            }
+        }
+        assertEquals(equals, tokens.start(arena.token(error)));
+    }
+
+    @Test
+    void deepSource() throws IOException {
+        var depth = 200_000;
+        var source = "(".repeat(depth) + "1" + " + 1)".repeat(depth) + "; " + "-".repeat(depth) + "x;";
+        var cache = new ParseCache(directory);
+
+        var fresh = cache.parse(source);
+        assertEquals(1, cache.misses());
+        assertEquals(0, fresh.errors().size());
+
+        var cached = new ParseCache(directory).parse(source);
+        assertEquals(fresh.program().toString(), cached.program().toString());
+        assertEquals(fresh.arena().size(), cached.arena().size());
+    }
+
+    @Test
+    void keyedByContent() throws IOException {
+        var cache = new ParseCache(directory);
+        cache.parse("let x = 1;");
+        cache.parse("let x = 2;");
+        cache.parse(new StringBuilder("let x = 1;"));
+
+        assertEquals(1, cache.hits());
+        assertEquals(2, cache.misses());
+        assertEquals(ParseCache.key("let x = 1;"), ParseCache.key(new StringBuilder("let x = 1;")));
+        assertNotEquals(ParseCache.key("ab"), ParseCache.key("ba"));
+    }
+
+    @Test
+    void otherVersionIsStale() throws IOException {
+        var source = "let x = 1 + 2;";
+        var cache = new ParseCache(directory);
+        cache.parse(source);
+
+        var file = directory.resolve(ParseCache.key(source) + ".ast");
+        var bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(4, ParseCache.VERSION + 1);
+        Files.write(file, bytes);
+
+        var entry = cache.parse(source);
+        assertEquals("let x = (1 + 2);", entry.program().toString());
+        assertEquals(2, cache.misses());
+        assertEquals(1, cache.stale());
+
+        // the stale file was replaced
+        cache.parse(source);
+        assertEquals(1, cache.hits());
+    }
+
+    @Test
+    void corruptFileIsStale() throws IOException {
+        var source = "let x = 1 + 2;";
+        var cache = new ParseCache(directory);
+        cache.parse(source);
+
+        var file = directory.resolve(ParseCache.key(source) + ".ast");
+        var bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+
+        assertEquals("let x = (1 + 2);", cache.parse(source).program().toString());
+        assertEquals(1, cache.stale());
+        assertEquals(0, cache.hits());
+    }
+}
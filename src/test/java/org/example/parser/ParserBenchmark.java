@@ -0,0 +1,40 @@
+package org.example.parser;
+
+import java.util.concurrent.TimeUnit;
+import org.example.ast.Program;
+import org.example.lexer.Lexer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A parser per request: lexer and parser construction plus parsing a small
+ * snippet, the way a service handles one expression per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+    @Param({"x", "let total = price * quantity - discount;", "-a * b + c / d == e != !f"})
+    private String snippet;
+
+    @Benchmark
+    public Parser construct() {
+        return new Parser(new Lexer(snippet));
+    }
+
+    @Benchmark
+    public Program parse() {
+        return new Parser(new Lexer(snippet)).parseProgram();
+    }
+}
@@ -1,13 +1,17 @@
 package org.example.parser;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import org.example.Corpus;
+import org.example.ast.ErrorNode;
 import org.example.ast.Expression;
 import org.example.ast.ExpressionStatement;
 import org.example.ast.Identifier;
@@ -18,6 +22,7 @@ import org.example.ast.PrefixExpression;
 import org.example.ast.ReturnStatement;
 import org.example.ast.Statement;
 import org.example.lexer.Lexer;
+import org.example.lexer.TokenBuffer;
 import org.junit.jupiter.api.Test;
 
 class ParserTest {
@@ -43,6 +48,122 @@ class ParserTest {
         }
     }
 
+    @Test
+    void testParseErrorLocations() {
+        var input = """
+                let x 5;
+                let = 10;
+                  let 838383;""";
+        var p = new Parser(new Lexer(input));
+        p.parseProgram();
+
+        assertEquals(List.of(
+                "1:7: expected next token to be =, got INT instead",
+                "2:5: expected next token to be IDENT, got = instead",
+                "3:7: expected next token to be IDENT, got INT instead"), p.getErrors());
+    }
+
+    @Test
+    void testStatementValues() {
+        var input = """
+                let x = 5;
+                let y = -x * (2 + y)
+                return x != y;
+                return 993322""";
+        var p = new Parser(new Lexer(input));
+        var program = p.parseProgram();
+        checkParseErrors(p);
+
+        assertEquals(4, program.getStatements().size());
+        testIntegerLiteral(((LetStatement) program.getStatements().get(0)).getValue(), 5);
+        assertEquals("((-x) * (2 + y))", ((LetStatement) program.getStatements().get(1)).getValue().toString());
+        assertEquals("(x != y)", ((ReturnStatement) program.getStatements().get(2)).getReturnValue().toString());
+        testIntegerLiteral(((ReturnStatement) program.getStatements().get(3)).getReturnValue(), 993322);
+    }
+
+    @Test
+    void testDeepNesting() {
+        var depth = 200_000;
+        var prefixes = new Parser(new Lexer("-".repeat(depth) + "x")).parseProgram();
+        var groups = new Parser(new Lexer("(".repeat(depth) + "x" + ")".repeat(depth) + " + 1")).parseProgram();
+        var chain = new Parser(new Lexer("x" + " + x * x".repeat(depth))).parseProgram();
+
+        var exp = ((ExpressionStatement) prefixes.getStatements().get(0)).getExpression();
+        for (int i = 0; i < depth; i++) {
+            exp = ((PrefixExpression) exp).getRight();
+        }
+        assertEquals("x", exp.toString());
+        var sum = (InfixExpression) ((ExpressionStatement) groups.getStatements().get(0)).getExpression();
+        assertEquals("x", sum.getLeft().toString());
+        assertEquals(1, chain.getStatements().size());
+    }
+
+    @Test
+    void testUnbalancedGroups() {
+        var p = new Parser(new Lexer("let x = (a + (b * c);\n(1 + 2));\nlet y = 3;"));
+        var program = p.parseProgram();
+
+        assertEquals(List.of(
+                "1:21: expected next token to be ), got ; instead",
+                "2:8: no prefix parse function for ) found"), p.getErrors());
+        assertEquals("(a + (b * c))", ((LetStatement) program.getStatements().get(0)).getValue().toString());
+        testLetStatement(program.getStatements().get(program.getStatements().size() - 1), "y");
+    }
+
+    @Test
+    void testErrorRecovery() {
+        var input = """
+                let x 5 + { 1; 2 };
+                1 + ;
+                { a; b } let y = 3;
+                return z;
+                ) * 4;
+                c;""";
+        var p = new Parser(new Lexer(input));
+        var program = p.parseProgram();
+
+        assertEquals(List.of(
+                "1:7: expected next token to be =, got INT instead",
+                "2:5: no prefix parse function for ; found",
+                "3:1: no prefix parse function for { found",
+                "5:1: no prefix parse function for ) found"), p.getErrors());
+
+        var statements = program.getStatements();
+        assertEquals(7, statements.size());
+        var error = (ErrorNode) statements.get(0);
+        assertEquals("let", error.tokenLiteral());
+        assertEquals(p.getErrors().get(0), error.getMessage());
+        assertEquals("(1 + <error>)", statements.get(1).toString());
+        assertTrue(((ExpressionStatement) statements.get(2)).getExpression() instanceof ErrorNode);
+        testLetStatement(statements.get(3), "y");
+        assertTrue(statements.get(4) instanceof ReturnStatement);
+        assertTrue(((ExpressionStatement) statements.get(5)).getExpression() instanceof ErrorNode);
+        assertEquals("c", statements.get(6).toString());
+    }
+
+    @Test
+    void testRecoveryAtEof() {
+        // input cut off at EOF, the error it reports (if any), and the statement recovered from it
+        var tests = new String[][]{
+                {"let x = 5", null, "let x = 5;"},
+                {"return", "3:7: no prefix parse function for EOF found", "return <error>;"},
+                {"let", "3:4: expected next token to be IDENT, got EOF instead", "<error>"},
+                {"{ a; b", "3:1: no prefix parse function for { found", "<error>"},
+                {"1 +", "3:4: no prefix parse function for EOF found", "(1 + <error>)"},
+                {"let x = { 1 }", "3:9: no prefix parse function for { found", "let x = <error>;"},
+        };
+        for (var test : tests) {
+            var p = new Parser(new Lexer("let a = 1;\nb;\n" + test[0]));
+            var statements = p.parseProgram().getStatements();
+
+            assertEquals(test[1] == null ? List.of() : List.of(test[1]), p.getErrors(), test[0]);
+            assertEquals(3, statements.size(), test[0]);
+            testLetStatement(statements.get(0), "a");
+            assertEquals("b", statements.get(1).toString(), test[0]);
+            assertEquals(test[2], statements.get(2).toString(), test[0]);
+        }
+    }
+
     @Test
     void testReturnStatements() {
         var input = """
@@ -82,6 +203,30 @@ class ParserTest {
         assertEquals("foobar", ident.tokenLiteral());
     }
 
+    @Test
+    void testIdentifierSymbols() {
+        var input = """
+                let x = 5;
+                x * y + x;""";
+        var l = new Lexer(input);
+        var p = new Parser(l);
+        var program = p.parseProgram();
+        checkParseErrors(p);
+
+        var name = ((LetStatement) program.getStatements().get(0)).getName();
+        var sum = (InfixExpression) ((ExpressionStatement) program.getStatements().get(1)).getExpression();
+        var product = (InfixExpression) sum.getLeft();
+        var x1 = (Identifier) product.getLeft();
+        var y = (Identifier) product.getRight();
+        var x2 = (Identifier) sum.getRight();
+
+        assertEquals(name.getSymbol(), x1.getSymbol());
+        assertEquals(name.getSymbol(), x2.getSymbol());
+        assertNotEquals(name.getSymbol(), y.getSymbol());
+        assertSame(name.getValue(), x2.getValue());
+        assertEquals("y", p.getSymbols().name(y.getSymbol()));
+    }
+
     @Test
     void testIntegerLiteralExpression() {
         var input = "5;";
@@ -154,6 +299,15 @@ class ParserTest {
         tests.put("5 > 4 == 3 < 4", "((5 > 4) == (3 < 4))");
         tests.put("5 < 4 != 3 > 4", "((5 < 4) != (3 > 4))");
         tests.put("3 + 4 * 5 == 3 * 1 + 4 * 5", "((3 + (4 * 5)) == ((3 * 1) + (4 * 5)))");
+        tests.put("1 + (2 + 3) + 4", "((1 + (2 + 3)) + 4)");
+        tests.put("(5 + 5) * 2", "((5 + 5) * 2)");
+        tests.put("2 / (5 + 5)", "(2 / (5 + 5))");
+        tests.put("-(5 + 5)", "(-(5 + 5))");
+        tests.put("!(a == b)", "(!(a == b))");
+        tests.put("((a))", "a");
+        tests.put("a * -b + c", "((a * (-b)) + c)");
+        tests.put("-a - -b - c", "(((-a) - (-b)) - c)");
+        tests.put("a < (b - c) * d > e", "((a < ((b - c) * d)) > e)");
 
         for (var k : tests.keySet()) {
             var l = new Lexer(k);
@@ -165,6 +319,38 @@ class ParserTest {
         }
     }
 
+    @Test
+    void testParseTokenBuffer() {
+        var tokens = TokenBuffer.lex("let x = 5; -a * b; c + d");
+
+        var first = new Parser(tokens);
+        var program = first.parseProgram();
+        checkParseErrors(first);
+        // parsing leaves the buffer untouched, so it can be parsed again
+        var second = new Parser(tokens);
+        var again = second.parseProgram();
+        checkParseErrors(second);
+
+        assertEquals("let x = 5;((-a) * b)(c + d)", program.toString());
+        assertEquals(program.toString(), again.toString());
+        assertEquals(first.getSymbols(), tokens.symbols());
+    }
+
+    @Test
+    void testParseLexerInBatches() {
+        // statements longer than a batch, and errors on either side of released tokens
+        var input = Corpus.program(100_000) + "let = 5;\n" + "1 + ".repeat(3000) + "1;\n" + "let y 3;\n"
+                + Corpus.program(50_000) + "(1 + ";
+
+        var streamed = new Parser(new Lexer(input));
+        var program = streamed.parseProgram();
+        var buffered = new Parser(TokenBuffer.lex(input));
+
+        assertEquals(buffered.parseProgram().toString(), program.toString());
+        assertEquals(buffered.getErrors(), streamed.getErrors());
+        assertEquals(3, streamed.getErrors().size());
+    }
+
     private void testIntegerLiteral(Expression exp, long value) {
         assertTrue(exp instanceof IntegerLiteral, "exp not IntegerLiteral");
         var literal = (IntegerLiteral) exp;
@@ -0,0 +1,62 @@
+package org.example.parser;
+
+import java.util.concurrent.TimeUnit;
+import org.example.ast.Program;
+import org.example.lexer.TokenBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A service answering the same small expressions over and over, with and
+ * without a {@link ProgramCache}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class ProgramCacheBenchmark {
+    private static final String[] SNIPPETS = {
+            "let total = price * quantity + shipping;",
+            "return -balance < limit;",
+            "a * b + c * d - e / f;",
+            "let ok = !(x == y) != flag;",
+    };
+
+    private ProgramCache cache;
+
+    @Setup
+    public void setup() {
+        cache = new ProgramCache(1 << 20);
+    }
+
+    @State(Scope.Thread)
+    public static class Counter {
+        int next;
+
+        String snippet() {
+            return SNIPPETS[next++ & 3];
+        }
+    }
+
+    @Benchmark
+    public Program parse(Counter counter) {
+        return new Parser(TokenBuffer.lex(counter.snippet())).parseProgram();
+    }
+
+    @Benchmark
+    public ProgramCache.Parsed cached(Counter counter) {
+        return cache.get(counter.snippet());
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.parser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+class ProgramCacheTest {
+
+    @Test
+    void hitSharesTheParse() {
+        var cache = new ProgramCache(1 << 20);
+
+        var first = cache.get("let x = 1 + 2 * y;");
+        var second = cache.get(new StringBuilder("let x = 1 + 2 * y;"));
+
+        assertSame(first, second);
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+        assertSame(first.getProgram(), second.getProgram());
+        assertEquals("let x = (1 + (2 * y));", second.getProgram().toString());
+    }
+
+    @Test
+    void entriesCannotChange() {
+        var cache = new ProgramCache(1 << 20);
+        var parsed = cache.get("let = 1;");
+
+        assertEquals(1, parsed.getErrors().size());
+        assertThrows(UnsupportedOperationException.class, () -> parsed.getErrors().clear());
+        var statements = parsed.getProgram().getStatements();
+        assertThrows(UnsupportedOperationException.class, () -> statements.clear());
+        assertEquals(1, cache.get("let = 1;").getProgram().getStatements().size());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        var one = new ProgramCache(Long.MAX_VALUE);
+        one.get("let a = 0;");
+        var entry = one.weight();
+        // room for four entries of this size
+        var cache = new ProgramCache(4 * entry + entry / 2);
+
+        for (int i = 0; i < 4; i++) {
+            cache.get("let a = " + i + ";");
+        }
+        cache.get("let a = 0;");
+        cache.get("let a = 4;");
+
+        assertEquals(4, cache.size());
+        assertEquals(1, cache.evictions());
+        assertTrue(cache.weight() <= 4 * entry + entry / 2);
+        var hits = cache.hits();
+        cache.get("let a = 0;");
+        assertEquals(hits + 1, cache.hits(), "recently used entry was kept");
+        cache.get("let a = 1;");
+        assertEquals(hits + 1, cache.hits(), "oldest unused entry was evicted");
+    }
+
+    @Test
+    void concurrentLookups() throws Exception {
+        var cache = new ProgramCache(8 * 1024);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            var tasks = new ArrayList<Callable<Void>>();
+            for (int t = 0; t < 4; t++) {
+                var seed = t;
+                tasks.add(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        var n = (i * 7 + seed) % 50;
+                        var program = cache.get("let v = " + n + " * x;").getProgram();
+                        assertEquals("let v = (" + n + " * x);", program.toString());
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(8000, cache.hits() + cache.misses());
+        assertTrue(cache.weight() <= 8 * 1024);
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.parser;
+
+import java.util.concurrent.TimeUnit;
+import org.example.Corpus;
+import org.example.ast.Program;
+import org.example.lexer.TokenBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing a 1 MB program with every {@code errorEvery}-th statement replaced
+ * by a broken one (0 for none), to show recovery keeps the parse linear.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecoveryBenchmark {
+    private static final String[] BROKEN = {"let = 1;", "1 + ;", "{ a; b }", "let x 5;", ") * 4;", "let y = { 1 };"};
+
+    @Param({"0", "100", "10", "2"})
+    private int errorEvery;
+
+    private TokenBuffer tokens;
+
+    @Setup
+    public void setup() {
+        var lines = Corpus.program(1 << 20).split("\n");
+        if (errorEvery > 0) {
+            for (int i = 0; i < lines.length; i += errorEvery) {
+                lines[i] = BROKEN[(i / errorEvery) % BROKEN.length];
+            }
+        }
+        tokens = TokenBuffer.lex(String.join("\n", lines));
+    }
+
+    @Benchmark
+    public Program parse() {
+        return new Parser(tokens).parseProgram();
+    }
+}
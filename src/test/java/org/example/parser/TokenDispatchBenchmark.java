@@ -0,0 +1,119 @@
+package org.example.parser;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import org.example.Corpus;
+import org.example.lexer.Lexer;
+import org.example.token.TokenType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the parser's per-token table lookups keyed by the old String
+ * token types against the TokenType keyed tables.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenDispatchBenchmark {
+    private static final Integer PREFIX = 1;
+    private static final Integer INFIX = 2;
+
+    // the String constants the tokens used to carry, e.g. "IDENT", "==", "LET"
+    private String[] stringTypes;
+    private TokenType[] enumTypes;
+
+    private Map<String, Integer> stringPrefix;
+    private Map<String, Integer> stringInfix;
+    private Map<String, Integer> stringPrecedence;
+
+    private Map<TokenType, Integer> enumPrefix;
+    private Map<TokenType, Integer> enumInfix;
+    private Map<TokenType, Integer> enumPrecedence;
+
+    @Setup
+    public void setup() {
+        var types = new ArrayList<TokenType>();
+        var l = new Lexer(Corpus.program(256 * 1024));
+        for (var tok = l.nextToken(); tok.getType() != TokenType.EOF; tok = l.nextToken()) {
+            types.add(tok.getType());
+        }
+        enumTypes = types.toArray(new TokenType[0]);
+        stringTypes = new String[enumTypes.length];
+        for (int i = 0; i < enumTypes.length; i++) {
+            stringTypes[i] = enumTypes[i].toString();
+        }
+
+        stringPrefix = new HashMap<>();
+        stringInfix = new HashMap<>();
+        stringPrecedence = new HashMap<>();
+        enumPrefix = new EnumMap<>(TokenType.class);
+        enumInfix = new EnumMap<>(TokenType.class);
+        enumPrecedence = new EnumMap<>(TokenType.class);
+        for (var type : new TokenType[]{TokenType.IDENT, TokenType.INT, TokenType.BANG, TokenType.MINUS}) {
+            stringPrefix.put(type.toString(), PREFIX);
+            enumPrefix.put(type, PREFIX);
+        }
+        var operators = new TokenType[]{TokenType.PLUS, TokenType.MINUS, TokenType.SLASH, TokenType.ASTERISK,
+                TokenType.EQ, TokenType.NOT_EQ, TokenType.LT, TokenType.GT};
+        for (int i = 0; i < operators.length; i++) {
+            stringInfix.put(operators[i].toString(), INFIX);
+            enumInfix.put(operators[i], INFIX);
+            stringPrecedence.put(operators[i].toString(), i / 2);
+            enumPrecedence.put(operators[i], i / 2);
+        }
+    }
+
+    @Benchmark
+    public int stringTypes() {
+        int acc = 0;
+        for (var type : stringTypes) {
+            if (Objects.equals(type, "EOF") || Objects.equals(type, ";")) {
+                continue;
+            }
+            if (stringPrefix.get(type) != null) {
+                acc++;
+            }
+            if (stringInfix.get(type) != null) {
+                acc++;
+            }
+            if (stringPrecedence.containsKey(type)) {
+                acc += stringPrecedence.get(type);
+            }
+        }
+        return acc;
+    }
+
+    @Benchmark
+    public int enumTypes() {
+        int acc = 0;
+        for (var type : enumTypes) {
+            if (type == TokenType.EOF || type == TokenType.SEMICOLON) {
+                continue;
+            }
+            if (enumPrefix.get(type) != null) {
+                acc++;
+            }
+            if (enumInfix.get(type) != null) {
+                acc++;
+            }
+            acc += enumPrecedence.getOrDefault(type, 0);
+        }
+        return acc;
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.resolver;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.example.ast.Program;
+import org.example.evaluator.Evaluator;
+import org.example.lexer.Lexer;
+import org.example.object.MonkeyObject;
+import org.example.parser.Parser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The evaluator on programs that mostly read and bind names, looking them
+ * up in its map-based environment or reading frame slots after resolving.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResolverBenchmark {
+    /**
+     * Distinct names bound and read by 1000 let statements.
+     */
+    @Param({"6", "100"})
+    private int names;
+
+    private Program program;
+    private Resolver.Resolved resolved;
+    private Evaluator evaluator;
+
+    @Setup
+    public void setup() {
+        program = new Parser(new Lexer(lets(new Random(42), names, 1000))).parseProgram();
+        resolved = Resolver.resolve(program);
+        evaluator = new Evaluator();
+        var expected = evaluator.eval(program).inspect();
+        if (!resolved.getErrors().isEmpty() || !expected.equals(evaluator.eval(resolved).inspect())) {
+            throw new IllegalStateException("resolved program disagrees");
+        }
+    }
+
+    @Benchmark
+    public MonkeyObject map() {
+        return evaluator.eval(program);
+    }
+
+    @Benchmark
+    public MonkeyObject slots() {
+        return evaluator.eval(resolved);
+    }
+
+    @Benchmark
+    public Resolver.Resolved resolve() {
+        return Resolver.resolve(program);
+    }
+
+    private static String lets(Random random, int count, int statements) {
+        var names = new String[count];
+        var out = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            names[i] = "value" + "abcdefghijklmnopqrstuvwxyz".charAt(i % 26) + "abcdefghijklmnopqrstuvwxyz".charAt(i / 26);
+            out.append("let ").append(names[i]).append(" = ").append(1 + random.nextInt(100)).append(";\n");
+        }
+        for (int i = 0; i < statements; i++) {
+            out.append("let ").append(names[random.nextInt(count)]).append(" = ")
+                    .append(names[random.nextInt(count)]).append(' ')
+                    .append("+-*".charAt(random.nextInt(3))).append(' ')
+                    .append(names[random.nextInt(count)]).append(" / ")
+                    .append(1 + random.nextInt(9)).append(" - ")
+                    .append(names[random.nextInt(count)]).append(";\n");
+        }
+        return out.append(names[0]).toString();
+    }
+}
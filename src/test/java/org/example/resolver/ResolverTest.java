@@ -0,0 +1,150 @@
+package org.example.resolver;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.example.ast.Expression;
+import org.example.ast.ExpressionStatement;
+import org.example.ast.Identifier;
+import org.example.ast.InfixExpression;
+import org.example.ast.LetStatement;
+import org.example.ast.PrefixExpression;
+import org.example.ast.Program;
+import org.example.ast.ReturnStatement;
+import org.example.evaluator.Evaluator;
+import org.example.lexer.Lexer;
+import org.example.parser.Parser;
+import org.junit.jupiter.api.Test;
+
+class ResolverTest {
+
+    @Test
+    void testSlots() {
+        var resolved = Resolver.resolve(parse("let a = 1; let b = a; let a = b + a; -a * b"));
+
+        assertEquals(List.of(), resolved.getErrors());
+        assertEquals(2, resolved.getFrameSize());
+        assertEquals(List.of("a@0:0", "a@0:0", "b@0:1", "b@0:1", "a@0:0", "a@0:0", "a@0:0", "b@0:1"),
+                coordinates(resolved.getProgram()));
+    }
+
+    @Test
+    void testErrors() {
+        assertEquals(List.of("identifier not found: x", "identifier not found: y"),
+                Resolver.resolve(parse("x + 1; let x = 2; x * y")).getErrors());
+        assertEquals(List.of("identifier not found: x"), Resolver.resolve(parse("let x = x + 1;")).getErrors());
+        assertEquals(List.of("1:8: expected next token to be IDENT, got = instead", "identifier not found: z"),
+                Resolver.resolve(parse("1; let = 2; z")).getErrors());
+        // never runs
+        assertEquals(List.of(), Resolver.resolve(parse("return 1; x")).getErrors());
+    }
+
+    @Test
+    void testEval() {
+        var evaluator = new Evaluator();
+        assertEquals("15", evaluator.eval(Resolver.resolve(parse("let a = 5; let b = a * 2; a + b"))).inspect());
+        assertEquals("ERROR: identifier not found: c",
+                evaluator.eval(Resolver.resolve(parse("1 / 0; c"))).inspect());
+        // each run has a frame of its own, apart from the evaluator's environment
+        assertEquals("true", evaluator.eval(Resolver.resolve(parse("let a = 1 < 2; a"))).inspect());
+        assertEquals("ERROR: identifier not found: a", evaluator.eval(parse("a")).inspect());
+    }
+
+    @Test
+    void testDeepNesting() {
+        var depth = 100_000;
+        var resolved = Resolver.resolve(parse("let x = 1; " + "(".repeat(depth) + "x" + " + x)".repeat(depth)));
+        assertEquals(List.of(), resolved.getErrors());
+        assertEquals(depth + 2, coordinates(resolved.getProgram()).size());
+    }
+
+    @Test
+    void sameAsEvaluator() {
+        var random = new Random(13);
+        for (int n = 0; n < 3000; n++) {
+            var input = program(random);
+            var program = parse(input);
+            var expected = new Evaluator().eval(program).inspect();
+            var resolved = Resolver.resolve(program);
+            var actual = new Evaluator().eval(resolved).inspect();
+            if (resolved.getErrors().isEmpty()) {
+                assertEquals(expected, actual, input);
+            } else {
+                // a run-time error may come before the first name error
+                assertTrue(expected.startsWith("ERROR: "), input);
+                assertEquals("ERROR: " + resolved.getErrors().get(0), actual, input);
+            }
+        }
+    }
+
+    private static Program parse(String input) {
+        return new Parser(new Lexer(input)).parseProgram();
+    }
+
+    // name@depth:slot of every identifier, in evaluation order
+    private static List<String> coordinates(Program program) {
+        var out = new ArrayList<String>();
+        for (var statement : program.getStatements()) {
+            if (statement instanceof LetStatement let) {
+                collect(let.getValue(), out);
+                collect(let.getName(), out);
+            } else if (statement instanceof ExpressionStatement stmt) {
+                collect(stmt.getExpression(), out);
+            } else if (statement instanceof ReturnStatement ret) {
+                collect(ret.getReturnValue(), out);
+            }
+        }
+        return out;
+    }
+
+    private static void collect(Expression root, List<String> out) {
+        var stack = new ArrayList<Expression>();
+        stack.add(root);
+        while (!stack.isEmpty()) {
+            var expression = stack.remove(stack.size() - 1);
+            if (expression instanceof InfixExpression infix) {
+                stack.add(infix.getRight());
+                stack.add(infix.getLeft());
+            } else if (expression instanceof PrefixExpression prefix) {
+                stack.add(prefix.getRight());
+            } else if (expression instanceof Identifier ident) {
+                out.add(ident.getValue() + "@" + ident.getDepth() + ":" + ident.getSlot());
+            }
+        }
+    }
+
+    private static String program(Random random) {
+        var out = new StringBuilder();
+        for (int i = random.nextInt(6); i >= 0; i--) {
+            switch (random.nextInt(6)) {
+                case 0, 1 -> out.append("let ").append("abc".charAt(random.nextInt(3))).append(" = ");
+                case 2 -> out.append(random.nextInt(8) == 0 ? "return " : "");
+                default -> {
+                }
+            }
+            expression(random, out, 3);
+            out.append(random.nextInt(20) == 0 ? " " : "; ");
+        }
+        return out.toString();
+    }
+
+    private static void expression(Random random, StringBuilder out, int depth) {
+        switch (depth == 0 ? random.nextInt(2) : random.nextInt(5)) {
+            case 0 -> out.append(random.nextInt(5));
+            case 1 -> out.append("abcd".charAt(random.nextInt(4)));
+            case 2 -> {
+                out.append("-!".charAt(random.nextInt(2)));
+                expression(random, out, depth - 1);
+            }
+            default -> {
+                out.append('(');
+                expression(random, out, depth - 1);
+                out.append(' ').append(new String[]{"+", "-", "*", "/", "<", ">", "==", "!="}[random.nextInt(8)]).append(' ');
+                expression(random, out, depth - 1);
+                out.append(')');
+            }
+        }
+    }
+}
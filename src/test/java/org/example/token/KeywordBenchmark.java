@@ -0,0 +1,86 @@
+package org.example.token;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.example.Corpus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Classifies every identifier-shaped word of an identifier-heavy script, the
+ * old way (substring, then containsKey and get on a HashMap) and in place.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeywordBenchmark {
+    private String input;
+    private int[] starts;
+    private int[] ends;
+    private Map<String, TokenType> keywords;
+
+    @Setup
+    public void setup() {
+        input = Corpus.program(256 * 1024);
+        var s = new ArrayList<Integer>();
+        var e = new ArrayList<Integer>();
+        for (int i = 0; i < input.length(); ) {
+            if (Character.isLetter(input.charAt(i))) {
+                var start = i;
+                while (i < input.length() && Character.isLetter(input.charAt(i))) {
+                    i++;
+                }
+                s.add(start);
+                e.add(i);
+            } else {
+                i++;
+            }
+        }
+        starts = s.stream().mapToInt(Integer::intValue).toArray();
+        ends = e.stream().mapToInt(Integer::intValue).toArray();
+
+        keywords = new HashMap<>();
+        for (var type : TokenType.values()) {
+            if (type.literal() != null && !type.literal().isEmpty() && Character.isLetter(type.literal().charAt(0))) {
+                keywords.put(type.literal(), type);
+            }
+        }
+    }
+
+    @Benchmark
+    public int hashMap() {
+        int keywordCount = 0;
+        for (int i = 0; i < starts.length; i++) {
+            var ident = input.substring(starts[i], ends[i]);
+            var type = keywords.containsKey(ident) ? keywords.get(ident) : TokenType.IDENT;
+            if (type != TokenType.IDENT) {
+                keywordCount++;
+            }
+        }
+        return keywordCount;
+    }
+
+    @Benchmark
+    public int inPlace() {
+        int keywordCount = 0;
+        for (int i = 0; i < starts.length; i++) {
+            if (Token.lookupIdent(input, starts[i], ends[i]) != TokenType.IDENT) {
+                keywordCount++;
+            }
+        }
+        return keywordCount;
+    }
+}
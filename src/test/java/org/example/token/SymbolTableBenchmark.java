@@ -0,0 +1,44 @@
+package org.example.token;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Interning names that are already in a table shared by all benchmark
+ * threads, the way segments of one parallel parse use it. Run with
+ * {@code -t 1}, {@code -t 2}, ... to see how lookups scale with threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SymbolTableBenchmark {
+    private static final String INPUT = "let total = price * quantity - discount; counter + x / result != value";
+
+    private SymbolTable symbols;
+
+    @Setup
+    public void setup() {
+        symbols = new SymbolTable();
+        lookup();
+    }
+
+    @Benchmark
+    public int lookup() {
+        // total, price, quantity, discount, counter, x, result, value
+        return symbols.intern(INPUT, 4, 9) + symbols.intern(INPUT, 12, 17) + symbols.intern(INPUT, 20, 28)
+                + symbols.intern(INPUT, 31, 39) + symbols.intern(INPUT, 41, 48) + symbols.intern(INPUT, 51, 52)
+                + symbols.intern(INPUT, 55, 61) + symbols.intern(INPUT, 65, 70);
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.token;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.CyclicBarrier;
+import org.junit.jupiter.api.Test;
+
+class SymbolTableTest {
+
+    @Test
+    void intern() {
+        var symbols = new SymbolTable();
+
+        var x = symbols.intern("x");
+        var foo = symbols.intern("let foo = x;", 4, 7);
+
+        assertEquals(0, x);
+        assertEquals(1, foo);
+        assertEquals(x, symbols.intern("(x)", 1, 2));
+        assertEquals(foo, symbols.intern(new StringBuilder("foo"), 0, 3));
+        assertEquals("foo", symbols.name(foo));
+        assertSame(symbols.name(x), symbols.name(symbols.intern("x")));
+        assertEquals(2, symbols.size());
+    }
+
+    @Test
+    void grow() {
+        var symbols = new SymbolTable();
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i, symbols.intern("name" + i));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i, symbols.intern("name" + i));
+            assertEquals("name" + i, symbols.name(i));
+        }
+    }
+
+    @Test
+    void concurrentIntern() throws Exception {
+        var symbols = new SymbolTable();
+        var threads = 8;
+        var names = 20_000;
+        var ids = new int[threads][names];
+        var start = new CyclicBarrier(threads);
+        var workers = new ArrayList<Thread>();
+        for (int t = 0; t < threads; t++) {
+            var thread = t;
+            workers.add(new Thread(() -> {
+                try {
+                    start.await();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                // every thread adds the same names, from different ends, while the table grows
+                for (int n = 0; n < names; n++) {
+                    var name = thread % 2 == 0 ? n : names - 1 - n;
+                    ids[thread][name] = symbols.intern("name" + name);
+                }
+            }));
+        }
+        workers.forEach(Thread::start);
+        for (var worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(names, symbols.size());
+        for (int n = 0; n < names; n++) {
+            var id = ids[0][n];
+            assertEquals("name" + n, symbols.name(id));
+            for (int t = 1; t < threads; t++) {
+                assertEquals(id, ids[t][n], "name" + n + " in thread " + t);
+            }
+        }
+    }
+}
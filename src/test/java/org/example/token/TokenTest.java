@@ -0,0 +1,32 @@
+package org.example.token;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class TokenTest {
+
+    @Test
+    void lookupIdent() {
+        assertEquals(TokenType.FUNCTION, Token.lookupIdent("fn"));
+        assertEquals(TokenType.LET, Token.lookupIdent("let"));
+        assertEquals(TokenType.TRUE, Token.lookupIdent("true"));
+        assertEquals(TokenType.FALSE, Token.lookupIdent("false"));
+        assertEquals(TokenType.IF, Token.lookupIdent("if"));
+        assertEquals(TokenType.ELSE, Token.lookupIdent("else"));
+        assertEquals(TokenType.RETURN, Token.lookupIdent("return"));
+
+        for (var ident : new String[]{"f", "fx", "in", "lex", "Let", "tree", "elsa", "falsy", "retur", "returns", "x"}) {
+            assertEquals(TokenType.IDENT, Token.lookupIdent(ident), ident);
+        }
+    }
+
+    @Test
+    void lookupIdentInPlace() {
+        var input = "xreturn;iffy";
+
+        assertEquals(TokenType.RETURN, Token.lookupIdent(input, 1, 7));
+        assertEquals(TokenType.IF, Token.lookupIdent(input, 8, 10));
+        assertEquals(TokenType.IDENT, Token.lookupIdent(input, 8, 12));
+    }
+}
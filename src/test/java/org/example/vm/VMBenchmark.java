@@ -0,0 +1,119 @@
+package org.example.vm;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.example.ast.Program;
+import org.example.compiler.Bytecode;
+import org.example.compiler.Compiler;
+import org.example.evaluator.Evaluator;
+import org.example.lexer.Lexer;
+import org.example.object.MonkeyObject;
+import org.example.parser.Parser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The same programs run by the tree-walking {@link Evaluator} and by the
+ * {@link VM} on their compiled bytecode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VMBenchmark {
+    /**
+     * chain: 1000 terms of {@code + - *}, left-deep. tree: a balanced
+     * expression 12 levels deep. lets: 1000 let statements over six names.
+     */
+    @Param({"chain", "tree", "lets"})
+    private String shape;
+
+    private Program program;
+    private Bytecode bytecode;
+    private Evaluator evaluator;
+    private VM vm;
+
+    @Setup
+    public void setup() {
+        var random = new Random(42);
+        var source = switch (shape) {
+            case "chain" -> chain(random, 1000);
+            case "tree" -> tree(random, 12);
+            default -> lets(random, 1000);
+        };
+        program = new Parser(new Lexer(source)).parseProgram();
+        bytecode = Compiler.compile(program);
+        evaluator = new Evaluator();
+        vm = new VM();
+        var expected = evaluator.eval(program).inspect();
+        if (!expected.equals(vm.run(bytecode).inspect())) {
+            throw new IllegalStateException("VM and evaluator disagree");
+        }
+        System.out.println("result: " + expected + ", bytecode: " + bytecode.getInstructions().length + " bytes");
+    }
+
+    @Benchmark
+    public MonkeyObject evaluator() {
+        return evaluator.eval(program);
+    }
+
+    @Benchmark
+    public MonkeyObject vm() {
+        return vm.run(bytecode);
+    }
+
+    /**
+     * Compile and run, for programs run once.
+     */
+    @Benchmark
+    public MonkeyObject compileAndRun() {
+        return vm.run(Compiler.compile(program));
+    }
+
+    private static String chain(Random random, int terms) {
+        var out = new StringBuilder();
+        for (int i = 0; i < terms; i++) {
+            if (i > 0) {
+                out.append(' ').append("+-*".charAt(random.nextInt(3))).append(' ');
+            }
+            out.append(random.nextInt(10_000));
+        }
+        return out.toString();
+    }
+
+    private static String tree(Random random, int depth) {
+        if (depth == 0) {
+            return Integer.toString(1 + random.nextInt(10_000));
+        }
+        var operator = "+-*".charAt(random.nextInt(3));
+        return "(" + tree(random, depth - 1) + " " + operator + " " + tree(random, depth - 1) + ")";
+    }
+
+    private static String lets(Random random, int count) {
+        var names = new String[]{"a", "b", "c", "total", "count", "value"};
+        var out = new StringBuilder();
+        for (var name : names) {
+            out.append("let ").append(name).append(" = ").append(1 + random.nextInt(100)).append(";\n");
+        }
+        for (int i = 0; i < count; i++) {
+            out.append("let ").append(names[random.nextInt(names.length)]).append(" = ")
+                    .append(names[random.nextInt(names.length)]).append(' ')
+                    .append("+-*".charAt(random.nextInt(3))).append(' ')
+                    .append(names[random.nextInt(names.length)]).append(" / ")
+                    .append(1 + random.nextInt(9)).append(" - ")
+                    .append(names[random.nextInt(names.length)]).append(";\n");
+        }
+        return out.append("total").toString();
+    }
+}
@@ -0,0 +1,95 @@
+package org.example.vm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import java.util.Random;
+import org.example.compiler.Compiler;
+import org.example.evaluator.Evaluator;
+import org.example.lexer.Lexer;
+import org.example.object.MonkeyObject;
+import org.example.parser.Parser;
+import org.junit.jupiter.api.Test;
+
+class VMTest {
+
+    @Test
+    void testPrograms() {
+        var tests = Map.ofEntries(
+                Map.entry("1 + 2 * 3", "7"),
+                Map.entry("(5 + 10 * 2 + 15 / 3) * 2 + -10", "50"),
+                Map.entry("9223372036854775807 + 1", "-9223372036854775808"),
+                Map.entry("1 < 2 == !(2 < 1)", "true"),
+                Map.entry("!5", "false"),
+                Map.entry("let a = 5; let b = a * 2; a + b", "15"),
+                Map.entry("let a = 1 > 2; !a", "true"),
+                Map.entry("let a = 1;", "null"),
+                Map.entry("", "null"),
+                Map.entry("return 10; x", "10"),
+                Map.entry("let a = 2; let a = a * a; a", "4"),
+                Map.entry("5 + (1 < 2)", "ERROR: type mismatch: INTEGER + BOOLEAN"),
+                Map.entry("(1 < 2) == (1 < 2) + 1", "ERROR: type mismatch: BOOLEAN + INTEGER"),
+                Map.entry("(1 < 2) > (2 < 3)", "ERROR: unknown operator: BOOLEAN > BOOLEAN"),
+                Map.entry("-(1 < 2)", "ERROR: unknown operator: -BOOLEAN"),
+                Map.entry("1 + x", "ERROR: identifier not found: x"),
+                Map.entry("let x = x + 1;", "ERROR: identifier not found: x"),
+                Map.entry("7 / (3 - 3)", "ERROR: division by zero"),
+                Map.entry("1; let = 2; 3", "ERROR: 1:8: expected next token to be IDENT, got = instead"));
+        tests.forEach((input, expected) -> assertEquals(expected, run(input).inspect(), input));
+    }
+
+    @Test
+    void testDeepNesting() {
+        var depth = 100_000;
+        assertEquals("100001", run("(".repeat(depth) + "1" + " + 1)".repeat(depth)).inspect());
+    }
+
+    @Test
+    void sameAsEvaluator() {
+        var random = new Random(5);
+        var vm = new VM(1, 1); // grows as needed
+        for (int n = 0; n < 3000; n++) {
+            var input = program(random);
+            var program = new Parser(new Lexer(input)).parseProgram();
+            var expected = new Evaluator().eval(program).inspect();
+            assertEquals(expected, vm.run(Compiler.compile(program)).inspect(), input);
+        }
+    }
+
+    private static MonkeyObject run(String input) {
+        return new VM().run(Compiler.compile(new Parser(new Lexer(input)).parseProgram()));
+    }
+
+    private static String program(Random random) {
+        var out = new StringBuilder();
+        for (int i = random.nextInt(6); i >= 0; i--) {
+            switch (random.nextInt(6)) {
+                case 0, 1 -> out.append("let ").append("abc".charAt(random.nextInt(3))).append(" = ");
+                case 2 -> out.append(random.nextInt(8) == 0 ? "return " : "");
+                default -> {
+                }
+            }
+            expression(random, out, 3);
+            out.append(random.nextInt(20) == 0 ? " " : "; ");
+        }
+        return out.toString();
+    }
+
+    private static void expression(Random random, StringBuilder out, int depth) {
+        switch (depth == 0 ? random.nextInt(2) : random.nextInt(5)) {
+            case 0 -> out.append(random.nextInt(4) == 0 ? 1L << 62 : random.nextInt(5));
+            case 1 -> out.append("abcd".charAt(random.nextInt(4)));
+            case 2 -> {
+                out.append("-!".charAt(random.nextInt(2)));
+                expression(random, out, depth - 1);
+            }
+            default -> {
+                out.append('(');
+                expression(random, out, depth - 1);
+                out.append(' ').append(new String[]{"+", "-", "*", "/", "<", ">", "==", "!="}[random.nextInt(8)]).append(' ');
+                expression(random, out, depth - 1);
+                out.append(')');
+            }
+        }
+    }
+}